@@ -0,0 +1,117 @@
+package com.accenture.poc1.audit;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends decisions to the audit file and rotates it once it reaches the size
+ * limit: {@code decisions.csv} becomes {@code decisions.csv.1}, older files
+ * move up by one and the oldest beyond the history limit is deleted.
+ * <p>
+ * CSV lines are {@code timestamp,recordId,ruleId,field,outcome}. A BINARY file
+ * starts with {@link #MAGIC} followed by records of timestamp (long), record
+ * id (long), rule id and field (modified UTF-8) and the outcome ordinal (byte).
+ */
+public class AuditFileWriter implements DecisionRingBuffer.Consumer, Closeable {
+
+    public static final String CSV_HEADER = "timestamp,recordId,ruleId,field,outcome";
+    public static final int MAGIC = 0x52444131; // "RDA1"
+
+    private final Path path;
+    private final AuditProperties.Format format;
+    private final long maxFileSize;
+    private final int maxHistory;
+    // Size of the file when it was opened; out.size() counts what was added since
+    private long openedSize;
+    private DataOutputStream out;
+
+    public AuditFileWriter(Path path, AuditProperties.Format format, long maxFileSize, int maxHistory) {
+        this.path = path;
+        this.format = format;
+        this.maxFileSize = maxFileSize;
+        this.maxHistory = maxHistory;
+    }
+
+    @Override
+    public void accept(long timestamp, long recordId, String ruleId, String field, DecisionOutcome outcome) {
+        try {
+            if (out == null) {
+                open();
+            } else if (maxFileSize > 0 && openedSize + out.size() >= maxFileSize) {
+                out.close();
+                rotate();
+                open();
+            }
+            if (format == AuditProperties.Format.BINARY) {
+                out.writeLong(timestamp);
+                out.writeLong(recordId);
+                out.writeUTF(ruleId);
+                out.writeUTF(field);
+                out.writeByte(outcome.ordinal());
+            } else {
+                out.write((timestamp + "," + recordId + "," + ruleId + "," + field + "," + outcome + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write audit file " + path, e);
+        }
+    }
+
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        boolean exists = Files.exists(path) && Files.size(path) > 0;
+        openedSize = exists ? Files.size(path) : 0;
+        out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024));
+        if (!exists) {
+            if (format == AuditProperties.Format.BINARY) {
+                out.writeInt(MAGIC);
+            } else {
+                out.write((CSV_HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private void rotate() throws IOException {
+        if (maxHistory < 1) {
+            Files.deleteIfExists(path);
+            return;
+        }
+        Files.deleteIfExists(rotated(maxHistory));
+        for (int index = maxHistory - 1; index >= 1; index--) {
+            if (Files.exists(rotated(index))) {
+                Files.move(rotated(index), rotated(index + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(path, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,56 @@
+package com.accenture.poc1.audit;
+
+import lombok.Data;
+import org.springframework.util.unit.DataSize;
+
+@Data
+public class AuditProperties {
+
+    /**
+     * Record which rule masked, rejected or defaulted which field of which
+     * record. Needs the interpreter backend.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Audit file; rotated files get a {@code .1}, {@code .2}, ... suffix.
+     */
+    private String path = "audit/rule-decisions.csv";
+
+    private Format format = Format.CSV;
+
+    /**
+     * Decisions the ring buffer holds before the overflow policy applies;
+     * rounded up to a power of two.
+     */
+    private int capacity = 65_536;
+
+    private Overflow overflow = Overflow.DROP;
+
+    /**
+     * Most decisions the writer thread takes from the buffer per batch.
+     */
+    private int batchSize = 4_096;
+
+    /**
+     * Size at which the audit file is rotated; zero never rotates.
+     */
+    private DataSize maxFileSize = DataSize.ofMegabytes(100);
+
+    /**
+     * Rotated files kept next to the current one.
+     */
+    private int maxHistory = 10;
+
+    public enum Format {
+        CSV,
+        BINARY
+    }
+
+    public enum Overflow {
+        /** Discard the decision and count it in {@code rule.audit.dropped}. */
+        DROP,
+        /** Make the engine thread wait until the writer has freed a slot. */
+        BLOCK
+    }
+}
@@ -0,0 +1,13 @@
+package com.accenture.poc1.audit;
+
+/**
+ * What a rule did to a field value, as recorded in the audit trail.
+ */
+public enum DecisionOutcome {
+    /** A MASK rule replaced the value. */
+    MASKED,
+    /** A VALIDATE rule rejected the value, or the record was rejected. */
+    REJECTED,
+    /** A VALIDATE rule replaced an invalid value with its default. */
+    DEFAULTED
+}
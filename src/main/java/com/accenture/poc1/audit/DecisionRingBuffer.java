@@ -0,0 +1,108 @@
+package com.accenture.poc1.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer queue of rule decisions. All slots
+ * are allocated up front and published decisions are copied into them, so the
+ * engine threads never allocate or take a lock. A producer claims a sequence
+ * with a CAS and marks the slot as published once its fields are written; the
+ * consumer only reads slots whose marker carries the expected sequence.
+ */
+public class DecisionRingBuffer {
+
+    /**
+     * Receives drained decisions; the arguments are only valid during the call.
+     */
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(long timestamp, long recordId, String ruleId, String field, DecisionOutcome outcome);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final long[] timestamps;
+    private final long[] recordIds;
+    private final String[] ruleIds;
+    private final String[] fields;
+    private final DecisionOutcome[] outcomes;
+    // Sequence last published into each slot, -1 while never used
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+
+    public DecisionRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 1 || requestedCapacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + requestedCapacity);
+        }
+        // Rounded up to a power of two so the slot is a mask of the sequence
+        int size = Integer.highestOneBit(requestedCapacity);
+        this.capacity = size < requestedCapacity ? size << 1 : size;
+        this.mask = capacity - 1;
+        this.timestamps = new long[capacity];
+        this.recordIds = new long[capacity];
+        this.ruleIds = new String[capacity];
+        this.fields = new String[capacity];
+        this.outcomes = new DecisionOutcome[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Copies a decision into the next free slot.
+     *
+     * @return false when the buffer is full
+     */
+    public boolean offer(long timestamp, long recordId, String ruleId, String field, DecisionOutcome outcome) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= capacity) {
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & mask;
+        timestamps[slot] = timestamp;
+        recordIds[slot] = recordId;
+        ruleIds[slot] = ruleId;
+        fields[slot] = field;
+        outcomes[slot] = outcome;
+        published.setRelease(slot, sequence);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code max} published decisions to the consumer in order and
+     * frees their slots. A decision whose consumer call throws stays queued.
+     * Must only be called from one thread.
+     *
+     * @return the number of decisions drained
+     */
+    public int drain(Consumer consumer, int max) {
+        long next = consumed.get();
+        int count = 0;
+        while (count < max) {
+            int slot = (int) next & mask;
+            if (published.getAcquire(slot) != next) {
+                break;
+            }
+            consumer.accept(timestamps[slot], recordIds[slot], ruleIds[slot], fields[slot], outcomes[slot]);
+            // Free the slot right away so blocked producers can continue
+            consumed.lazySet(++next);
+            count++;
+        }
+        return count;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long size() {
+        return claimed.get() - consumed.get();
+    }
+}
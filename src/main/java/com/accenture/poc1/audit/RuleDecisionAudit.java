@@ -0,0 +1,120 @@
+package com.accenture.poc1.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit trail of rule decisions. Engine threads copy decisions
+ * into a {@link DecisionRingBuffer}; one background thread drains it in
+ * batches into the {@link AuditFileWriter}. When the buffer is full the
+ * decision is dropped or the engine thread waits, depending on the
+ * {@link AuditProperties.Overflow} policy. A write error stops the audit:
+ * from then on {@code BLOCK} fails the publishing engine thread instead of
+ * waiting for a writer that will not drain, and {@code DROP} counts every
+ * decision as dropped.
+ */
+@Slf4j
+public class RuleDecisionAudit implements Closeable {
+
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BLOCKED_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final DecisionRingBuffer buffer;
+    private final AuditFileWriter writer;
+    private final AuditProperties.Overflow overflow;
+    private final int batchSize;
+    private final Counter dropped = Metrics.counter("rule.audit.dropped");
+    private final Thread drainer;
+    private volatile boolean running = true;
+    private volatile Exception failure;
+
+    public RuleDecisionAudit(AuditProperties properties) {
+        this(properties, new AuditFileWriter(Path.of(properties.getPath()), properties.getFormat(),
+            properties.getMaxFileSize().toBytes(), properties.getMaxHistory()));
+    }
+
+    RuleDecisionAudit(AuditProperties properties, AuditFileWriter writer) {
+        this.buffer = new DecisionRingBuffer(properties.getCapacity());
+        this.writer = writer;
+        this.overflow = properties.getOverflow();
+        this.batchSize = properties.getBatchSize();
+        this.drainer = new Thread(this::drain, "rule-audit-writer");
+        drainer.setDaemon(true);
+        drainer.start();
+        log.info("Rule decision audit to {} ({}, {} slots, {} on overflow)", properties.getPath(),
+            properties.getFormat(), buffer.capacity(), overflow);
+    }
+
+    public void publish(long recordId, String ruleId, String field, DecisionOutcome outcome) {
+        long timestamp = System.currentTimeMillis();
+        while (failure != null || !buffer.offer(timestamp, recordId, ruleId, field, outcome)) {
+            if (failure != null && overflow == AuditProperties.Overflow.BLOCK) {
+                throw new IllegalStateException("Rule decision audit failed, decisions are no longer recorded",
+                    failure);
+            }
+            if (overflow == AuditProperties.Overflow.DROP || !running) {
+                dropped.increment();
+                return;
+            }
+            LockSupport.parkNanos(BLOCKED_NANOS);
+        }
+    }
+
+    public long getDropped() {
+        return (long) dropped.count();
+    }
+
+    /**
+     * Stops the writer thread after it has written every published decision.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                if (buffer.drain(writer, batchSize) == 0) {
+                    writer.flush();
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+            } catch (Exception e) {
+                // A full disk or an unwritable path does not recover by writing the same decision again
+                log.error("Failed to write rule decisions, audit stopped", e);
+                failure = e;
+                closeWriter();
+                return;
+            }
+        }
+        try {
+            while (buffer.drain(writer, batchSize) > 0) {
+                // Publishers see running == false and stop adding
+            }
+            writer.close();
+        } catch (Exception e) {
+            log.error("Failed to write rule decisions on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private void closeWriter() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Could not close audit file: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.accenture.poc1.chunk;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.policy.CompletionPolicySupport;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Completion policy whose chunk size follows the measured cost of each chunk
+ * (read, process, write and commit). The size grows while chunks stay under
+ * the target duration and throughput does not drop, shrinks proportionally
+ * when a chunk overruns the target, and is halved on a rollback or when the
+ * heap after GC is above the configured threshold. Growth pauses for a few
+ * chunks after every back-off.
+ * <p>
+ * Register the instance as completion policy, chunk listener and step
+ * listener of the same step. Chosen sizes are published as
+ * {@code batch.chunk.size} (gauge) and {@code batch.chunk.items} (summary),
+ * tagged with the step execution and removed when it ends, and the last and
+ * largest sizes are kept in the step execution context.
+ */
+@Slf4j
+public class AdaptiveChunkSizePolicy extends CompletionPolicySupport implements ChunkListener, StepExecutionListener {
+
+    public static final String LAST_SIZE_KEY = "adaptive-chunk.last-size";
+    public static final String MAX_SIZE_KEY = "adaptive-chunk.max-size";
+
+    private static final String START_NANOS = "adaptive-chunk.start-nanos";
+    private static final String START_READ_COUNT = "adaptive-chunk.start-read-count";
+    private static final double GROWTH = 1.5;
+    // Throughput may dip this much below the best seen before growth stops
+    private static final double THROUGHPUT_TOLERANCE = 0.1;
+    private static final int COOLDOWN_CHUNKS = 5;
+
+    private final ChunkSizingProperties settings;
+    private final DoubleSupplier heapUsage;
+    private final AtomicInteger size = new AtomicInteger();
+
+    private Long stepExecutionId;
+    private double bestThroughput;
+    private int cooldown;
+    private int largestSize;
+    private Gauge sizeGauge;
+    private DistributionSummary chosenSizes;
+
+    public AdaptiveChunkSizePolicy(ChunkSizingProperties settings) {
+        this(settings, AdaptiveChunkSizePolicy::heapUsageAfterGc);
+    }
+
+    AdaptiveChunkSizePolicy(ChunkSizingProperties settings, DoubleSupplier heapUsage) {
+        if (settings.getMinSize() < 1 || settings.getMaxSize() < settings.getMinSize()) {
+            throw new IllegalArgumentException("Chunk size bounds must satisfy 1 <= min <= max");
+        }
+        this.settings = settings;
+        this.heapUsage = heapUsage;
+        this.size.set(bounded(settings.getInitialSize()));
+    }
+
+    public int getChunkSize() {
+        return size.get();
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+        return new SizedRepeatContext(parent, size.get());
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context, RepeatStatus result) {
+        return super.isComplete(context, result) || isComplete(context);
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        return context.getStartedCount() >= ((SizedRepeatContext) context).chunkSize;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        if (!stepExecution.getId().equals(stepExecutionId)) {
+            startStep(stepExecution);
+        }
+        context.setAttribute(START_NANOS, System.nanoTime());
+        context.setAttribute(START_READ_COUNT, stepExecution.getReadCount());
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        Object startNanos = context.getAttribute(START_NANOS);
+        Object startReadCount = context.getAttribute(START_READ_COUNT);
+        if (startNanos == null || startReadCount == null) {
+            return;
+        }
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        int items = (int) (stepExecution.getReadCount() - (long) startReadCount);
+        onChunkCompleted(items, System.nanoTime() - (long) startNanos);
+
+        stepExecution.getExecutionContext().putInt(LAST_SIZE_KEY, size.get());
+        stepExecution.getExecutionContext().putInt(MAX_SIZE_KEY, largestSize);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        onChunkRolledBack();
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (stepExecution.getId().equals(stepExecutionId)) {
+            removeMeters();
+        }
+        return null;
+    }
+
+    void onChunkCompleted(int items, long elapsedNanos) {
+        if (chosenSizes != null) {
+            chosenSizes.record(items);
+        }
+        if (items <= 0 || elapsedNanos <= 0) {
+            return;
+        }
+
+        int current = size.get();
+        double throughput = items * 1_000_000_000.0 / elapsedNanos;
+        long targetNanos = settings.getTargetChunkTime().toNanos();
+
+        if (heapUsage.getAsDouble() > settings.getMemoryThreshold()) {
+            backOff(current / 2, "heap usage above " + settings.getMemoryThreshold());
+        } else if (elapsedNanos > targetNanos) {
+            // Scale to the size that would have met the target, but at most halve
+            backOff((int) Math.max(current / 2, (long) current * targetNanos / elapsedNanos),
+                "chunk took " + elapsedNanos / 1_000_000 + " ms");
+        } else if (cooldown > 0) {
+            cooldown--;
+        } else if (items < current) {
+            // The last, partial chunk of a step says nothing about the size
+            return;
+        } else if (throughput >= bestThroughput * (1 - THROUGHPUT_TOLERANCE)) {
+            bestThroughput = Math.max(bestThroughput, throughput);
+            resize((int) Math.ceil(current * GROWTH));
+        } else {
+            // Past the sweet spot: step back and settle
+            bestThroughput = throughput;
+            backOff((int) (current / GROWTH), "throughput dropped to " + Math.round(throughput) + " items/s");
+        }
+    }
+
+    void onChunkRolledBack() {
+        backOff(size.get() / 2, "chunk rolled back");
+    }
+
+    private void startStep(StepExecution stepExecution) {
+        stepExecutionId = stepExecution.getId();
+        bestThroughput = 0;
+        cooldown = 0;
+        size.set(bounded(settings.getInitialSize()));
+        largestSize = size.get();
+
+        // Every launch and partition worker has its own policy, so the meters belong to one execution
+        removeMeters();
+        Tags tags = Tags.of("step", stepExecution.getStepName(), "execution", String.valueOf(stepExecutionId));
+        sizeGauge = Gauge.builder("batch.chunk.size", size, AtomicInteger::get)
+            .description("Chunk size chosen for the next chunk")
+            .tags(tags)
+            .strongReference(true)
+            .register(Metrics.globalRegistry);
+        chosenSizes = DistributionSummary.builder("batch.chunk.items")
+            .description("Items per committed chunk")
+            .tags(tags)
+            .register(Metrics.globalRegistry);
+    }
+
+    private void removeMeters() {
+        if (sizeGauge != null) {
+            Metrics.globalRegistry.remove(sizeGauge);
+            sizeGauge = null;
+        }
+        if (chosenSizes != null) {
+            Metrics.globalRegistry.remove(chosenSizes);
+            chosenSizes = null;
+        }
+    }
+
+    private void backOff(int newSize, String reason) {
+        cooldown = COOLDOWN_CHUNKS;
+        int previous = size.get();
+        resize(newSize);
+        if (size.get() != previous) {
+            log.info("Chunk size {} -> {}: {}", previous, size.get(), reason);
+        }
+    }
+
+    private void resize(int newSize) {
+        size.set(bounded(newSize));
+        largestSize = Math.max(largestSize, size.get());
+    }
+
+    private int bounded(int candidate) {
+        return Math.max(settings.getMinSize(), Math.min(settings.getMaxSize(), candidate));
+    }
+
+    private static double heapUsageAfterGc() {
+        return oldGenUsageAfterGc(ManagementFactory.getMemoryPoolMXBeans());
+    }
+
+    /**
+     * Old-generation occupancy after the last collection, 0..1. Only tenured
+     * pools count: eden and survivor spaces are routinely full right after a
+     * young collection. HotSpot supports a usage threshold on the tenured pool
+     * only (the single ZHeap/Shenandoah pool included), which picks it
+     * independently of the pool names of each collector.
+     */
+    static double oldGenUsageAfterGc(List<MemoryPoolMXBean> pools) {
+        double usage = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            MemoryUsage afterGc = pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()
+                && pool.isCollectionUsageThresholdSupported() ? pool.getCollectionUsage() : null;
+            if (afterGc != null && afterGc.getMax() > 0) {
+                usage = Math.max(usage, (double) afterGc.getUsed() / afterGc.getMax());
+            }
+        }
+        return usage;
+    }
+
+    private static class SizedRepeatContext extends RepeatContextSupport {
+
+        private final int chunkSize;
+
+        SizedRepeatContext(RepeatContext parent, int chunkSize) {
+            super(parent);
+            this.chunkSize = chunkSize;
+        }
+    }
+}
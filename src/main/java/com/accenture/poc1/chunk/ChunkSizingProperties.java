@@ -0,0 +1,32 @@
+package com.accenture.poc1.chunk;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+public class ChunkSizingProperties {
+
+    /**
+     * Tune the chunk size from measured chunk time and throughput. When false
+     * every chunk has {@code initialSize} items.
+     */
+    private boolean adaptive = true;
+
+    private int initialSize = 100;
+
+    private int minSize = 10;
+
+    private int maxSize = 5_000;
+
+    /**
+     * Longest a chunk (read, process, write, commit) should take; longer
+     * chunks shrink the size.
+     */
+    private Duration targetChunkTime = Duration.ofSeconds(1);
+
+    /**
+     * Heap occupancy after GC (0..1) above which the size is halved.
+     */
+    private double memoryThreshold = 0.8;
+}
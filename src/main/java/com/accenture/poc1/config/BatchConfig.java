@@ -1,29 +1,72 @@
 package com.accenture.poc1.config;
 
+import com.accenture.poc1.chunk.AdaptiveChunkSizePolicy;
+import com.accenture.poc1.chunk.ChunkSizingProperties;
+import com.accenture.poc1.listener.StepThroughputListener;
 import com.accenture.poc1.model.Client;
 import com.accenture.poc1.processor.ClientRuleProcessor;
+import com.accenture.poc1.partition.ClientIdRangePartitioner;
+import com.accenture.poc1.partition.FileSystemPartitionChannel;
+import com.accenture.poc1.partition.InProcessPartitionChannel;
+import com.accenture.poc1.partition.PartitionChannel;
+import com.accenture.poc1.partition.PartitionWorker;
+import com.accenture.poc1.partition.PartitionWorkerPool;
+import com.accenture.poc1.partition.PartitioningProperties;
+import com.accenture.poc1.partition.RemotePartitionHandler;
+import com.accenture.poc1.reader.ClientRowMapper;
+import com.accenture.poc1.reader.WatermarkClientItemReader;
+import com.accenture.poc1.repository.JobRepositoryProperties;
+import com.accenture.poc1.rule.EnhancedRuleEngine;
+import com.accenture.poc1.writer.ArrowClientItemWriter;
+import com.accenture.poc1.writer.ClassifierRoutingItemWriter;
+import com.accenture.poc1.writer.ClientFieldExtractor;
+import com.accenture.poc1.writer.CopyClientItemWriter;
+import com.accenture.poc1.writer.CopyIn;
+import com.accenture.poc1.writer.PgCopyIn;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.scope.ScopedObject;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.JobFactory;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.database.JdbcCursorItemReader;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
 import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
-import org.springframework.batch.item.file.FlatFileItemWriter;
 import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
-import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
 import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.classify.Classifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.FileSystemResource;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
 
 @Slf4j
 @Configuration
@@ -31,53 +74,297 @@ import javax.sql.DataSource;
 @RequiredArgsConstructor
 public class BatchConfig {
 
+    private static final String CSV_HEADER = "id,name,age,ageCategory";
+    private static final String PARTITION_STEP = "exportClientPartitionStep";
+
+    /**
+     * Job parameter overriding {@code client-export.output}, so concurrent
+     * launches of the export write different files.
+     */
+    public static final String OUTPUT_PARAMETER = "output";
+
+    /**
+     * Job parameter with the threads one launch may keep busy; caps the
+     * routing flush pool.
+     */
+    public static final String THREADS_PARAMETER = "threads";
+
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
     private final DataSource dataSource;
     private final ClientRuleProcessor clientRuleProcessor;
+    private final JobExplorer jobExplorer;
+    private final ClientExportProperties exportProperties;
+    private final ObjectProvider<CopyIn> copyIn;
+    private final EnhancedRuleEngine ruleEngine;
+    private final JobRepositoryProperties jobRepositoryProperties;
 
     @Bean
     public Job clientToCsvJob() {
+        return clientExportJob();
+    }
+
+    // Every job it creates has its own step, reader and chunk policy, so
+    // JobRunner can run several exports at the same time
+    @Bean
+    public JobFactory clientToCsvJobFactory() {
+        return new JobFactory() {
+            @Override
+            public Job createJob() {
+                return clientExportJob();
+            }
+
+            @Override
+            public String getJobName() {
+                return "clientToCsvJob";
+            }
+        };
+    }
+
+    private Job clientExportJob() {
+        checkPartitioning();
         return new JobBuilder("clientToCsvJob", jobRepository)
                 .incrementer(new RunIdIncrementer())
+                .listener(stepThroughputListener())
                 .start(exportClientToCsvStep())
                 .build();
     }
 
     @Bean
-    public Step exportClientToCsvStep() {
-        return new StepBuilder("exportClientToCsvStep", jobRepository)
-                .<Client, Client>chunk(10, transactionManager)
-                .reader(clientItemReader())
-                .processor(clientRuleProcessor)
-                .writer(clientCsvItemWriter())
-                .build();
+    public StepThroughputListener<Client> stepThroughputListener() {
+        return new StepThroughputListener<>(ruleEngine, jobExplorer);
+    }
+
+    private Step exportClientToCsvStep() {
+        PartitioningProperties partitioning = exportProperties.getPartitioning();
+        if (partitioning.getMode() == PartitioningProperties.Mode.MANAGER) {
+            return new StepBuilder("exportClientToCsvStep", jobRepository)
+                    .partitioner(PARTITION_STEP, new ClientIdRangePartitioner(dataSource))
+                    .partitionHandler(new RemotePartitionHandler(partitionChannel(), jobExplorer, jobRepository,
+                            PARTITION_STEP, ruleEngine::getRuleSetHash, partitioning.getGridSize(),
+                            partitioning.getTimeout()))
+                    .build();
+        }
+        return chunkStep("exportClientToCsvStep", clientItemReader());
+    }
+
+    private void checkPartitioning() {
+        PartitioningProperties partitioning = exportProperties.getPartitioning();
+        if (partitioning.getMode() == PartitioningProperties.Mode.NONE) {
+            return;
+        }
+        if (exportProperties.isIncremental()) {
+            // Partition readers select a fixed id range and never see the watermark
+            throw new IllegalStateException("client-export.incremental is not supported with partitioning");
+        }
+        if (partitioning.getChannel() == PartitioningProperties.Channel.FILESYSTEM
+                && jobRepositoryProperties.getMode() == JobRepositoryProperties.Mode.IN_MEMORY) {
+            // Remote workers look up their step execution in the manager's repository
+            throw new IllegalStateException(
+                    "job-repository.mode=in-memory cannot be shared with filesystem partition workers");
+        }
+    }
+
+    @Bean
+    public PartitionChannel partitionChannel() {
+        PartitioningProperties partitioning = exportProperties.getPartitioning();
+        return partitioning.getChannel() == PartitioningProperties.Channel.FILESYSTEM
+                ? new FileSystemPartitionChannel(Path.of(partitioning.getDirectory()), partitioning.getPollInterval())
+                : new InProcessPartitionChannel();
+    }
+
+    @Bean
+    public PartitionWorkerPool partitionWorkerPool() {
+        PartitioningProperties partitioning = exportProperties.getPartitioning();
+        boolean localWorkers = partitioning.getMode() == PartitioningProperties.Mode.WORKER
+                || (partitioning.getMode() == PartitioningProperties.Mode.MANAGER
+                    && partitioning.getChannel() == PartitioningProperties.Channel.IN_PROCESS);
+        List<PartitionWorker> workers = new ArrayList<>();
+        for (int i = 0; localWorkers && i < partitioning.getWorkers(); i++) {
+            // A step per worker, the adaptive chunk policy keeps per-step state
+            workers.add(new PartitionWorker(workerId(i), partitionChannel(), jobExplorer,
+                    chunkStep(PARTITION_STEP, clientPartitionReader(null, null)), ruleEngine::getRuleSetHash));
+        }
+        return new PartitionWorkerPool(workers);
     }
 
     @Bean
-    public JdbcCursorItemReader<Client> clientItemReader() {
+    @StepScope
+    public ItemStreamReader<Client> clientPartitionReader(
+            @Value("#{stepExecutionContext['" + ClientIdRangePartitioner.MIN_ID_KEY + "']}") Long minId,
+            @Value("#{stepExecutionContext['" + ClientIdRangePartitioner.MAX_ID_KEY + "']}") Long maxId) {
+        return new JdbcCursorItemReaderBuilder<Client>()
+                .name("clientPartitionReader")
+                .dataSource(dataSource)
+                .sql("SELECT id, name, age FROM client WHERE id BETWEEN ? AND ? ORDER BY id")
+                .queryArguments(minId, maxId)
+                .rowMapper(clientRowMapper())
+                .build();
+    }
+
+    private Step chunkStep(String name, ItemStreamReader<Client> reader) {
+        ChunkSizingProperties chunk = exportProperties.getChunk();
+        CompletionPolicy completionPolicy = chunk.isAdaptive()
+                ? new AdaptiveChunkSizePolicy(chunk)
+                : new SimpleCompletionPolicy(chunk.getInitialSize());
+
+        ItemStreamWriter<Client> writer = clientCsvItemWriter(null);
+        SimpleStepBuilder<Client, Client> step = new StepBuilder(name, jobRepository)
+                .<Client, Client>chunk(completionPolicy, transactionManager)
+                .reader(reader)
+                .processor(clientRuleProcessor)
+                .writer(writer);
+        if (completionPolicy instanceof ChunkListener chunkListener) {
+            // The adaptive policy measures each chunk through the listener callbacks
+            step.listener(chunkListener);
+        }
+        if (completionPolicy instanceof StepExecutionListener stepListener) {
+            step.listener(stepListener);
+        }
+        StepThroughputListener<Client> throughput = stepThroughputListener();
+        step.listener((StepExecutionListener) throughput);
+        step.listener((ChunkListener) throughput);
+        step.listener((ItemReadListener<Client>) throughput);
+        step.listener((ItemProcessListener<Client, Client>) throughput);
+        step.listener((ItemWriteListener<Client>) throughput);
+        if (exportProperties.getFormat() == ClientExportProperties.Format.ARROW) {
+            // The step-scoped proxy only exposes ItemStreamWriter; the Arrow writer finishes its file in afterStep
+            step.listener(new StepExecutionListener() {
+                @Override
+                public ExitStatus afterStep(StepExecution stepExecution) {
+                    Object target = ((ScopedObject) writer).getTargetObject();
+                    return ((StepExecutionListener) target).afterStep(stepExecution);
+                }
+            });
+        }
+        return step.build();
+    }
+
+    private static String workerId(int index) {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return host + "-" + ProcessHandle.current().pid() + "-" + (index + 1);
+    }
+
+    private ItemStreamReader<Client> clientItemReader() {
+        if (exportProperties.isIncremental()) {
+            return new WatermarkClientItemReader(dataSource, jobExplorer, exportProperties.getWatermarkColumn(),
+                    clientRowMapper(), this::watermarkScope, exportProperties.getWatermarkLookback());
+        }
         return new JdbcCursorItemReaderBuilder<Client>()
                 .name("clientItemReader")
                 .dataSource(dataSource)
                 .sql("SELECT id, name, age FROM client ORDER BY id")
-                .rowMapper(new BeanPropertyRowMapper<>(Client.class))
+                .rowMapper(clientRowMapper())
                 .build();
     }
 
-    @Bean
-    public FlatFileItemWriter<Client> clientCsvItemWriter() {
-        BeanWrapperFieldExtractor<Client> fieldExtractor = new BeanWrapperFieldExtractor<>();
-        fieldExtractor.setNames(new String[]{"id", "name", "age", "ageCategory"});
+    // The typed formats need id and age as integers; CSV writes the column text
+    private ClientRowMapper clientRowMapper() {
+        return new ClientRowMapper(exportProperties.isPassThrough()
+                && exportProperties.getFormat() == ClientExportProperties.Format.CSV);
+    }
 
+    @Bean
+    @StepScope
+    public ItemStreamWriter<Client> clientCsvItemWriter(
+            @Value("#{stepExecution}") StepExecution stepExecution) {
         DelimitedLineAggregator<Client> lineAggregator = new DelimitedLineAggregator<>();
         lineAggregator.setDelimiter(",");
-        lineAggregator.setFieldExtractor(fieldExtractor);
+        lineAggregator.setFieldExtractor(new ClientFieldExtractor("id", "name", "age", "ageCategory"));
+
+        if (exportProperties.getFormat() == ClientExportProperties.Format.ARROW) {
+            return new ArrowClientItemWriter(arrowOutputFile(stepExecution), exportProperties.getArrowBatchSize(),
+                    stepExecution);
+        }
+        if (exportProperties.getFormat() == ClientExportProperties.Format.TABLE) {
+            ClientExportProperties.Table table = exportProperties.getTable();
+            return new CopyClientItemWriter(dataSource, copyIn.getIfAvailable(PgCopyIn::new),
+                    table.getTarget(), table.isUpsert() ? table.getStaging() : null);
+        }
+
+        boolean append = exportProperties.isIncremental()
+                && exportProperties.getOutputMode() == ClientExportProperties.OutputMode.APPEND;
+        ClientExportProperties.Routing routing = exportProperties.getRouting();
+        if (routing.isEnabled()) {
+            int flushThreads = (int) Math.min(routing.getFlushThreads(),
+                    stepExecution.getJobParameters().getLong(THREADS_PARAMETER, (long) Integer.MAX_VALUE));
+            return new ClassifierRoutingItemWriter<>(routeClassifier(routing), lineAggregator, CSV_HEADER,
+                    outputFile(stepExecution), append, routing.getMaxOpenFiles(), Math.max(1, flushThreads));
+        }
 
         return new FlatFileItemWriterBuilder<Client>()
                 .name("clientCsvItemWriter")
-                .resource(new FileSystemResource("clients_export.csv"))
+                .resource(new FileSystemResource(outputFile(stepExecution)))
+                .append(append)
                 .lineAggregator(lineAggregator)
-                .headerCallback(writer -> writer.write("id,name,age,ageCategory"))
+                .headerCallback(writer -> writer.write(CSV_HEADER))
                 .build();
     }
-}
\ No newline at end of file
+
+    private Classifier<Client, String> routeClassifier(ClientExportProperties.Routing routing) {
+        ClientFieldExtractor keyExtractor = new ClientFieldExtractor(routing.getKeyField());
+        return client -> {
+            Object key = keyExtractor.extract(client)[0];
+            return key == null || key.toString().isBlank() ? routing.getDefaultKey() : key.toString();
+        };
+    }
+
+    private Path arrowOutputFile(StepExecution stepExecution) {
+        // A stream cannot be appended to, so incremental runs always get their own file
+        String output = exportProperties.isIncremental()
+                ? withSuffix(partitionOutput(stepExecution), "-" + instanceId(stepExecution))
+                : partitionOutput(stepExecution);
+        int dot = output.lastIndexOf('.');
+        return Path.of((dot > output.lastIndexOf('/') + 1 ? output.substring(0, dot) : output) + ".arrows");
+    }
+
+    private String output(StepExecution stepExecution) {
+        return stepExecution.getJobParameters().getString(OUTPUT_PARAMETER, exportProperties.getOutput());
+    }
+
+    private String watermarkScope(JobParameters parameters) {
+        StringJoiner scope = new StringJoiner(",");
+        for (String name : exportProperties.getWatermarkScope()) {
+            String value = name.equals(OUTPUT_PARAMETER)
+                    ? parameters.getString(OUTPUT_PARAMETER, exportProperties.getOutput())
+                    : parameters.getString(name);
+            scope.add(name + "=" + (value != null ? value : ""));
+        }
+        return scope.toString();
+    }
+
+    // Each partition writes its own part file
+    private String partitionOutput(StepExecution stepExecution) {
+        String output = output(stepExecution);
+        if (stepExecution.getExecutionContext().containsKey(ClientIdRangePartitioner.PARTITION_KEY)) {
+            output = withSuffix(output, "-part" + stepExecution.getExecutionContext().getInt(ClientIdRangePartitioner.PARTITION_KEY));
+        }
+        return output;
+    }
+
+    private String outputFile(StepExecution stepExecution) {
+        String output = partitionOutput(stepExecution);
+        if (!exportProperties.isIncremental()
+                || exportProperties.getOutputMode() != ClientExportProperties.OutputMode.ROLL) {
+            return output;
+        }
+        // Keyed by job instance so a restart keeps writing the same file
+        return withSuffix(output, "-" + instanceId(stepExecution));
+    }
+
+    private static long instanceId(StepExecution stepExecution) {
+        return stepExecution.getJobExecution().getJobInstance().getInstanceId();
+    }
+
+    private static String withSuffix(String output, String suffix) {
+        int dot = output.lastIndexOf('.');
+        return dot > output.lastIndexOf('/') + 1
+                ? output.substring(0, dot) + suffix + output.substring(dot)
+                : output + suffix;
+    }
+}
@@ -0,0 +1,118 @@
+package com.accenture.poc1.config;
+
+import com.accenture.poc1.chunk.ChunkSizingProperties;
+import com.accenture.poc1.partition.PartitioningProperties;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "client-export")
+public class ClientExportProperties {
+
+    /**
+     * CSV file to write. In ROLL mode each job instance writes
+     * {@code <name>-<job instance id>.<ext>} next to it.
+     */
+    private String output = "clients_export.csv";
+
+    /**
+     * Only read rows past the watermark of the last completed run.
+     * When false every run re-exports the whole table and overwrites the file.
+     */
+    private boolean incremental = false;
+
+    /**
+     * Monotonically increasing column used as watermark, e.g. id or an
+     * updated-at timestamp.
+     */
+    private String watermarkColumn = "id";
+
+    /**
+     * Job parameters that select the watermark: runs differing in any of them
+     * track their own watermark. {@code output} falls back to {@link #output}.
+     */
+    private List<String> watermarkScope = List.of(BatchConfig.OUTPUT_PARAMETER, "tenant");
+
+    /**
+     * Job instances searched for the last completed run of the same scope.
+     * A scope that completed before but is not found in the window fails
+     * the step instead of exporting everything again; a new scope starts.
+     */
+    private int watermarkLookback = 50;
+
+    private OutputMode outputMode = OutputMode.APPEND;
+
+    private Format format = Format.CSV;
+
+    /**
+     * Carry id and age from the reader to the CSV writer as the driver's column
+     * text instead of decoding them to integers. Ignored for the ARROW and
+     * TABLE formats, which need typed values.
+     */
+    private boolean passThrough = true;
+
+    /**
+     * Rows per Arrow record batch. Larger batches compress and scan better
+     * but are held in memory until written.
+     */
+    private int arrowBatchSize = 65_536;
+
+    private ChunkSizingProperties chunk = new ChunkSizingProperties();
+
+    private Routing routing = new Routing();
+
+    private Table table = new Table();
+
+    private Rejects rejects = new Rejects();
+
+    private PartitioningProperties partitioning = new PartitioningProperties();
+
+    public enum OutputMode {
+        /** Append each delta to the same file; the header is written once. */
+        APPEND,
+        /** Write each delta to its own file. */
+        ROLL
+    }
+
+    public enum Format {
+        CSV,
+        /** Arrow IPC stream ({@code .arrows}) with a dictionary-encoded ageCategory. */
+        ARROW,
+        /** Database table loaded with COPY, see {@link Table}. */
+        TABLE
+    }
+
+    @Data
+    public static class Routing {
+        /** Split the export into one file per route key instead of a single file. */
+        private boolean enabled = false;
+        /** Client property set by the rules whose value picks the file, e.g. ageCategory. */
+        private String keyField = "ageCategory";
+        /** Route for items whose key field is empty. */
+        private String defaultKey = "unclassified";
+        /** Upper bound on route files held open; the least recently used is closed first. */
+        private int maxOpenFiles = 32;
+        private int flushThreads = 4;
+    }
+
+    @Data
+    public static class Table {
+        /** Table with columns id (primary key), name, age, age_category. */
+        private String target = "client_export";
+        /** Same columns as the target, no key; cleared after every chunk. */
+        private String staging = "client_export_staging";
+        /** Upsert through staging by id; when false rows are copied straight into the target. */
+        private boolean upsert = true;
+    }
+
+    @Data
+    public static class Rejects {
+        /** Write records rejected by a rule to {@code path}; when false they are only counted. */
+        private boolean enabled = true;
+        private String path = "clients_rejects.csv";
+        /** Rejected records queued for the writer thread before the processor waits. */
+        private int capacity = 8_192;
+    }
+}
@@ -0,0 +1,45 @@
+package com.accenture.poc1.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * One chunk from its first read to its commit (or rollback).
+ */
+@Name("com.accenture.poc1.ChunkCommit")
+@Label("Chunk Commit")
+@Category({"Spring Batch"})
+@Description("Read, process, write and commit of one chunk")
+@Enabled(false)
+@Threshold("0 ms")
+@StackTrace(false)
+public class ChunkCommitEvent extends Event {
+
+    @Label("Step")
+    public String step;
+
+    @Label("Items")
+    public int items;
+
+    @Label("Read Time")
+    @Timespan
+    public long readNanos;
+
+    @Label("Process Time")
+    @Timespan
+    public long processNanos;
+
+    @Label("Write Time")
+    @Timespan
+    public long writeNanos;
+
+    @Label("Rolled Back")
+    public boolean rolledBack;
+}
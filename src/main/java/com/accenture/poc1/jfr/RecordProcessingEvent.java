@@ -0,0 +1,29 @@
+package com.accenture.poc1.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * All rules applied to one record by the item processor.
+ */
+@Name("com.accenture.poc1.RecordProcessing")
+@Label("Record Processing")
+@Category({"Rule Engine"})
+@Description("Rule processing of a single record")
+@Enabled(false)
+@Threshold("5 ms")
+@StackTrace(false)
+public class RecordProcessingEvent extends Event {
+
+    @Label("Record Id")
+    public String recordId;
+
+    @Label("Rejected")
+    public boolean rejected;
+}
@@ -0,0 +1,47 @@
+package com.accenture.poc1.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One rule evaluated against one field value. With the compiled backend there
+ * is one event per field program, with the rule type {@code PROGRAM}.
+ */
+@Name("com.accenture.poc1.RuleEvaluation")
+@Label("Rule Evaluation")
+@Category({"Rule Engine"})
+@Description("Condition check and action of a single rule")
+@Enabled(false)
+@Threshold("1 ms")
+@StackTrace(false)
+public class RuleEvaluationEvent extends Event {
+
+    // Keeps recordings small and limits how much data they expose
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    @Label("Rule Id")
+    public String ruleId;
+
+    @Label("Field")
+    public String field;
+
+    @Label("Rule Type")
+    public String ruleType;
+
+    @Label("Matched")
+    public boolean matched;
+
+    @Label("Value")
+    @Description("Input value, truncated")
+    public String value;
+
+    public static String truncate(String value) {
+        return value == null || value.length() <= MAX_VALUE_LENGTH ? value : value.substring(0, MAX_VALUE_LENGTH) + "...";
+    }
+}
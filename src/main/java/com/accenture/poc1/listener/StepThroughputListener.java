@@ -0,0 +1,325 @@
+package com.accenture.poc1.listener;
+
+import com.accenture.poc1.jfr.ChunkCommitEvent;
+import com.accenture.poc1.rule.EnhancedRuleEngine;
+import com.accenture.poc1.rule.RuleChangeCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Times reading, processing and writing of every chunk and reports where a
+ * step spends its time. Per chunk the phase timings go to the Micrometer
+ * timers {@code batch.step.read}, {@code batch.step.process} and
+ * {@code batch.step.write}, and the items/sec over the last chunks to the
+ * {@code batch.step.throughput} gauge of the running step execution. Step
+ * totals and the values each rule changed in the step are kept in the step
+ * execution context, so a job summary also covers partitions that ran on
+ * other JVMs and never includes rows of other jobs sharing the engine. At job
+ * end a table with the breakdown per step and the rows each rule changed is
+ * logged. Each chunk is also a {@link ChunkCommitEvent} for Flight Recorder.
+ * <p>
+ * Register the same instance on the job and on every chunk step.
+ */
+@Slf4j
+public class StepThroughputListener<T> implements JobExecutionListener, StepExecutionListener, ChunkListener,
+        ItemReadListener<T>, ItemProcessListener<T, T>, ItemWriteListener<T> {
+
+    public static final String READ_NANOS_KEY = "throughput.read-nanos";
+    public static final String PROCESS_NANOS_KEY = "throughput.process-nanos";
+    public static final String WRITE_NANOS_KEY = "throughput.write-nanos";
+    public static final String ACTIVE_NANOS_KEY = "throughput.active-nanos";
+    public static final String RULE_CHANGES_KEY = "throughput.rule-changes";
+
+    // Chunks in the rolling items/sec window
+    private static final int WINDOW = 10;
+
+    private final EnhancedRuleEngine ruleEngine;
+    private final JobExplorer jobExplorer;
+    // A step's chunks run on one thread; partitions run on different ones
+    private final ThreadLocal<ChunkTimings> chunk = ThreadLocal.withInitial(ChunkTimings::new);
+    private final Map<Long, StepTimings> steps = new ConcurrentHashMap<>();
+
+    public StepThroughputListener(EnhancedRuleEngine ruleEngine, JobExplorer jobExplorer) {
+        this.ruleEngine = ruleEngine;
+        this.jobExplorer = jobExplorer;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        Tags tags = Tags.of("step", stepExecution.getStepName());
+        // Concurrent launches run steps of the same name, so the gauge belongs to one execution
+        AtomicLong throughput = new AtomicLong();
+        Gauge gauge = Gauge.builder("batch.step.throughput", throughput, AtomicLong::get)
+            .description("Items per second over the last chunks")
+            .tags(tags.and("execution", String.valueOf(stepExecution.getId())))
+            .register(Metrics.globalRegistry);
+        StepTimings step = new StepTimings(
+            timer("batch.step.read", "Time spent reading per chunk", tags),
+            timer("batch.step.process", "Time spent in the processor per chunk", tags),
+            timer("batch.step.write", "Time spent writing per chunk", tags),
+            gauge, throughput);
+        steps.put(stepExecution.getId(), step);
+        // The chunks of a step run on the thread that starts it
+        ruleEngine.bindChangeCounter(step.ruleChanges);
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        ChunkTimings timings = chunk.get();
+        timings.reset();
+        timings.stepExecutionId = context.getStepContext().getStepExecution().getId();
+        timings.start = System.nanoTime();
+        timings.event = new ChunkCommitEvent();
+        timings.event.begin();
+    }
+
+    @Override
+    public void beforeRead() {
+        chunk.get().phaseStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterRead(T item) {
+        ChunkTimings timings = chunk.get();
+        timings.readNanos += System.nanoTime() - timings.phaseStart;
+        timings.items++;
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+        ChunkTimings timings = chunk.get();
+        timings.readNanos += System.nanoTime() - timings.phaseStart;
+    }
+
+    @Override
+    public void beforeProcess(T item) {
+        chunk.get().phaseStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterProcess(T item, T result) {
+        ChunkTimings timings = chunk.get();
+        timings.processNanos += System.nanoTime() - timings.phaseStart;
+    }
+
+    @Override
+    public void onProcessError(T item, Exception e) {
+        afterProcess(item, null);
+    }
+
+    @Override
+    public void beforeWrite(Chunk<? extends T> items) {
+        chunk.get().phaseStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends T> items) {
+        ChunkTimings timings = chunk.get();
+        timings.writeNanos += System.nanoTime() - timings.phaseStart;
+    }
+
+    @Override
+    public void onWriteError(Exception exception, Chunk<? extends T> items) {
+        afterWrite(items);
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        ChunkTimings timings = chunk.get();
+        commitEvent(timings, context);
+        StepTimings step = steps.get(timings.stepExecutionId);
+        if (step == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - timings.start;
+        step.record(timings, elapsed);
+        if (log.isDebugEnabled()) {
+            log.debug("{} chunk of {} items: read {} ms, process {} ms, write {} ms, {} items/s",
+                context.getStepContext().getStepName(), timings.items, millis(timings.readNanos),
+                millis(timings.processNanos), millis(timings.writeNanos), step.throughput.get());
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        // Rolled back: the items will be read again, only keep the time
+        ChunkTimings timings = chunk.get();
+        timings.items = 0;
+        timings.rolledBack = true;
+        afterChunk(context);
+    }
+
+    private static void commitEvent(ChunkTimings timings, ChunkContext context) {
+        ChunkCommitEvent event = timings.event;
+        if (event != null && event.shouldCommit()) {
+            event.step = context.getStepContext().getStepName();
+            event.items = timings.items;
+            event.readNanos = timings.readNanos;
+            event.processNanos = timings.processNanos;
+            event.writeNanos = timings.writeNanos;
+            event.rolledBack = timings.rolledBack;
+            event.commit();
+        }
+        timings.event = null;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        StepTimings step = steps.remove(stepExecution.getId());
+        if (step != null) {
+            ruleEngine.bindChangeCounter(null);
+            Metrics.globalRegistry.remove(step.gauge);
+            ExecutionContext context = stepExecution.getExecutionContext();
+            context.putLong(READ_NANOS_KEY, step.readNanos);
+            context.putLong(PROCESS_NANOS_KEY, step.processNanos);
+            context.putLong(WRITE_NANOS_KEY, step.writeNanos);
+            context.putLong(ACTIVE_NANOS_KEY, step.activeNanos);
+            context.put(RULE_CHANGES_KEY, new TreeMap<>(step.ruleChanges.getChanges()));
+        }
+        return null;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        // Partition executions in memory may be stale; the repository has the workers' state
+        JobExecution stored = jobExplorer.getJobExecution(jobExecution.getId());
+        Collection<StepExecution> stepExecutions = (stored != null ? stored : jobExecution).getStepExecutions();
+
+        StringBuilder table = new StringBuilder(String.format("%n%-42s %9s %9s %10s %10s %10s %10s  %s%n",
+            "Step", "Read", "Written", "Read ms", "Process ms", "Write ms", "Items/s", "Bottleneck"));
+        Map<String, Long> rows = new TreeMap<>();
+        for (StepExecution stepExecution : stepExecutions) {
+            ExecutionContext context = stepExecution.getExecutionContext();
+            if (!context.containsKey(ACTIVE_NANOS_KEY)) {
+                continue;
+            }
+            if (context.get(RULE_CHANGES_KEY) instanceof Map<?, ?> changes) {
+                changes.forEach((ruleId, count) -> rows.merge((String) ruleId, ((Number) count).longValue(), Long::sum));
+            }
+            long read = context.getLong(READ_NANOS_KEY);
+            long process = context.getLong(PROCESS_NANOS_KEY);
+            long write = context.getLong(WRITE_NANOS_KEY);
+            long active = context.getLong(ACTIVE_NANOS_KEY);
+            table.append(String.format("%-42s %9d %9d %10d %10d %10d %10d  %s%n",
+                stepExecution.getStepName(), stepExecution.getReadCount(), stepExecution.getWriteCount(),
+                millis(read), millis(process), millis(write),
+                active > 0 ? stepExecution.getReadCount() * TimeUnit.SECONDS.toNanos(1) / active : 0,
+                bottleneck(read, process, write)));
+        }
+
+        rows.forEach((ruleId, count) -> Metrics.counter("batch.job.rule.rows",
+            "job", jobExecution.getJobInstance().getJobName(), "rule", ruleId).increment(count));
+        if (!rows.isEmpty()) {
+            table.append(String.format("%n%-42s %9s%n", "Rule", "Rows"));
+            rows.forEach((ruleId, count) -> table.append(String.format("%-42s %9d%n", ruleId, count)));
+        }
+        log.info("Throughput of {} ({}):{}", jobExecution.getJobInstance().getJobName(), jobExecution.getStatus(), table);
+    }
+
+    private static Timer timer(String name, String description, Tags tags) {
+        return Timer.builder(name).description(description).tags(tags).register(Metrics.globalRegistry);
+    }
+
+    static String bottleneck(long read, long process, long write) {
+        long total = read + process + write;
+        if (total == 0) {
+            return "-";
+        }
+        String phase = read >= process && read >= write ? "read (database)"
+            : process >= write ? "process (rules)" : "write (output)";
+        return phase + " " + Math.round(100.0 * Math.max(read, Math.max(process, write)) / total) + "%";
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static class ChunkTimings {
+        long stepExecutionId;
+        long start;
+        long phaseStart;
+        long readNanos;
+        long processNanos;
+        long writeNanos;
+        int items;
+        boolean rolledBack;
+        ChunkCommitEvent event;
+
+        void reset() {
+            readNanos = 0;
+            processNanos = 0;
+            writeNanos = 0;
+            items = 0;
+            rolledBack = false;
+        }
+    }
+
+    private static class StepTimings {
+        final Timer readTimer;
+        final Timer processTimer;
+        final Timer writeTimer;
+        final Gauge gauge;
+        final AtomicLong throughput;
+        final RuleChangeCounter ruleChanges = new RuleChangeCounter();
+        final Deque<long[]> window = new ArrayDeque<>();
+        long windowItems;
+        long windowNanos;
+        long readNanos;
+        long processNanos;
+        long writeNanos;
+        long activeNanos;
+
+        StepTimings(Timer readTimer, Timer processTimer, Timer writeTimer, Gauge gauge, AtomicLong throughput) {
+            this.readTimer = readTimer;
+            this.processTimer = processTimer;
+            this.writeTimer = writeTimer;
+            this.gauge = gauge;
+            this.throughput = throughput;
+        }
+
+        void record(ChunkTimings chunk, long elapsedNanos) {
+            readTimer.record(chunk.readNanos, TimeUnit.NANOSECONDS);
+            processTimer.record(chunk.processNanos, TimeUnit.NANOSECONDS);
+            writeTimer.record(chunk.writeNanos, TimeUnit.NANOSECONDS);
+            readNanos += chunk.readNanos;
+            processNanos += chunk.processNanos;
+            writeNanos += chunk.writeNanos;
+            activeNanos += elapsedNanos;
+
+            window.addLast(new long[]{chunk.items, elapsedNanos});
+            windowItems += chunk.items;
+            windowNanos += elapsedNanos;
+            if (window.size() > WINDOW) {
+                long[] oldest = window.removeFirst();
+                windowItems -= oldest[0];
+                windowNanos -= oldest[1];
+            }
+            throughput.set(windowNanos > 0 ? windowItems * TimeUnit.SECONDS.toNanos(1) / windowNanos : 0);
+        }
+    }
+}
@@ -12,10 +12,15 @@ public class Client {
     private String name;
     private Integer age;
     private String ageCategory; // For age categorization rule
+
+    // Column text as returned by the driver, set instead of id/age when the
+    // export passes the columns through undecoded (see ClientRowMapper)
+    private String idText;
+    private String ageText;
     
     public Client(Integer id, String name, Integer age) {
         this.id = id;
         this.name = name;
         this.age = age;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.accenture.poc1.online;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Rule output for one record. A VALIDATE rule that rejects a value sets its
+ * field to null; a rejected record has no fields and names the rule.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvaluationResult {
+    private Map<String, String> fields;
+    private boolean rejected;
+    private String rejectedBy;
+}
@@ -0,0 +1,12 @@
+package com.accenture.poc1.online;
+
+/**
+ * The request was not evaluated because the queue was full or it waited
+ * longer than {@code rule-api.timeout}.
+ */
+public class LoadSheddingException extends RuntimeException {
+
+    public LoadSheddingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,38 @@
+package com.accenture.poc1.online;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "rule-api")
+public class RuleApiProperties {
+
+    /**
+     * Evaluation threads; 0 uses one per available processor.
+     */
+    private int workers = 0;
+
+    /**
+     * Requests waiting for a worker before new ones are shed.
+     */
+    private int queueCapacity = 4_096;
+
+    /**
+     * Most requests a worker takes from the queue at once.
+     */
+    private int maxBatchSize = 64;
+
+    /**
+     * How long a worker waits for more requests to fill a batch. Zero only
+     * takes what is already queued, which keeps latency lowest.
+     */
+    private Duration maxBatchDelay = Duration.ZERO;
+
+    /**
+     * Longest a request may wait; older requests are shed without being
+     * evaluated and the caller gets a 503.
+     */
+    private Duration timeout = Duration.ofMillis(100);
+}
@@ -0,0 +1,188 @@
+package com.accenture.poc1.online;
+
+import com.accenture.poc1.rule.EnhancedRuleEngine;
+import com.accenture.poc1.rule.RecordRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates online requests on a fixed set of worker threads. Requests wait
+ * in a bounded queue; a worker takes everything queued up to
+ * {@code max-batch-size} at once, so concurrent requests share one hand-off
+ * instead of paying for a wake-up each. A full queue or a request that waited
+ * past {@code timeout} is shed with a {@link LoadSheddingException}.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RuleEvaluationBatcher implements SmartLifecycle {
+
+    // How often idle workers check whether they should stop
+    private static final long POLL_MILLIS = 100;
+
+    private final EnhancedRuleEngine ruleEngine;
+    private final RuleApiProperties properties;
+    private final BlockingQueue<PendingRequest> queue;
+    private final List<Thread> threads = new ArrayList<>();
+    private final Counter shed = Metrics.counter("rule.api.shed");
+    private final DistributionSummary batchSizes = DistributionSummary.builder("rule.api.batch.size")
+        .description("Requests evaluated per worker hand-off")
+        .register(Metrics.globalRegistry);
+    // Queue wait plus evaluation, without the HTTP stack
+    private final Timer latency = Timer.builder("rule.api.latency")
+        .publishPercentiles(0.5, 0.99, 0.999)
+        .register(Metrics.globalRegistry);
+    private volatile boolean running;
+
+    public RuleEvaluationBatcher(EnhancedRuleEngine ruleEngine, RuleApiProperties properties) {
+        this.ruleEngine = ruleEngine;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    /**
+     * Queues the records for evaluation; the future completes with one result
+     * per record, in order.
+     *
+     * @throws LoadSheddingException when the queue is full
+     */
+    public CompletableFuture<List<EvaluationResult>> submit(List<Map<String, Object>> records) {
+        PendingRequest request = new PendingRequest(records, System.nanoTime());
+        if (!running || !queue.offer(request)) {
+            shed.increment();
+            throw new LoadSheddingException("Rule evaluation queue is full");
+        }
+        return request.future;
+    }
+
+    List<EvaluationResult> evaluate(List<Map<String, Object>> records) {
+        List<EvaluationResult> results = new ArrayList<>(records.size());
+        for (Map<String, Object> record : records) {
+            results.add(evaluate(record));
+        }
+        return results;
+    }
+
+    private EvaluationResult evaluate(Map<String, Object> record) {
+        long recordId = record.get("id") instanceof Number id ? id.longValue() : EnhancedRuleEngine.UNKNOWN_RECORD;
+        Map<String, String> fields;
+        try {
+            fields = ruleEngine.evaluateRecord(record, recordId);
+        } catch (RecordRejectedException e) {
+            return new EvaluationResult(Map.of(), true, e.getRuleId());
+        }
+        return new EvaluationResult(fields, false, null);
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        int workers = properties.getWorkers() > 0 ? properties.getWorkers() : Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::work, "rule-api-worker-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        log.info("Online rule evaluation with {} workers, queue of {}", workers, properties.getQueueCapacity());
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while stopping {}", thread.getName());
+                break;
+            }
+        }
+        threads.clear();
+        PendingRequest request;
+        while ((request = queue.poll()) != null) {
+            request.future.completeExceptionally(new LoadSheddingException("Rule evaluation is shutting down"));
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    private void work() {
+        int maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        long batchDelayNanos = properties.getMaxBatchDelay().toNanos();
+        long timeoutNanos = properties.getTimeout().toNanos();
+        List<PendingRequest> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingRequest first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                long fillDeadline = System.nanoTime() + batchDelayNanos;
+                while (batchDelayNanos > 0 && batch.size() < maxBatchSize) {
+                    PendingRequest next = queue.poll(fillDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            batchSizes.record(batch.size());
+            long now = System.nanoTime();
+            for (PendingRequest request : batch) {
+                if (request.future.isDone()) {
+                    // The caller gave up already
+                    continue;
+                }
+                if (now - request.enqueuedNanos > timeoutNanos) {
+                    shed.increment();
+                    request.future.completeExceptionally(new LoadSheddingException("Request waited longer than "
+                        + properties.getTimeout().toMillis() + " ms"));
+                    continue;
+                }
+                try {
+                    request.future.complete(evaluate(request.records));
+                } catch (RuntimeException e) {
+                    request.future.completeExceptionally(e);
+                }
+                latency.record(System.nanoTime() - request.enqueuedNanos, TimeUnit.NANOSECONDS);
+            }
+            batch.clear();
+        }
+    }
+
+    private static class PendingRequest {
+        final List<Map<String, Object>> records;
+        final long enqueuedNanos;
+        final CompletableFuture<List<EvaluationResult>> future = new CompletableFuture<>();
+
+        PendingRequest(List<Map<String, Object>> records, long enqueuedNanos) {
+            this.records = records;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
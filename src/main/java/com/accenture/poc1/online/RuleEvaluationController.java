@@ -0,0 +1,96 @@
+package com.accenture.poc1.online;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Online access to the batch rules. {@code POST /api/rules/evaluate} takes a
+ * record (field name to value) or an array of records and returns the
+ * rule output in the same shape. The request thread is released while the
+ * records wait for a worker; the response is written when the future completes.
+ */
+@RestController
+@RequestMapping("/api/rules")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RuleEvaluationController {
+
+    private static final TypeReference<Map<String, Object>> RECORD = new TypeReference<>() {};
+
+    private final RuleEvaluationBatcher batcher;
+    private final RuleApiProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping("/evaluate")
+    public CompletableFuture<?> evaluate(@RequestBody JsonNode body) {
+        if (body.isObject()) {
+            return evaluate(List.of(record(body))).thenApply(results -> results.get(0));
+        }
+        if (!body.isArray()) {
+            throw new IllegalArgumentException("Expected a JSON object or an array of objects");
+        }
+        List<Map<String, Object>> records = new ArrayList<>(body.size());
+        for (JsonNode node : body) {
+            if (!node.isObject()) {
+                throw new IllegalArgumentException("Expected an array of objects");
+            }
+            records.add(record(node));
+        }
+        return records.isEmpty() ? CompletableFuture.completedFuture(List.of()) : evaluate(records);
+    }
+
+    @ExceptionHandler(LoadSheddingException.class)
+    public ResponseEntity<Map<String, String>> shed(LoadSheddingException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    private Map<String, Object> record(JsonNode node) {
+        return objectMapper.convertValue(node, RECORD);
+    }
+
+    private CompletableFuture<List<EvaluationResult>> evaluate(List<Map<String, Object>> records) {
+        // Times out the batcher's own future, so a worker that has not started on it skips it
+        return batcher.submit(records)
+            .orTimeout(properties.getTimeout().toNanos(), TimeUnit.NANOSECONDS)
+            .exceptionally(e -> {
+                throw failure(e);
+            });
+    }
+
+    private static RuntimeException failure(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof TimeoutException) {
+            return new LoadSheddingException("Rule evaluation timed out");
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException("Rule evaluation failed", cause);
+    }
+}
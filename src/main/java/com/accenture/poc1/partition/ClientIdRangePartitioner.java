@@ -0,0 +1,58 @@
+package com.accenture.poc1.partition;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits the client id range into {@code gridSize} contiguous ranges of about
+ * equal width. Each partition context holds {@link #MIN_ID_KEY},
+ * {@link #MAX_ID_KEY} (both inclusive) and its {@link #PARTITION_KEY} index.
+ */
+public class ClientIdRangePartitioner implements Partitioner {
+
+    public static final String MIN_ID_KEY = "minId";
+    public static final String MAX_ID_KEY = "maxId";
+    public static final String PARTITION_KEY = "partition";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ClientIdRangePartitioner(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM client");
+        Number min = (Number) bounds.get("min_id");
+        Number max = (Number) bounds.get("max_id");
+        if (min == null || max == null) {
+            // Empty table: one partition that reads nothing
+            partitions.put("partition0", range(0, 1, 0));
+            return partitions;
+        }
+
+        long low = min.longValue();
+        long high = max.longValue();
+        long width = Math.max(1, (high - low + gridSize) / gridSize);
+        int index = 0;
+        for (long start = low; start <= high; start += width) {
+            partitions.put("partition" + index, range(index, start, Math.min(high, start + width - 1)));
+            index++;
+        }
+        return partitions;
+    }
+
+    private static ExecutionContext range(int index, long minId, long maxId) {
+        ExecutionContext context = new ExecutionContext();
+        context.putInt(PARTITION_KEY, index);
+        context.putLong(MIN_ID_KEY, minId);
+        context.putLong(MAX_ID_KEY, maxId);
+        return context;
+    }
+}
@@ -0,0 +1,139 @@
+package com.accenture.poc1.partition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@link PartitionChannel} over a directory shared by the manager and the
+ * workers, e.g. a network mount. Messages are JSON files published with an
+ * atomic rename; a worker claims a request by renaming it into
+ * {@code claimed/}, which only one worker can do.
+ * <pre>
+ * requests/&lt;step execution id&gt;.json
+ * claimed/&lt;step execution id&gt;.json
+ * replies/&lt;step execution id&gt;.json
+ * </pre>
+ */
+@Slf4j
+public class FileSystemPartitionChannel implements PartitionChannel {
+
+    private static final String SUFFIX = ".json";
+
+    private final Path requests;
+    private final Path claimed;
+    private final Path replies;
+    private final Duration pollInterval;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public FileSystemPartitionChannel(Path directory, Duration pollInterval) {
+        this.requests = directory.resolve("requests");
+        this.claimed = directory.resolve("claimed");
+        this.replies = directory.resolve("replies");
+        this.pollInterval = pollInterval;
+        try {
+            Files.createDirectories(requests);
+            Files.createDirectories(claimed);
+            Files.createDirectories(replies);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create partition channel in " + directory, e);
+        }
+    }
+
+    @Override
+    public void sendRequest(PartitionRequest request) {
+        publish(request, requests.resolve(request.getStepExecutionId() + SUFFIX));
+    }
+
+    @Override
+    public PartitionRequest receiveRequest(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        do {
+            for (Path candidate : pending()) {
+                Path claim = claimed.resolve(candidate.getFileName());
+                try {
+                    Files.move(candidate, claim, StandardCopyOption.ATOMIC_MOVE);
+                } catch (NoSuchFileException | FileAlreadyExistsException e) {
+                    // Another worker was faster
+                    continue;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not claim " + candidate, e);
+                }
+                return read(claim, PartitionRequest.class);
+            }
+            Thread.sleep(pollInterval.toMillis());
+        } while (System.nanoTime() < deadline);
+        return null;
+    }
+
+    @Override
+    public void sendReply(PartitionReply reply) {
+        publish(reply, replies.resolve(reply.getStepExecutionId() + SUFFIX));
+    }
+
+    @Override
+    public PartitionReply receiveReply(long stepExecutionId, Duration timeout) throws InterruptedException {
+        Path file = replies.resolve(stepExecutionId + SUFFIX);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        do {
+            if (Files.exists(file)) {
+                PartitionReply reply = read(file, PartitionReply.class);
+                deleteQuietly(file);
+                deleteQuietly(claimed.resolve(stepExecutionId + SUFFIX));
+                return reply;
+            }
+            Thread.sleep(pollInterval.toMillis());
+        } while (System.nanoTime() < deadline);
+        return null;
+    }
+
+    private List<Path> pending() {
+        try (Stream<Path> files = Files.list(requests)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list " + requests, e);
+        }
+    }
+
+    // Write next to the target and rename, so readers never see a partial file
+    private void publish(Object message, Path target) {
+        try {
+            Path temp = Files.createTempFile(target.getParent(), ".", ".tmp");
+            objectMapper.writeValue(temp.toFile(), message);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + target, e);
+        }
+    }
+
+    private <T> T read(Path file, Class<T> type) {
+        try {
+            return objectMapper.readValue(file.toFile(), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + file, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+}
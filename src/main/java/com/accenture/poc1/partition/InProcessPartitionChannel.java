@@ -0,0 +1,45 @@
+package com.accenture.poc1.partition;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PartitionChannel} for workers running in the manager's JVM, used for
+ * local runs and tests.
+ */
+public class InProcessPartitionChannel implements PartitionChannel {
+
+    private final BlockingQueue<PartitionRequest> requests = new LinkedBlockingQueue<>();
+    private final ConcurrentHashMap<Long, BlockingQueue<PartitionReply>> replies = new ConcurrentHashMap<>();
+
+    @Override
+    public void sendRequest(PartitionRequest request) {
+        requests.add(request);
+    }
+
+    @Override
+    public PartitionRequest receiveRequest(Duration timeout) throws InterruptedException {
+        return requests.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void sendReply(PartitionReply reply) {
+        repliesFor(reply.getStepExecutionId()).add(reply);
+    }
+
+    @Override
+    public PartitionReply receiveReply(long stepExecutionId, Duration timeout) throws InterruptedException {
+        PartitionReply reply = repliesFor(stepExecutionId).poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        if (reply != null) {
+            replies.remove(stepExecutionId);
+        }
+        return reply;
+    }
+
+    private BlockingQueue<PartitionReply> repliesFor(long stepExecutionId) {
+        return replies.computeIfAbsent(stepExecutionId, id -> new LinkedBlockingQueue<>());
+    }
+}
@@ -0,0 +1,24 @@
+package com.accenture.poc1.partition;
+
+import java.time.Duration;
+
+/**
+ * Request/reply transport between the partition manager and its workers.
+ * Every request is delivered to exactly one worker.
+ */
+public interface PartitionChannel {
+
+    void sendRequest(PartitionRequest request);
+
+    /**
+     * @return the next request, or {@code null} if none arrived within the timeout
+     */
+    PartitionRequest receiveRequest(Duration timeout) throws InterruptedException;
+
+    void sendReply(PartitionReply reply);
+
+    /**
+     * @return the reply for the step execution, or {@code null} if none arrived within the timeout
+     */
+    PartitionReply receiveReply(long stepExecutionId, Duration timeout) throws InterruptedException;
+}
@@ -0,0 +1,18 @@
+package com.accenture.poc1.partition;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sent by a worker once it finished, or refused, a partition.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionReply {
+    private long stepExecutionId;
+    private String workerId;
+    private boolean accepted;
+    private String message;
+}
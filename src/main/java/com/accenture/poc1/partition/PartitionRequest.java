@@ -0,0 +1,19 @@
+package com.accenture.poc1.partition;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Asks a worker to execute one partition step execution.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionRequest {
+    private long jobExecutionId;
+    private long stepExecutionId;
+    private String stepName;
+    // Rule set the manager runs with; workers refuse a different one
+    private String ruleSetHash;
+}
@@ -0,0 +1,93 @@
+package com.accenture.poc1.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Worker side of remote partitioning: takes requests from the channel and runs
+ * the worker step on the requested step execution, then replies. Requests from
+ * a manager with a different rule set are refused without running anything.
+ * Each worker owns its step instance, so several can run in one JVM.
+ */
+@Slf4j
+public class PartitionWorker implements Runnable {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final String workerId;
+    private final PartitionChannel channel;
+    private final JobExplorer jobExplorer;
+    private final Step step;
+    private final Supplier<String> ruleSetHash;
+    private volatile boolean running = true;
+
+    public PartitionWorker(String workerId, PartitionChannel channel, JobExplorer jobExplorer,
+                           Step step, Supplier<String> ruleSetHash) {
+        this.workerId = workerId;
+        this.channel = channel;
+        this.jobExplorer = jobExplorer;
+        this.step = step;
+        this.ruleSetHash = ruleSetHash;
+    }
+
+    @Override
+    public void run() {
+        log.info("Partition worker {} waiting for requests", workerId);
+        while (running) {
+            try {
+                PartitionRequest request = channel.receiveRequest(POLL_TIMEOUT);
+                if (request != null) {
+                    channel.sendReply(handle(request));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Partition worker {} could not process a request", workerId, e);
+            }
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    PartitionReply handle(PartitionRequest request) {
+        String expected = request.getRuleSetHash();
+        String actual = ruleSetHash.get();
+        if (expected == null || !expected.equals(actual)) {
+            return reply(request, false, "rule set " + abbreviate(actual) + " does not match manager's " + abbreviate(expected));
+        }
+        if (!step.getName().equals(request.getStepName())) {
+            return reply(request, false, "unknown step " + request.getStepName());
+        }
+
+        StepExecution stepExecution = jobExplorer.getStepExecution(request.getJobExecutionId(), request.getStepExecutionId());
+        if (stepExecution == null) {
+            return reply(request, false, "no step execution " + request.getStepExecutionId());
+        }
+        try {
+            // Updates the shared job repository as it goes
+            step.execute(stepExecution);
+        } catch (Exception e) {
+            log.error("Partition {} failed on worker {}", stepExecution.getStepName(), workerId, e);
+        }
+        return reply(request, true, stepExecution.getStatus().toString());
+    }
+
+    private PartitionReply reply(PartitionRequest request, boolean accepted, String message) {
+        if (!accepted) {
+            log.warn("Worker {} refused step execution {}: {}", workerId, request.getStepExecutionId(), message);
+        }
+        return new PartitionReply(request.getStepExecutionId(), workerId, accepted, message);
+    }
+
+    private static String abbreviate(String hash) {
+        return hash == null ? "<none>" : hash.substring(0, Math.min(12, hash.length()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.accenture.poc1.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs partition workers on their own threads for the lifetime of the
+ * application context. The threads are not daemons, so a worker-only JVM
+ * stays up until it is shut down.
+ */
+@Slf4j
+public class PartitionWorkerPool implements SmartLifecycle {
+
+    private final List<PartitionWorker> workers;
+    private final List<Thread> threads = new ArrayList<>();
+
+    public PartitionWorkerPool(List<PartitionWorker> workers) {
+        this.workers = workers;
+    }
+
+    @Override
+    public synchronized void start() {
+        for (int i = 0; i < workers.size(); i++) {
+            Thread thread = new Thread(workers.get(i), "partition-worker-" + (i + 1));
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        workers.forEach(PartitionWorker::stop);
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while stopping {}", thread.getName());
+                break;
+            }
+        }
+        threads.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return !threads.isEmpty();
+    }
+}
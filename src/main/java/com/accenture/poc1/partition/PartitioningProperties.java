@@ -0,0 +1,45 @@
+package com.accenture.poc1.partition;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+public class PartitioningProperties {
+
+    /**
+     * NONE runs the export as a single step. MANAGER splits the client id
+     * range and hands the partitions to workers. WORKER only executes
+     * partitions received over the channel and never starts a job.
+     */
+    private Mode mode = Mode.NONE;
+
+    private int gridSize = 4;
+
+    private Channel channel = Channel.IN_PROCESS;
+
+    /** Directory shared by manager and workers for the FILESYSTEM channel. */
+    private String directory = "partitions";
+
+    /**
+     * Worker threads in this JVM: in WORKER mode, and in MANAGER mode with the
+     * IN_PROCESS channel, where they stand in for remote workers.
+     */
+    private int workers = 2;
+
+    /** How long the manager waits for all partitions to reply. */
+    private Duration timeout = Duration.ofHours(1);
+
+    private Duration pollInterval = Duration.ofMillis(200);
+
+    public enum Mode {
+        NONE,
+        MANAGER,
+        WORKER
+    }
+
+    public enum Channel {
+        IN_PROCESS,
+        FILESYSTEM
+    }
+}
@@ -0,0 +1,83 @@
+package com.accenture.poc1.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.support.AbstractPartitionHandler;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Manager side of remote partitioning: sends one {@link PartitionRequest} per
+ * partition over a {@link PartitionChannel} and waits for the replies. Workers
+ * update the shared job repository themselves, so the final state of every
+ * partition is read back from there.
+ * <p>
+ * A partition whose worker refused it, e.g. because of a different rule set,
+ * or that did not reply in time is marked FAILED, which fails the step.
+ */
+@Slf4j
+public class RemotePartitionHandler extends AbstractPartitionHandler {
+
+    private final PartitionChannel channel;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final String workerStepName;
+    private final Supplier<String> ruleSetHash;
+    private final Duration timeout;
+
+    public RemotePartitionHandler(PartitionChannel channel, JobExplorer jobExplorer, JobRepository jobRepository,
+                                  String workerStepName, Supplier<String> ruleSetHash, int gridSize, Duration timeout) {
+        this.channel = channel;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.workerStepName = workerStepName;
+        this.ruleSetHash = ruleSetHash;
+        this.timeout = timeout;
+        setGridSize(gridSize);
+    }
+
+    @Override
+    protected Set<StepExecution> doHandle(StepExecution managerStepExecution,
+                                          Set<StepExecution> partitionStepExecutions) throws Exception {
+        for (StepExecution partition : partitionStepExecutions) {
+            channel.sendRequest(new PartitionRequest(partition.getJobExecutionId(), partition.getId(),
+                workerStepName, ruleSetHash.get()));
+        }
+        log.info("Sent {} partitions of {} to workers", partitionStepExecutions.size(), managerStepExecution.getStepName());
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Set<StepExecution> results = new LinkedHashSet<>();
+        for (StepExecution partition : partitionStepExecutions) {
+            Duration remaining = Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+            PartitionReply reply = channel.receiveReply(partition.getId(), remaining);
+            if (reply == null) {
+                results.add(markFailed(partition, "No reply from a worker within " + timeout));
+            } else if (!reply.isAccepted()) {
+                results.add(markFailed(partition, "Refused by worker " + reply.getWorkerId() + ": " + reply.getMessage()));
+            } else {
+                StepExecution finished = jobExplorer.getStepExecution(partition.getJobExecutionId(), partition.getId());
+                log.info("{} finished on worker {} with {}", finished.getStepName(), reply.getWorkerId(), finished.getStatus());
+                results.add(finished);
+            }
+        }
+        return results;
+    }
+
+    private StepExecution markFailed(StepExecution partition, String reason) {
+        // Re-read first, a late worker may have started it in the meantime
+        StepExecution current = jobExplorer.getStepExecution(partition.getJobExecutionId(), partition.getId());
+        StepExecution failed = current != null ? current : partition;
+        log.error("{}: {}", failed.getStepName(), reason);
+        failed.setStatus(BatchStatus.FAILED);
+        failed.setExitStatus(ExitStatus.FAILED.addExitDescription(reason));
+        jobRepository.update(failed);
+        return failed;
+    }
+}
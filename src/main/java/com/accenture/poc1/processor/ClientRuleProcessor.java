@@ -1,7 +1,9 @@
 package com.accenture.poc1.processor;
 
+import com.accenture.poc1.jfr.RecordProcessingEvent;
 import com.accenture.poc1.model.Client;
 import com.accenture.poc1.rule.EnhancedRuleEngine;
+import com.accenture.poc1.rule.RecordRejectedException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.item.ItemProcessor;
@@ -13,6 +15,7 @@ import org.springframework.stereotype.Component;
 public class ClientRuleProcessor implements ItemProcessor<Client, Client> {
 
     private final EnhancedRuleEngine ruleEngine;
+    private final RejectedRecordWriter rejectedRecords;
 
     @Override
     public Client process(Client item) throws Exception {
@@ -22,24 +25,65 @@ public class ClientRuleProcessor implements ItemProcessor<Client, Client> {
 
         log.debug("Processing client before rules: {}", item);
 
-        // Create a new client object with transformed data
-        Client transformedClient = new Client();
-        transformedClient.setId(item.getId());
+        RecordProcessingEvent event = new RecordProcessingEvent();
+        event.begin();
+        try {
+            return applyRules(item, event);
+        } finally {
+            if (event.shouldCommit()) {
+                event.recordId = item.getIdText() != null ? item.getIdText() : String.valueOf(item.getId());
+                event.commit();
+            }
+        }
+    }
 
-        // Apply rules to name field
-        String transformedName = ruleEngine.applyRules("name", item.getName());
-        transformedClient.setName(transformedName);
+    /**
+     * Applies the rules to the item itself rather than to a copy: the reader
+     * creates a fresh {@link Client} per row and the step is not fault
+     * tolerant, so the item is never processed twice.
+     */
+    private Client applyRules(Client item, RecordProcessingEvent event) {
+        long recordId = recordId(item);
+        String transformedName;
+        String ageCategory;
+        try {
+            // Apply rules to name field
+            transformedName = ruleEngine.applyRules("name", item.getName(), recordId);
 
-        // Apply rules to age field (this will convert age to category)
-        String ageCategory = ruleEngine.applyRules("age", item.getAge());
+            // Apply rules to age field (this will convert age to category)
+            ageCategory = ruleEngine.applyRules("age",
+                item.getAgeText() != null ? item.getAgeText() : item.getAge(), recordId);
+        } catch (RecordRejectedException e) {
+            // Returning null filters the record out of the chunk; the engine counts
+            // rejections per rule, so only the rejects file gets one line per record
+            log.debug("Client {} rejected by rule {}", recordId, e.getRuleId());
+            rejectedRecords.publish(item, recordId, e);
+            event.rejected = true;
+            return null;
+        }
+        item.setName(transformedName);
         
-        // Set both original age and age category
-        transformedClient.setAge(item.getAge());
-        transformedClient.setAgeCategory(ageCategory);
+        // Keep the original age next to the age category
+        item.setAgeCategory(ageCategory);
         
-        log.debug("Processing client after rules: {} -> Name: {}, Age category: {}", 
-                 item, transformedName, ageCategory);
+        if (log.isDebugEnabled()) {
+            log.debug("Processing client after rules: Name: {}, Age category: {}", transformedName, ageCategory);
+        }
 
-        return transformedClient;
+        return item;
+    }
+
+    private static long recordId(Client item) {
+        if (item.getId() != null) {
+            return item.getId();
+        }
+        if (item.getIdText() != null) {
+            try {
+                return Long.parseLong(item.getIdText());
+            } catch (NumberFormatException e) {
+                return EnhancedRuleEngine.UNKNOWN_RECORD;
+            }
+        }
+        return EnhancedRuleEngine.UNKNOWN_RECORD;
     }
-}
\ No newline at end of file
+}
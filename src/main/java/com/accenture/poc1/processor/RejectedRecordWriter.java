@@ -0,0 +1,164 @@
+package com.accenture.poc1.processor;
+
+import com.accenture.poc1.config.ClientExportProperties;
+import com.accenture.poc1.model.Client;
+import com.accenture.poc1.rule.RecordRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Side channel for records a rule rejected. The processor formats one CSV line
+ * per record and queues it; a background thread, started with the first
+ * rejection, appends the lines to the rejects file in batches. Rejects are
+ * written as they happen, so a chunk that later rolls back keeps its rejects.
+ */
+@Slf4j
+@Component
+public class RejectedRecordWriter implements Closeable {
+
+    static final String CSV_HEADER = "timestamp,recordId,ruleId,field,reason,id,name,age";
+
+    private static final int BATCH_SIZE = 1_024;
+    private static final long IDLE_MILLIS = 100;
+
+    private final ClientExportProperties.Rejects properties;
+    private final BlockingQueue<String> queue;
+    private Thread drainer;
+    private volatile boolean running = true;
+
+    public RejectedRecordWriter(ClientExportProperties exportProperties) {
+        this.properties = exportProperties.getRejects();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getCapacity()));
+    }
+
+    /**
+     * Queues the rejected client, waiting while the writer thread is behind.
+     * Does nothing once the file could not be written.
+     */
+    public void publish(Client client, long recordId, RecordRejectedException rejection) {
+        if (!properties.isEnabled() || !running) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(96)
+            .append(System.currentTimeMillis()).append(',')
+            .append(recordId).append(',');
+        appendText(line, rejection.getRuleId());
+        line.append(',');
+        appendText(line, rejection.getFieldName());
+        line.append(',');
+        appendText(line, rejection.getMessage());
+        line.append(',');
+        appendText(line, client.getIdText() != null ? client.getIdText() : toText(client.getId()));
+        line.append(',');
+        appendText(line, client.getName());
+        line.append(',');
+        appendText(line, client.getAgeText() != null ? client.getAgeText() : toText(client.getAge()));
+        try {
+            start();
+            String record = line.toString();
+            while (running && !queue.offer(record, IDLE_MILLIS, TimeUnit.MILLISECONDS)) {
+                // The writer thread is behind
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops the writer thread after it has written every queued record.
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (drainer == null) {
+            return;
+        }
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void start() {
+        if (drainer == null && running) {
+            drainer = new Thread(this::drain, "client-rejects-writer");
+            drainer.setDaemon(true);
+            drainer.start();
+            log.info("Writing rejected records to {}", properties.getPath());
+        }
+    }
+
+    private void drain() {
+        Path path = Path.of(properties.getPath());
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        try (BufferedWriter writer = open(path)) {
+            while (running || !queue.isEmpty()) {
+                String first = queue.poll(IDLE_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    writer.flush();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - batch.size());
+                for (String line : batch) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+                batch.clear();
+            }
+        } catch (IOException e) {
+            log.error("Failed to write rejected records to {}: {}", path, e.getMessage());
+            running = false;
+            queue.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BufferedWriter open(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        boolean header = !Files.exists(path) || Files.size(path) == 0;
+        BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (header) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+        }
+        return writer;
+    }
+
+    private static String toText(Integer value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static void appendText(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,42 @@
+package com.accenture.poc1.reader;
+
+import com.accenture.poc1.model.Client;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the leading {@code id, name, age} columns of a client query by
+ * position. In pass-through mode id and age are kept as the driver's column
+ * text: no rule reads id, and the rules evaluate age as a string anyway, so
+ * the CSV writer can emit both without an {@code Integer} round trip.
+ */
+public class ClientRowMapper implements RowMapper<Client> {
+
+    private final boolean passThrough;
+
+    public ClientRowMapper(boolean passThrough) {
+        this.passThrough = passThrough;
+    }
+
+    @Override
+    public Client mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Client client = new Client();
+        if (passThrough) {
+            client.setIdText(rs.getString(1));
+            client.setName(rs.getString(2));
+            client.setAgeText(rs.getString(3));
+        } else {
+            client.setId(getInteger(rs, 1));
+            client.setName(rs.getString(2));
+            client.setAge(getInteger(rs, 3));
+        }
+        return client;
+    }
+
+    private static Integer getInteger(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+}
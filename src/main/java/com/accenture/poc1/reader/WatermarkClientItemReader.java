@@ -0,0 +1,232 @@
+package com.accenture.poc1.reader;
+
+import com.accenture.poc1.model.Client;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.database.JdbcCursorItemReader;
+import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Reads only the clients past a watermark: the last (watermark column, id)
+ * pair committed by the last completed run of the job with the same scope.
+ * The scope is derived from the job parameters that select the export, so
+ * runs writing different outputs keep separate watermarks. The id breaks ties
+ * between rows sharing a watermark value, e.g. an updated-at timestamp.
+ * <p>
+ * The current watermark is saved in the step context on every commit, so a
+ * restart resumes after the last committed chunk, and promoted to the job
+ * context when the step ends. The job context also carries the scopes that
+ * have completed before, so a scope that never ran can be told apart from
+ * one whose last run lies beyond the lookback window.
+ */
+@Slf4j
+public class WatermarkClientItemReader implements ItemStreamReader<Client>, StepExecutionListener {
+
+    public static final String WATERMARK_KEY = "client-export.watermark";
+    public static final String WATERMARK_ID_KEY = "client-export.watermark-id";
+    public static final String WATERMARK_SCOPE_KEY = "client-export.watermark-scope";
+    public static final String KNOWN_SCOPES_KEY = "client-export.watermark-known-scopes";
+
+    private static final String WATERMARK_ALIAS = "export_watermark";
+    private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private final DataSource dataSource;
+    private final JobExplorer jobExplorer;
+    private final String watermarkColumn;
+    private final RowMapper<Client> clientMapper;
+    private final Function<JobParameters, String> scope;
+    private final int lookback;
+
+    private String currentScope;
+    private final Set<String> knownScopes = new LinkedHashSet<>();
+    private ExecutionContext previousRun;
+    private Object watermark;
+    private Object watermarkId;
+    private JdbcCursorItemReader<Client> delegate;
+
+    /**
+     * @param scope    derives the watermark scope from the job parameters
+     * @param lookback job instances searched for the last completed run, newest first
+     */
+    public WatermarkClientItemReader(DataSource dataSource, JobExplorer jobExplorer, String watermarkColumn,
+                                     RowMapper<Client> clientMapper, Function<JobParameters, String> scope,
+                                     int lookback) {
+        if (!COLUMN_NAME.matcher(watermarkColumn).matches()) {
+            throw new IllegalArgumentException("Invalid watermark column: " + watermarkColumn);
+        }
+        if (lookback < 1) {
+            throw new IllegalArgumentException("lookback must be at least 1");
+        }
+        this.dataSource = dataSource;
+        this.jobExplorer = jobExplorer;
+        this.watermarkColumn = watermarkColumn;
+        this.clientMapper = clientMapper;
+        this.scope = scope;
+        this.lookback = lookback;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        currentScope = scope.apply(stepExecution.getJobParameters());
+        previousRun = lastCompletedRun(stepExecution.getJobExecution());
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        // A restart continues from its own last commit
+        ExecutionContext from = executionContext.containsKey(WATERMARK_KEY) ? executionContext : previousRun;
+        watermark = from != null ? from.get(WATERMARK_KEY) : null;
+        watermarkId = from != null ? from.get(WATERMARK_ID_KEY) : null;
+        Object lowerBound = watermark;
+        Object lowerBoundId = watermarkId;
+        boolean byId = "id".equalsIgnoreCase(watermarkColumn);
+
+        String condition;
+        if (lowerBound == null) {
+            condition = "";
+        } else if (byId || lowerBoundId == null) {
+            condition = " WHERE " + watermarkColumn + " > ?";
+        } else {
+            condition = " WHERE (" + watermarkColumn + " > ? OR (" + watermarkColumn + " = ? AND id > ?))";
+        }
+        String sql = "SELECT id, name, age, " + watermarkColumn + " AS " + WATERMARK_ALIAS + " FROM client"
+            + condition + " ORDER BY " + watermarkColumn + ", id";
+
+        delegate = new JdbcCursorItemReaderBuilder<Client>()
+            .name("clientItemReader")
+            .dataSource(dataSource)
+            .sql(sql)
+            .preparedStatementSetter(ps -> {
+                if (lowerBound != null) {
+                    ps.setObject(1, lowerBound);
+                    if (!byId && lowerBoundId != null) {
+                        ps.setObject(2, lowerBound);
+                        ps.setObject(3, lowerBoundId);
+                    }
+                }
+            })
+            .rowMapper((rs, rowNum) -> {
+                watermark = rs.getObject(WATERMARK_ALIAS);
+                watermarkId = rs.getObject("id");
+                return clientMapper.mapRow(rs, rowNum);
+            })
+            .saveState(false)
+            .build();
+        delegate.open(new ExecutionContext());
+
+        if (lowerBound != null) {
+            log.info("Exporting clients after ({}, id) = ({}, {}) for {}", watermarkColumn, lowerBound,
+                lowerBoundId, currentScope);
+        } else {
+            log.info("No watermark found for {}, exporting all clients", currentScope);
+        }
+    }
+
+    @Override
+    public Client read() throws Exception {
+        return delegate.read();
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        // Called after the chunk is written and before it commits
+        if (watermark != null) {
+            executionContext.put(WATERMARK_KEY, watermark);
+            executionContext.put(WATERMARK_ID_KEY, watermarkId);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (delegate != null) {
+            delegate.close();
+            delegate = null;
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        ExecutionContext jobContext = stepExecution.getJobExecution().getExecutionContext();
+        jobContext.putString(WATERMARK_SCOPE_KEY, currentScope);
+        Set<String> scopes = new LinkedHashSet<>(knownScopes);
+        scopes.add(currentScope);
+        jobContext.put(KNOWN_SCOPES_KEY, new ArrayList<>(scopes));
+        if (watermark != null) {
+            jobContext.put(WATERMARK_KEY, watermark);
+            jobContext.put(WATERMARK_ID_KEY, watermarkId);
+        }
+        return null;
+    }
+
+    private ExecutionContext lastCompletedRun(JobExecution current) {
+        JobInstance currentInstance = current.getJobInstance();
+        List<JobInstance> instances = jobExplorer.getJobInstances(currentInstance.getJobName(), 0, lookback);
+        knownScopes.clear();
+        boolean anyCompleted = false;
+        boolean found = false;
+        for (JobInstance instance : instances) {
+            if (instance.getInstanceId() == currentInstance.getInstanceId()) {
+                continue;
+            }
+            for (JobExecution execution : jobExplorer.getJobExecutions(instance)) {
+                if (execution.getStatus() != BatchStatus.COMPLETED) {
+                    continue;
+                }
+                ExecutionContext context = execution.getExecutionContext();
+                anyCompleted = true;
+                collectKnownScopes(context);
+                if (!Objects.equals(currentScope, context.get(WATERMARK_SCOPE_KEY))) {
+                    continue;
+                }
+                if (context.containsKey(WATERMARK_KEY)) {
+                    return context;
+                }
+                // Completed with an empty table: every row is new
+                found = true;
+            }
+        }
+        if (found || instances.size() < lookback) {
+            return null;
+        }
+        if (!anyCompleted) {
+            throw new IllegalStateException("No completed " + currentInstance.getJobName() + " run among the last "
+                + lookback + " job instances, cannot tell whether " + currentScope + " ran before; raise "
+                + "client-export.watermark-lookback");
+        }
+        if (knownScopes.contains(currentScope)) {
+            // Exporting everything again would duplicate the output
+            throw new IllegalStateException("The last completed " + currentInstance.getJobName() + " run for "
+                + currentScope + " is older than the last " + lookback + " job instances; raise "
+                + "client-export.watermark-lookback");
+        }
+        return null;
+    }
+
+    // Runs saved before the scope list only name their own scope
+    private void collectKnownScopes(ExecutionContext context) {
+        if (context.get(KNOWN_SCOPES_KEY) instanceof List<?> scopes) {
+            scopes.forEach(scope -> knownScopes.add(String.valueOf(scope)));
+        } else if (context.get(WATERMARK_SCOPE_KEY) instanceof String scope) {
+            knownScopes.add(scope);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.accenture.poc1.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Job repository that saves a running step only at checkpoints. Chunk commits
+ * call {@link #updateExecutionContext(StepExecution)} and
+ * {@link #update(StepExecution)}; while the step is {@code STARTED} these are
+ * passed on once {@code interval} has elapsed or {@code items} more items were
+ * read since the last save, and dropped otherwise. The decision is taken once
+ * per chunk, by whichever of the two calls comes first, and applied to both,
+ * so the saved context and counts always belong to the same chunk. Job calls
+ * and the saves at step start and end always go through.
+ * <p>
+ * A save still happens inside the chunk transaction, so the stored context
+ * always matches committed output. A restart resumes from the last checkpoint
+ * and reprocesses the chunks committed after it, and a stop request is only
+ * seen at a checkpoint.
+ */
+public class CoalescingJobRepository implements JobRepository {
+
+    private final JobRepository delegate;
+    private final long intervalNanos;
+    private final long items;
+    private final LongSupplier clock;
+    private final Map<Long, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+    // Taken by updateExecutionContext and applied by the update of the same chunk
+    private final Map<Long, Boolean> pendingDecisions = new ConcurrentHashMap<>();
+    private final Counter skipped = Metrics.counter("batch.repository.skipped");
+
+    private record Checkpoint(long nanos, long readCount) {
+    }
+
+    public CoalescingJobRepository(JobRepository delegate, Duration interval, long items) {
+        this(delegate, interval, items, System::nanoTime);
+    }
+
+    CoalescingJobRepository(JobRepository delegate, Duration interval, long items, LongSupplier clock) {
+        this.delegate = delegate;
+        this.intervalNanos = interval.toNanos();
+        this.items = items;
+        this.clock = clock;
+    }
+
+    @Override
+    public void update(StepExecution stepExecution) {
+        Boolean decision = pendingDecisions.remove(stepExecution.getId());
+        if (!running(stepExecution)) {
+            checkpoints.remove(stepExecution.getId());
+            delegate.update(stepExecution);
+        } else if (decision != null ? decision : due(stepExecution)) {
+            delegate.update(stepExecution);
+            // The context of this chunk went out just before, so this ends the checkpoint
+            checkpoints.put(stepExecution.getId(), new Checkpoint(clock.getAsLong(), stepExecution.getReadCount()));
+        } else {
+            skipped.increment();
+        }
+    }
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+        if (!running(stepExecution)) {
+            delegate.updateExecutionContext(stepExecution);
+            return;
+        }
+        // The chunk's update follows; only saved when its context is dirty
+        boolean due = due(stepExecution);
+        pendingDecisions.put(stepExecution.getId(), due);
+        if (due) {
+            delegate.updateExecutionContext(stepExecution);
+        } else {
+            skipped.increment();
+        }
+    }
+
+    private static boolean running(StepExecution stepExecution) {
+        return stepExecution.getStatus() == BatchStatus.STARTED && stepExecution.getEndTime() == null;
+    }
+
+    private boolean due(StepExecution stepExecution) {
+        Checkpoint last = checkpoints.get(stepExecution.getId());
+        return last == null
+            || clock.getAsLong() - last.nanos() >= intervalNanos
+            || items > 0 && stepExecution.getReadCount() - last.readCount() >= items;
+    }
+
+    @Override
+    public List<String> getJobNames() {
+        return delegate.getJobNames();
+    }
+
+    @Override
+    public List<JobInstance> findJobInstancesByName(String jobName, int start, int count) {
+        return delegate.findJobInstancesByName(jobName, start, count);
+    }
+
+    @Override
+    public List<JobExecution> findJobExecutions(JobInstance jobInstance) {
+        return delegate.findJobExecutions(jobInstance);
+    }
+
+    @Override
+    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return delegate.isJobInstanceExists(jobName, jobParameters);
+    }
+
+    @Override
+    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        return delegate.createJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+        throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+        return delegate.createJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void update(JobExecution jobExecution) {
+        delegate.update(jobExecution);
+    }
+
+    @Override
+    public void add(StepExecution stepExecution) {
+        delegate.add(stepExecution);
+    }
+
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        delegate.addAll(stepExecutions);
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+        delegate.updateExecutionContext(jobExecution);
+    }
+
+    @Override
+    public JobInstance getJobInstance(String jobName, JobParameters jobParameters) {
+        return delegate.getJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        return delegate.getLastStepExecution(jobInstance, stepName);
+    }
+
+    @Override
+    public long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return delegate.getStepExecutionCount(jobInstance, stepName);
+    }
+
+    @Override
+    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        return delegate.getLastJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void deleteStepExecution(StepExecution stepExecution) {
+        delegate.deleteStepExecution(stepExecution);
+    }
+
+    @Override
+    public void deleteJobExecution(JobExecution jobExecution) {
+        delegate.deleteJobExecution(jobExecution);
+    }
+
+    @Override
+    public void deleteJobInstance(JobInstance jobInstance) {
+        delegate.deleteJobInstance(jobInstance);
+    }
+}
@@ -0,0 +1,94 @@
+package com.accenture.poc1.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@code job-repository.mode} to the repository and explorer created
+ * by {@code @EnableBatchProcessing}: wraps the repository in a
+ * {@link CoalescingJobRepository}, or swaps both for ones on an embedded H2
+ * database.
+ */
+@Slf4j
+@Component
+public class JobRepositoryModePostProcessor implements BeanPostProcessor, DisposableBean {
+
+    private final ObjectProvider<JobRepositoryProperties> properties;
+    private EmbeddedDatabase database;
+
+    public JobRepositoryModePostProcessor(ObjectProvider<JobRepositoryProperties> properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof JobRepository repository) {
+            JobRepositoryProperties config = properties.getObject();
+            return switch (config.getMode()) {
+                case JDBC -> repository;
+                case COALESCED -> new CoalescingJobRepository(repository, config.getCheckpointInterval(),
+                    config.getCheckpointItems());
+                case IN_MEMORY -> inMemoryRepository();
+            };
+        }
+        if (bean instanceof JobExplorer && properties.getObject().getMode() == JobRepositoryProperties.Mode.IN_MEMORY) {
+            return inMemoryExplorer();
+        }
+        return bean;
+    }
+
+    private JobRepository inMemoryRepository() {
+        try {
+            JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+            factory.setDataSource(database());
+            factory.setTransactionManager(new DataSourceTransactionManager(database()));
+            factory.afterPropertiesSet();
+            log.warn("Job metadata is kept in memory: runs cannot be restarted and incremental exports start over");
+            return factory.getObject();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not create the in-memory job repository", e);
+        }
+    }
+
+    private JobExplorer inMemoryExplorer() {
+        try {
+            JobExplorerFactoryBean factory = new JobExplorerFactoryBean();
+            factory.setDataSource(database());
+            factory.setTransactionManager(new DataSourceTransactionManager(database()));
+            factory.afterPropertiesSet();
+            return factory.getObject();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not create the in-memory job explorer", e);
+        }
+    }
+
+    private synchronized EmbeddedDatabase database() {
+        if (database == null) {
+            database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:org/springframework/batch/core/schema-h2.sql")
+                .build();
+        }
+        return database;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (database != null) {
+            database.shutdown();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.accenture.poc1.repository;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "job-repository")
+public class JobRepositoryProperties {
+
+    private Mode mode = Mode.JDBC;
+
+    /**
+     * {@code coalesced}: longest a running step goes without saving its
+     * execution and context.
+     */
+    private Duration checkpointInterval = Duration.ofSeconds(5);
+
+    /**
+     * {@code coalesced}: items read after which a running step is saved even
+     * if the interval has not passed; zero only uses the interval.
+     */
+    private long checkpointItems = 10_000;
+
+    public enum Mode {
+        /** Save the step execution and its context on every chunk commit. */
+        JDBC,
+        /**
+         * Save every job and step start and end, but a running step only
+         * every {@code checkpointInterval} or {@code checkpointItems}.
+         */
+        COALESCED,
+        /** Keep all job metadata in an embedded in-memory database. */
+        IN_MEMORY
+    }
+}
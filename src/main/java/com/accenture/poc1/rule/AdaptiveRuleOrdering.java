@@ -0,0 +1,122 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.model.Rule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Re-orders rules inside exclusive groups (see {@link ExclusiveRuleGroups}) by
+ * their profiled expected cost, so cheap, frequently matching rules run first.
+ * Rules outside a group never move, so priority semantics are unchanged.
+ */
+@Slf4j
+class AdaptiveRuleOrdering {
+
+    private final RuleEngineProperties.AdaptiveOrdering settings;
+    private final Function<String, RuleStatistics> statistics;
+    private final Map<String, List<String>> pinnedOrder = new HashMap<>();
+    private final Map<String, LongAdder> evaluationsSinceReorder = new ConcurrentHashMap<>();
+    private volatile boolean frozen;
+
+    AdaptiveRuleOrdering(RuleEngineProperties.AdaptiveOrdering settings, Function<String, RuleStatistics> statistics) {
+        this.settings = settings;
+        this.statistics = statistics;
+        this.frozen = settings.isFrozen();
+        settings.getPinnedOrder().forEach((field, ids) -> pinnedOrder.put(field.toLowerCase(), ids));
+    }
+
+    boolean isProfiling() {
+        return settings.isEnabled();
+    }
+
+    boolean isFrozen() {
+        return frozen;
+    }
+
+    void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Counts one evaluation of {@code fieldName}; true once every
+     * {@code reorderInterval} evaluations while ordering is active.
+     */
+    boolean onFieldEvaluated(String fieldName) {
+        if (!settings.isEnabled() || frozen || pinnedOrder.containsKey(fieldName)) {
+            return false;
+        }
+        LongAdder counter = evaluationsSinceReorder.computeIfAbsent(fieldName, key -> new LongAdder());
+        counter.increment();
+        if (counter.sum() < settings.getReorderInterval()) {
+            return false;
+        }
+        counter.reset();
+        return true;
+    }
+
+    /**
+     * Applies a configured pinned order to the exclusive groups of a field.
+     * Ids that are unknown or belong to a different group are ignored.
+     */
+    List<Rule> applyPinnedOrder(String fieldName, List<Rule> fieldRules, int[] groupEnds) {
+        List<String> pinned = pinnedOrder.get(fieldName);
+        if (pinned == null) {
+            return fieldRules;
+        }
+        List<Rule> ordered = sortGroups(fieldRules, groupEnds, Comparator.comparingInt(rule -> {
+            int position = pinned.indexOf(rule.getId());
+            return position < 0 ? Integer.MAX_VALUE : position;
+        }));
+        logIfChanged(fieldName, fieldRules, ordered, "Pinned");
+        return ordered;
+    }
+
+    List<Rule> reorder(String fieldName, List<Rule> fieldRules, int[] groupEnds) {
+        double fallbackNanos = fieldRules.stream()
+            .map(rule -> statistics.apply(rule.getId()))
+            .filter(stats -> stats.evaluations.sum() > 0)
+            .mapToDouble(stats -> (double) stats.evaluationNanos.sum() / stats.evaluations.sum())
+            .average()
+            .orElse(1.0);
+
+        Map<String, Double> scores = fieldRules.stream()
+            .collect(Collectors.toMap(Rule::getId,
+                rule -> statistics.apply(rule.getId()).orderingScore(fallbackNanos), (a, b) -> a));
+
+        List<Rule> ordered = sortGroups(fieldRules, groupEnds, Comparator.comparingDouble(rule -> scores.get(rule.getId())));
+        logIfChanged(fieldName, fieldRules, ordered, "Adaptive");
+        return ordered;
+    }
+
+    private List<Rule> sortGroups(List<Rule> fieldRules, int[] groupEnds, Comparator<Rule> order) {
+        List<Rule> ordered = new ArrayList<>(fieldRules);
+        int start = 0;
+        while (start < ordered.size()) {
+            int end = groupEnds[start];
+            if (end - start > 1) {
+                ordered.subList(start, end).sort(order);
+            }
+            start = end;
+        }
+        return ordered;
+    }
+
+    private void logIfChanged(String fieldName, List<Rule> before, List<Rule> after, String reason) {
+        if (!before.equals(after)) {
+            log.info("{} rule order for field {}: {} -> {}", reason, fieldName, ids(before), ids(after));
+        }
+    }
+
+    static List<String> ids(List<Rule> rules) {
+        return rules.stream().map(Rule::getId).collect(Collectors.toList());
+    }
+}
@@ -1,20 +1,31 @@
 package com.accenture.poc1.rule;
 
+import com.accenture.poc1.audit.DecisionOutcome;
+import com.accenture.poc1.audit.RuleDecisionAudit;
+import com.accenture.poc1.jfr.RuleEvaluationEvent;
 import com.accenture.poc1.rule.model.Rule;
 import com.accenture.poc1.rule.model.RuleConfiguration;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -22,34 +33,205 @@ import java.util.stream.Collectors;
 @Component
 public class EnhancedRuleEngine {
     
+    /**
+     * Record id passed to the audit trail when the caller does not know it.
+     */
+    public static final long UNKNOWN_RECORD = -1;
+    
+    // Shared strings for small numbers such as ages, so numeric fields do not allocate per row
+    private static final String[] SMALL_INTS = new String[1024];
+    
+    static {
+        for (int i = 0; i < SMALL_INTS.length; i++) {
+            SMALL_INTS[i] = Integer.toString(i).intern();
+        }
+    }
+    
     private final List<Rule> rules;
     private final Map<String, List<Rule>> rulesByField;
-    private final Map<String, Long> ruleExecutionCount;
-    private final Map<String, Long> ruleExecutionTime;
+    private final Map<String, int[]> exclusiveGroupEnds = new ConcurrentHashMap<>();
+    private final Map<String, RuleStatistics> ruleStatistics = new ConcurrentHashMap<>();
+    // Fixed-length FULL masks by rule id, the same string for every value
+    private final Map<String, String> fixedMasks = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RuleEngineProperties properties;
+    private final AdaptiveRuleOrdering ordering;
+    private final RegexGuard regexGuard;
+    private final RuleDecisionAudit audit;
+    private final RecordEvaluator recordEvaluator;
+    private final ShadowEvaluation shadow;
+    // A shadow candidate keeps its rejections and timeouts out of the shared meters
+    private final boolean candidate;
+    private volatile RuleAnalysisReport analysisReport;
+    private volatile Map<String, MethodHandle> compiledPrograms;
+    private volatile String ruleSetHash;
+    private volatile Map<String, LookupTable> lookupTables;
+    private volatile Map<String, LookupTable> watchLists;
+    // Bound by the batch step evaluating on the current thread
+    private final ThreadLocal<RuleChangeCounter> changeCounter = new ThreadLocal<>();
     
     public EnhancedRuleEngine() {
-        this.rules = loadRules();
+        this(new RuleEngineProperties());
+    }
+    
+    @Autowired
+    public EnhancedRuleEngine(RuleEngineProperties properties) {
+        this(properties, false);
+    }
+    
+    EnhancedRuleEngine(RuleEngineProperties properties, boolean candidate) {
+        this.properties = properties;
+        this.candidate = candidate;
+        this.ordering = new AdaptiveRuleOrdering(properties.getAdaptiveOrdering(), this::statisticsFor);
+        this.regexGuard = new RegexGuard(properties.getRegex());
+        this.audit = properties.getAudit().isEnabled() ? new RuleDecisionAudit(properties.getAudit()) : null;
+        if (audit != null && properties.getBackend() == RuleEngineProperties.Backend.COMPILED) {
+            log.warn("Rule decision audit needs the interpreter backend, compiled field programs are not audited");
+        }
+        this.lookupTables = openLookupTables();
+        RuleSnapshot.Contents ruleSet = loadRuleSet();
+        this.rules = new ArrayList<>(ruleSet.getRules());
+        this.watchLists = openWatchLists(rules);
+        this.analysisReport = ruleSet.getReport();
         this.rulesByField = indexRulesByField();
-        this.ruleExecutionCount = new ConcurrentHashMap<>();
-        this.ruleExecutionTime = new ConcurrentHashMap<>();
+        this.compiledPrograms = compilePrograms();
+        this.recordEvaluator = new RecordEvaluator(this, properties.getParallel());
+        recordEvaluator.rebuild(rulesByField);
+        this.shadow = openShadow();
     }
     
-    private List<Rule> loadRules() {
-        List<Rule> loadedRules = new ArrayList<>();
+    private ShadowEvaluation openShadow() {
+        String candidateLocation = properties.getShadow().getCandidateLocation();
+        if (candidateLocation == null || candidateLocation.isBlank()) {
+            return null;
+        }
+        try {
+            ShadowEvaluation evaluation = new ShadowEvaluation(properties);
+            evaluation.rebuild(rulesByField);
+            return evaluation;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open shadow diff report " + properties.getShadow().getReportPath(), e);
+        }
+    }
+    
+    /**
+     * Parses and analyzes the rule file, or restores both from the binary
+     * snapshot when it was written for the same rule file and settings.
+     */
+    private RuleSnapshot.Contents loadRuleSet() {
+        String location = properties.getRulesLocation();
+        byte[] json = readRuleFile(location);
+        ruleSetHash = contentHash(json);
         
-        // Try loading JSON rules first
+        String snapshotLocation = properties.getSnapshot().getPath();
+        Path snapshotPath = json != null && snapshotLocation != null && !snapshotLocation.isBlank()
+            ? Path.of(snapshotLocation) : null;
+        byte[] snapshotKey = null;
+        if (snapshotPath != null) {
+            snapshotKey = RuleSnapshot.key(json, properties.getAnalysis().isPrune());
+            Optional<RuleSnapshot.Contents> snapshot = RuleSnapshot.read(snapshotPath, snapshotKey);
+            if (snapshot.isPresent()) {
+                log.info("Loaded {} rules from snapshot {}", snapshot.get().getRules().size(), snapshotPath);
+                publishReport(snapshot.get().getReport());
+                return snapshot.get();
+            }
+        }
+        
+        List<Rule> loadedRules = parseRules(json, location);
+        RuleAnalysisReport report = analyzeRules(loadedRules);
+        if (snapshotPath != null) {
+            RuleSnapshot.write(snapshotPath, snapshotKey, loadedRules, report);
+        }
+        return new RuleSnapshot.Contents(loadedRules, report);
+    }
+    
+    private Map<String, LookupTable> openLookupTables() {
+        RuleEngineProperties.Lookup lookup = properties.getLookup();
+        Map<String, LookupTable> tables = new HashMap<>();
+        lookup.getTables().forEach((name, location) -> {
+            try {
+                LookupTable table = LookupTable.load(location, Path.of(lookup.getDirectory(), "tables", name + ".lkp"));
+                tables.put(name, table);
+                log.info("Lookup table {}: {} entries", name, table.size());
+            } catch (IOException e) {
+                log.error("Failed to load lookup table {} from {}", name, location, e);
+            }
+        });
+        return tables;
+    }
+    
+    // Only the lists and case variants that enabled IN_LIST conditions use
+    private Map<String, LookupTable> openWatchLists(List<Rule> candidateRules) {
+        RuleEngineProperties.Lookup lookup = properties.getLookup();
+        Map<String, LookupTable> lists = new HashMap<>();
+        for (Rule rule : candidateRules) {
+            Rule.RuleCondition condition = rule.getCondition();
+            if (!rule.isEnabled() || condition == null || !"IN_LIST".equalsIgnoreCase(condition.getOperator())) {
+                continue;
+            }
+            String name = String.valueOf(condition.getValue());
+            String key = watchListKey(name, condition.isCaseSensitive());
+            String location = lookup.getLists().get(name);
+            if (location == null) {
+                log.warn("Rule {} uses unknown watch list {}", rule.getId(), name);
+            } else if (!lists.containsKey(key)) {
+                try {
+                    LookupTable list = LookupTable.loadList(location, watchListFile(lookup, name,
+                        condition.isCaseSensitive()), condition.isCaseSensitive());
+                    lists.put(key, list);
+                    log.info("Watch list {}: {} entries{}", name, list.size(),
+                        condition.isCaseSensitive() ? "" : ", case-insensitive");
+                } catch (IOException e) {
+                    log.error("Failed to load watch list {} from {}", name, location, e);
+                }
+            }
+        }
+        return lists;
+    }
+    
+    // Tables, lists and case-folded lists each get a directory, so equal names never share a file
+    private static Path watchListFile(RuleEngineProperties.Lookup lookup, String name, boolean caseSensitive) {
+        return Path.of(lookup.getDirectory(), caseSensitive ? "lists" : "lists-ci", name + ".lkp");
+    }
+    
+    private static String watchListKey(String name, boolean caseSensitive) {
+        return caseSensitive ? name : name + "/ci";
+    }
+    
+    private byte[] readRuleFile(String location) {
         try {
-            ClassPathResource jsonResource = new ClassPathResource("rules.json");
+            Resource jsonResource = new DefaultResourceLoader().getResource(location);
             if (jsonResource.exists()) {
                 try (InputStream is = jsonResource.getInputStream()) {
-                    RuleConfiguration config = objectMapper.readValue(is, RuleConfiguration.class);
-                    loadedRules.addAll(config.getRules());
-                    log.info("Loaded {} rules from rules.json", config.getRules().size());
+                    return is.readAllBytes();
                 }
             }
         } catch (IOException e) {
-            log.error("Failed to load rules from rules.json", e);
+            log.error("Failed to load rules from {}", location, e);
+        }
+        return null;
+    }
+    
+    private static String contentHash(byte[] json) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(json != null ? json : new byte[0]));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private List<Rule> parseRules(byte[] json, String location) {
+        List<Rule> loadedRules = new ArrayList<>();
+        
+        if (json != null) {
+            try {
+                RuleConfiguration config = objectMapper.readValue(json, RuleConfiguration.class);
+                loadedRules.addAll(config.getRules());
+                log.info("Loaded {} rules from {}", config.getRules().size(), location);
+            } catch (IOException e) {
+                log.error("Failed to load rules from {}", location, e);
+            }
         }
         
         // Sort rules by priority (lower number = higher priority)
@@ -58,68 +240,371 @@ public class EnhancedRuleEngine {
         return loadedRules;
     }
     
+    private RuleAnalysisReport analyzeRules(List<Rule> candidateRules) {
+        RuleAnalysisReport report = new RuleSetAnalyzer(properties.getAnalysis().isPrune()).analyze(candidateRules);
+        publishReport(report);
+        return report;
+    }
+    
+    private void publishReport(RuleAnalysisReport report) {
+        for (RuleAnalysisReport.Finding finding : report.getFindings()) {
+            log.warn("Rule {} ({}): {}{}", finding.getRuleId(), finding.getType(), finding.getReason(),
+                finding.isPruned() ? " - removed from execution plan" : "");
+        }
+        log.info("Rule analysis: {} rules, {} live, {} findings",
+            report.getRuleCount(), report.getLiveRuleCount(), report.getFindings().size());
+        
+        String reportPath = properties.getAnalysis().getReportPath();
+        if (reportPath != null && !reportPath.isBlank()) {
+            try {
+                objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(reportPath), report);
+            } catch (IOException e) {
+                log.error("Failed to write rule analysis report to {}", reportPath, e);
+            }
+        }
+    }
+    
     private Map<String, List<Rule>> indexRulesByField() {
-        return rules.stream()
+        Map<String, List<Rule>> index = new ConcurrentHashMap<>();
+        rules.stream()
             .filter(Rule::isEnabled)
+            .filter(rule -> !analysisReport.isPruned(rule))
             .collect(Collectors.groupingBy(
                 rule -> rule.getFieldName().toLowerCase(),
                 Collectors.toList()
-            ));
+            ))
+            .forEach((field, fieldRules) -> {
+                int[] groupEnds = ExclusiveRuleGroups.groupEnds(fieldRules);
+                exclusiveGroupEnds.put(field, groupEnds);
+                index.put(field, ordering.applyPinnedOrder(field, fieldRules, groupEnds));
+            });
+        return index;
+    }
+    
+    private Map<String, MethodHandle> compilePrograms() {
+        if (properties.getBackend() != RuleEngineProperties.Backend.COMPILED) {
+            return null;
+        }
+        return new RuleProgramCompiler(this).compile(rulesByField, exclusiveGroupEnds);
     }
     
     public String applyRules(String fieldName, Object value) {
+        return applyRules(fieldName, value, UNKNOWN_RECORD);
+    }
+    
+    /**
+     * Applies the field's rules; masked, rejected and defaulted values are
+     * recorded in the audit trail under {@code recordId} when it is enabled.
+     * In shadow mode the outcome is also compared with the candidate rules.
+     */
+    public String applyRules(String fieldName, Object value, long recordId) {
         if (value == null) {
             return null;
         }
+        if (shadow == null) {
+            return evaluateField(fieldName, asString(value), recordId);
+        }
+        
+        String input = asString(value);
+        String result;
+        try {
+            result = evaluateField(fieldName, input, recordId);
+        } catch (RecordRejectedException rejected) {
+            shadow.compare(fieldName, input, recordId, null, rejected);
+            throw rejected;
+        }
+        shadow.compare(fieldName, input, recordId, result, null);
+        return result;
+    }
+    
+    private String evaluateField(String fieldName, String result, long recordId) {
+        Map<String, MethodHandle> programs = compiledPrograms;
+        if (programs != null) {
+            RuleEvaluationEvent event = new RuleEvaluationEvent();
+            event.begin();
+            String programResult = applyCompiledProgram(programs.get(fieldName.toLowerCase()), result);
+            boolean changed = !Objects.equals(programResult, result);
+            if (changed) {
+                countChange("*");
+            }
+            if (event.shouldCommit()) {
+                // A compiled field program runs all of its rules in one call
+                recordEvaluation(event, "*", fieldName, "PROGRAM", changed, result);
+            }
+            return programResult;
+        }
         
-        String result = value.toString();
-        List<Rule> fieldRules = rulesByField.get(fieldName.toLowerCase());
+        String fieldKey = fieldName.toLowerCase();
+        List<Rule> fieldRules = rulesByField.get(fieldKey);
         
         if (fieldRules == null || fieldRules.isEmpty()) {
             return result;
         }
         
-        for (Rule rule : fieldRules) {
-            long startTime = System.currentTimeMillis();
+        int[] groupEnds = exclusiveGroupEnds.get(fieldKey);
+        boolean profiling = ordering.isProfiling();
+        
+        for (int i = 0; i < fieldRules.size(); i++) {
+            Rule rule = fieldRules.get(i);
+            long startTime = System.nanoTime();
+            RuleEvaluationEvent event = new RuleEvaluationEvent();
+            event.begin();
+            String input = result;
+            boolean matched = true;
             
             try {
                 // For VALIDATE rules, we need different logic
                 if ("VALIDATE".equals(rule.getType())) {
-                    String newResult = applyValidateRule(rule, result);
-                    trackRuleExecution(rule, startTime);
+                    String newResult;
+                    try {
+                        newResult = applyValidateRule(rule, result);
+                    } finally {
+                        trackRuleExecution(rule, startTime);
+                    }
                     
-                    // If validation changed the value (null or default), stop processing
-                    if (newResult == null || !newResult.equals(result)) {
+                    // If validation changed the value (default), stop processing; rejections throw above
+                    if (!Objects.equals(newResult, result)) {
+                        countChange(rule.getId());
+                        audit(recordId, rule, fieldName, DecisionOutcome.DEFAULTED);
                         return newResult;
                     }
                 } else if ("REPLACE".equals(rule.getType())) {
                     // REPLACE rules need special handling
                     String newResult = applyReplaceRule(rule, result);
                     trackRuleExecution(rule, startTime);
+                    if (!Objects.equals(newResult, result)) {
+                        countChange(rule.getId());
+                    }
                     result = newResult;
-                } else if (rule.getCondition().evaluate(result)) {
+                } else {
+                    matched = evaluateCondition(rule, result);
+                    if (profiling) {
+                        statisticsFor(rule).recordEvaluation(System.nanoTime() - startTime, matched);
+                    }
+                    if (!matched) {
+                        continue;
+                    }
+                    
                     String newResult = applyRule(rule, result);
                     
                     // Track metrics
                     trackRuleExecution(rule, startTime);
+                    if (!newResult.equals(result)) {
+                        countChange(rule.getId());
+                    }
                     
                     // If MASK rule changes value, stop processing
                     if (!newResult.equals(result) && "MASK".equals(rule.getType())) {
+                        audit(recordId, rule, fieldName, DecisionOutcome.MASKED);
                         return newResult;
                     }
                     
                     result = newResult;
+                    
+                    // No other rule of an exclusive group can match any more
+                    if (groupEnds != null && groupEnds.length == fieldRules.size()) {
+                        i = groupEnds[i] - 1;
+                    }
                 }
             } catch (Exception e) {
-                log.error("Error applying rule {} to field {}: {}", 
-                    rule.getId(), fieldName, e.getMessage());
+                matched = false;
+                try {
+                    handleRuleFailure(rule, fieldName, e);
+                } catch (RecordRejectedException rejected) {
+                    audit(recordId, rule, fieldName, DecisionOutcome.REJECTED);
+                    throw rejected;
+                }
+            } finally {
+                if (event.shouldCommit()) {
+                    recordEvaluation(event, rule.getId(), fieldName, rule.getType(), matched, input);
+                }
             }
         }
         
+        if (ordering.onFieldEvaluated(fieldKey)) {
+            reorderField(fieldKey);
+        }
+        
         return result;
     }
     
-    private String applyRule(Rule rule, String value) {
+    public Map<String, String> evaluateRecord(Map<String, ?> record) {
+        return evaluateRecord(record, UNKNOWN_RECORD);
+    }
+    
+    /**
+     * Applies the rules of every field of the record and returns the results
+     * in the record's field order. With {@code rule-engine.parallel.enabled}
+     * independent field groups of an expensive record run concurrently.
+     *
+     * @throws RecordRejectedException when a rule rejects the whole record
+     */
+    public Map<String, String> evaluateRecord(Map<String, ?> record, long recordId) {
+        return recordEvaluator.evaluate(record, recordId);
+    }
+    
+    static String asString(Object value) {
+        if (value instanceof Integer number && number >= 0 && number < SMALL_INTS.length) {
+            return SMALL_INTS[number];
+        }
+        return value.toString();
+    }
+    
+    private static void recordEvaluation(RuleEvaluationEvent event, String ruleId, String field, String ruleType,
+                                         boolean matched, String value) {
+        event.ruleId = ruleId;
+        event.field = field;
+        event.ruleType = ruleType;
+        event.matched = matched;
+        event.value = RuleEvaluationEvent.truncate(value);
+        event.commit();
+    }
+    
+    /**
+     * Counts the values changed by rules on the current thread in
+     * {@code counter} until it is unbound with {@code null}.
+     */
+    public void bindChangeCounter(RuleChangeCounter counter) {
+        if (counter != null) {
+            changeCounter.set(counter);
+        } else {
+            changeCounter.remove();
+        }
+    }
+    
+    private void countChange(String ruleId) {
+        RuleChangeCounter counter = changeCounter.get();
+        if (counter != null) {
+            counter.changed(ruleId);
+        }
+    }
+    
+    private void audit(long recordId, Rule rule, String fieldName, DecisionOutcome outcome) {
+        if (audit != null) {
+            audit.publish(recordId, rule.getId(), fieldName, outcome);
+        }
+    }
+    
+    /**
+     * Writes the decisions still queued for the audit trail and the shadow
+     * comparisons, and stops the record evaluation pool.
+     */
+    @PreDestroy
+    public void close() {
+        if (shadow != null) {
+            shadow.close();
+        }
+        if (audit != null) {
+            audit.close();
+        }
+        recordEvaluator.close();
+    }
+    
+    /**
+     * Divergences from the shadow candidate per added, removed or changed rule
+     * id; empty when shadow mode is off.
+     */
+    public Map<String, Long> getShadowDivergences() {
+        return shadow != null ? shadow.getDivergencesByRule() : Map.of();
+    }
+    
+    private synchronized void reorderField(String fieldKey) {
+        List<Rule> current = rulesByField.get(fieldKey);
+        int[] groupEnds = exclusiveGroupEnds.get(fieldKey);
+        if (current == null || groupEnds == null || groupEnds.length != current.size()) {
+            return;
+        }
+        
+        List<Rule> reordered = ordering.reorder(fieldKey, current, groupEnds);
+        if (!reordered.equals(current)) {
+            rulesByField.put(fieldKey, reordered);
+            Map<String, MethodHandle> programs = compiledPrograms;
+            if (programs != null) {
+                Map<String, MethodHandle> updated = new HashMap<>(programs);
+                updated.put(fieldKey, new RuleProgramCompiler(this).compileField(fieldKey, reordered, groupEnds));
+                compiledPrograms = updated;
+            }
+        }
+    }
+    
+    private String applyCompiledProgram(MethodHandle program, String value) {
+        if (program == null) {
+            return value;
+        }
+        try {
+            return (String) program.invokeExact(value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Compiled rule program failed", t);
+        }
+    }
+    
+    /**
+     * Logs a failed rule, or applies the configured policy when the failure is a
+     * regex budget overrun. Returning means the rule is skipped; REJECT_ITEM and
+     * FAIL_JOB throw past the per-rule isolation of both backends.
+     */
+    void handleRuleFailure(Rule rule, String fieldName, Exception e) {
+        if (e instanceof RecordRejectedException rejected) {
+            throw countRejection(rule, rejected);
+        }
+        if (!(e instanceof RegexTimeoutException timeout)) {
+            log.error("Error applying rule {} to field {}: {}", 
+                rule.getId(), fieldName, e.getMessage());
+            return;
+        }
+        
+        RuleEngineProperties.RegexTimeoutPolicy policy = properties.getRegex().getTimeoutPolicy();
+        statisticsFor(rule).regexTimeouts.increment();
+        if (!candidate) {
+            Metrics.counter("rule.engine.regex.timeouts",
+                "rule", String.valueOf(rule.getId()), "policy", policy.name()).increment();
+        }
+        
+        switch (policy) {
+            case REJECT_ITEM:
+                log.warn("Rule {} on field {}: {} - rejecting record", rule.getId(), fieldName, e.getMessage());
+                throw countRejection(rule, new RecordRejectedException(rule.getId(), fieldName, timeout.getMessage()));
+            case FAIL_JOB:
+                log.error("Rule {} on field {}: {} - failing job", rule.getId(), fieldName, e.getMessage());
+                throw timeout;
+            default:
+                log.warn("Rule {} on field {}: {} - rule skipped", rule.getId(), fieldName, e.getMessage());
+        }
+    }
+    
+    private RecordRejectedException countRejection(Rule rule, RecordRejectedException rejected) {
+        statisticsFor(rule).rejections.increment();
+        if (!candidate) {
+            Metrics.counter("rule.engine.rejections", "rule", String.valueOf(rule.getId())).increment();
+        }
+        return rejected;
+    }
+    
+    // REGEX conditions run through the guard, IN_LIST against the watch lists; the rest is plain evaluation
+    boolean evaluateCondition(Rule rule, String value) {
+        Rule.RuleCondition condition = rule.getCondition();
+        if (value != null && condition != null && "REGEX".equalsIgnoreCase(condition.getOperator())) {
+            return regexGuard.find(
+                regexGuard.pattern(String.valueOf(condition.getValue()), condition.isCaseSensitive()), value);
+        }
+        if (condition != null && "IN_LIST".equalsIgnoreCase(condition.getOperator())) {
+            return inList(condition, value);
+        }
+        return condition.evaluate(value);
+    }
+    
+    boolean inList(Rule.RuleCondition condition, String value) {
+        LookupTable list = watchLists.get(watchListKey(String.valueOf(condition.getValue()), condition.isCaseSensitive()));
+        return value != null && list != null && list.contains(value);
+    }
+    
+    RegexGuard regexGuard() {
+        return regexGuard;
+    }
+    
+    String applyRule(Rule rule, String value) {
         switch (rule.getType().toUpperCase()) {
             case "CATEGORIZE":
                 return applyCategorizeRule(rule, value);
@@ -133,6 +618,8 @@ public class EnhancedRuleEngine {
                 return applyFormatRule(rule, value);
             case "REPLACE":
                 return applyReplaceRule(rule, value);
+            case "ENRICH":
+                return applyEnrichRule(rule, value);
             default:
                 log.warn("Unknown rule type: {}", rule.getType());
                 return value;
@@ -165,15 +652,22 @@ public class EnhancedRuleEngine {
     }
     
     @SuppressWarnings("unchecked")
-    private String applyMaskRule(Rule rule, String value) {
+    String applyMaskRule(Rule rule, String value) {
         Map<String, Object> action = (Map<String, Object>) rule.getAction();
         String maskType = (String) action.get("maskType");
         String maskChar = (String) action.getOrDefault("maskChar", "*");
         
         switch (maskType.toUpperCase()) {
             case "FULL":
-                int length = (Integer) action.getOrDefault("length", value.length());
-                return maskChar.repeat(length);
+                if (action.containsKey("length") && rule.getId() != null) {
+                    String mask = fixedMasks.get(rule.getId());
+                    if (mask == null) {
+                        mask = maskChar.repeat((Integer) action.get("length"));
+                        fixedMasks.put(rule.getId(), mask);
+                    }
+                    return mask;
+                }
+                return maskChar.repeat(value.length());
                 
             case "PARTIAL":
                 int showFirst = (Integer) action.getOrDefault("showFirst", 0);
@@ -196,22 +690,23 @@ public class EnhancedRuleEngine {
     }
     
     @SuppressWarnings("unchecked")
-    private String applyValidateRule(Rule rule, String value) {
+    String applyValidateRule(Rule rule, String value) {
         Map<String, Object> action = (Map<String, Object>) rule.getAction();
         String onInvalid = (String) action.get("onInvalid");
         
         // Check if the value is valid according to the condition
-        boolean isValid = rule.getCondition().evaluate(value);
+        boolean isValid = evaluateCondition(rule, value);
         
         if (!isValid) {
             // Handle invalid case
             switch (onInvalid.toUpperCase()) {
                 case "REJECT":
-                    String errorMessage = (String) action.getOrDefault("errorMessage", "Validation failed");
-                    log.warn("Validation failed for value: {} - {}", value, errorMessage);
-                    return null; // Or throw exception
+                    // Carries the rule and reason, never the value; counted per rule
+                    throw new RecordRejectedException(rule.getId(), rule.getFieldName(),
+                        (String) action.getOrDefault("errorMessage", "Validation failed"));
                     
                 case "DEFAULT":
+                    // An explicit "defaultValue": null clears the field
                     return (String) action.getOrDefault("defaultValue", "");
                     
                 case "SKIP":
@@ -227,7 +722,7 @@ public class EnhancedRuleEngine {
     }
     
     @SuppressWarnings("unchecked")
-    private String applyFormatRule(Rule rule, String value) {
+    String applyFormatRule(Rule rule, String value) {
         Map<String, Object> action = (Map<String, Object>) rule.getAction();
         String formatType = (String) action.get("formatType");
         
@@ -253,27 +748,41 @@ public class EnhancedRuleEngine {
     }
     
     @SuppressWarnings("unchecked")
-    private String applyReplaceRule(Rule rule, String value) {
+    String applyReplaceRule(Rule rule, String value) {
         Map<String, Object> action = (Map<String, Object>) rule.getAction();
         String replaceWith = (String) action.get("replaceWith");
         
         // Only replace if condition matches
-        if (rule.getCondition().evaluate(value)) {
+        if (evaluateCondition(rule, value)) {
             // Use the regex from condition to find and replace
             String regex = String.valueOf(rule.getCondition().getValue());
-            boolean caseSensitive = rule.getCondition().isCaseSensitive();
-            
-            Pattern pattern = caseSensitive ? 
-                Pattern.compile(regex) : 
-                Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-                
-            Matcher matcher = pattern.matcher(value);
-            return matcher.replaceAll(replaceWith);
+            Pattern pattern = regexGuard.pattern(regex, rule.getCondition().isCaseSensitive());
+            return regexGuard.replaceAll(pattern, replaceWith, value);
         }
         
         return value;
     }
     
+    @SuppressWarnings("unchecked")
+    String applyEnrichRule(Rule rule, String value) {
+        Map<String, Object> action = (Map<String, Object>) rule.getAction();
+        String tableName = (String) action.get("table");
+        LookupTable table = lookupTables.get(tableName);
+        if (table == null) {
+            log.warn("Unknown lookup table: {}", tableName);
+            return value;
+        }
+        
+        String enriched = table.get(value);
+        if (enriched != null) {
+            return enriched;
+        }
+        // KEEP leaves values without an entry unchanged
+        return "DEFAULT".equalsIgnoreCase((String) action.getOrDefault("onMissing", "KEEP"))
+            ? (String) action.getOrDefault("defaultValue", "")
+            : value;
+    }
+    
     private String applyFormatPreservingMask(String value, String maskChar, int showFirst, int showLast) {
         StringBuilder result = new StringBuilder();
         int length = value.length();
@@ -369,7 +878,7 @@ public class EnhancedRuleEngine {
         }
     }
     
-    private String toTitleCase(String input) {
+    String toTitleCase(String input) {
         StringBuilder titleCase = new StringBuilder();
         boolean nextTitleCase = true;
         
@@ -388,11 +897,25 @@ public class EnhancedRuleEngine {
         return titleCase.toString();
     }
     
+    private RuleStatistics statisticsFor(Rule rule) {
+        return statisticsFor(rule.getId());
+    }
+    
+    private RuleStatistics statisticsFor(String ruleId) {
+        return ruleStatistics.computeIfAbsent(ruleId, id -> new RuleStatistics());
+    }
+    
+    // Average measured execution time of a rule, or the fallback before its first execution
+    long averageRuleNanos(String ruleId, long fallbackNanos) {
+        RuleStatistics statistics = ruleStatistics.get(ruleId);
+        long executions = statistics != null ? statistics.executions.sum() : 0;
+        return executions > 0 ? statistics.executionNanos.sum() / executions : fallbackNanos;
+    }
+    
     private void trackRuleExecution(Rule rule, long startTime) {
-        long executionTime = System.currentTimeMillis() - startTime;
-        
-        ruleExecutionCount.merge(rule.getId(), 1L, Long::sum);
-        ruleExecutionTime.merge(rule.getId(), executionTime, Long::sum);
+        RuleStatistics statistics = statisticsFor(rule);
+        statistics.executions.increment();
+        statistics.executionNanos.add(System.nanoTime() - startTime);
     }
     
     // Metrics and monitoring methods
@@ -401,15 +924,23 @@ public class EnhancedRuleEngine {
         
         for (Rule rule : rules) {
             String id = rule.getId();
-            long count = ruleExecutionCount.getOrDefault(id, 0L);
-            long totalTime = ruleExecutionTime.getOrDefault(id, 0L);
-            double avgTime = count > 0 ? (double) totalTime / count : 0;
+            RuleStatistics statistics = statisticsFor(id);
+            long count = statistics.executions.sum();
+            long totalTime = statistics.executionNanos.sum() / 1_000_000;
+            double avgTime = count > 0 ? statistics.executionNanos.sum() / 1_000_000.0 / count : 0;
+            long evaluations = statistics.evaluations.sum();
             
             RuleMetrics ruleMetrics = new RuleMetrics();
             ruleMetrics.setRuleId(id);
             ruleMetrics.setExecutionCount(count);
             ruleMetrics.setTotalExecutionTime(totalTime);
             ruleMetrics.setAverageExecutionTime(avgTime);
+            ruleMetrics.setEvaluationCount(evaluations);
+            ruleMetrics.setMatchCount(statistics.matches.sum());
+            ruleMetrics.setAverageEvaluationNanos(
+                evaluations > 0 ? (double) statistics.evaluationNanos.sum() / evaluations : 0);
+            ruleMetrics.setRegexTimeoutCount(statistics.regexTimeouts.sum());
+            ruleMetrics.setRejectionCount(statistics.rejections.sum());
             metrics.put(id, ruleMetrics);
         }
         
@@ -422,23 +953,70 @@ public class EnhancedRuleEngine {
         private long executionCount;
         private long totalExecutionTime;
         private double averageExecutionTime;
+        // Profile used for adaptive ordering (only collected when enabled)
+        private long evaluationCount;
+        private long matchCount;
+        private double averageEvaluationNanos;
+        // Evaluations cut off by the regex step/time budget
+        private long regexTimeoutCount;
+        // Records rejected by the rule (VALIDATE onInvalid REJECT or REJECT_ITEM)
+        private long rejectionCount;
+    }
+    
+    // Current execution order (rule ids) per field
+    public Map<String, List<String>> getRuleOrder() {
+        Map<String, List<String>> order = new TreeMap<>();
+        rulesByField.forEach((field, fieldRules) -> order.put(field, AdaptiveRuleOrdering.ids(fieldRules)));
+        return order;
+    }
+    
+    // Stop adaptive re-ordering so the current order stays fixed for reproducible runs
+    public void freezeRuleOrder() {
+        ordering.freeze();
+        log.info("Rule order frozen: {}", getRuleOrder());
+    }
+    
+    public boolean isRuleOrderFrozen() {
+        return ordering.isFrozen();
     }
     
     // Method to reload rules without restart
     public void reloadRules() {
         log.info("Reloading rules...");
-        List<Rule> newRules = loadRules();
+        Map<String, LookupTable> tables = openLookupTables();
+        RuleSnapshot.Contents ruleSet = loadRuleSet();
+        Map<String, LookupTable> lists = openWatchLists(ruleSet.getRules());
         
         synchronized (this) {
+            this.lookupTables = tables;
             this.rules.clear();
-            this.rules.addAll(newRules);
+            this.rules.addAll(ruleSet.getRules());
+            this.watchLists = lists;
+            this.analysisReport = ruleSet.getReport();
             this.rulesByField.clear();
+            this.exclusiveGroupEnds.clear();
+            this.fixedMasks.clear();
             this.rulesByField.putAll(indexRulesByField());
+            this.compiledPrograms = compilePrograms();
+            this.recordEvaluator.rebuild(rulesByField);
+        }
+        if (shadow != null) {
+            shadow.reload(rulesByField);
         }
         
         log.info("Rules reloaded successfully. Total rules: {}", rules.size());
     }
     
+    // SHA-256 of the rule file content, identifies the rule set version
+    public String getRuleSetHash() {
+        return ruleSetHash;
+    }
+    
+    // Findings of the load-time rule set analysis
+    public RuleAnalysisReport getAnalysisReport() {
+        return analysisReport;
+    }
+    
     // Get all active rules for a field
     public List<Rule> getRulesForField(String fieldName) {
         return rulesByField.getOrDefault(fieldName.toLowerCase(), Collections.emptyList());
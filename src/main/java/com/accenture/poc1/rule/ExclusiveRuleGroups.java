@@ -0,0 +1,75 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.model.Rule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Finds runs of same-priority CATEGORIZE rules that can fire at most once per
+ * value: numeric conditions with pairwise disjoint ranges, and outputs that
+ * none of the group's conditions match. Within such a group the rule order
+ * cannot change the outcome, and once one rule fires the rest can be skipped.
+ */
+final class ExclusiveRuleGroups {
+
+    private ExclusiveRuleGroups() {
+    }
+
+    /**
+     * For every index of {@code fieldRules}, the (exclusive) end index of the
+     * exclusive group it belongs to. Rules outside any group map to {@code i + 1}.
+     */
+    static int[] groupEnds(List<Rule> fieldRules) {
+        int size = fieldRules.size();
+        int[] ends = new int[size];
+        int start = 0;
+
+        while (start < size) {
+            int end = start + 1;
+            if (isCandidate(fieldRules.get(start))) {
+                List<Rule> group = new ArrayList<>(List.of(fieldRules.get(start)));
+                while (end < size && canJoin(group, fieldRules.get(end))) {
+                    group.add(fieldRules.get(end));
+                    end++;
+                }
+            }
+            for (int i = start; i < end; i++) {
+                ends[i] = end;
+            }
+            start = end;
+        }
+        return ends;
+    }
+
+    static boolean isGrouped(int[] groupEnds, int index) {
+        return groupEnds[index] > index + 1 || (index > 0 && groupEnds[index - 1] == groupEnds[index]);
+    }
+
+    private static boolean canJoin(List<Rule> group, Rule candidate) {
+        if (!isCandidate(candidate) || candidate.getPriority() != group.get(0).getPriority()) {
+            return false;
+        }
+        NumericRange range = NumericRange.of(candidate.getCondition()).orElseThrow();
+        String output = candidate.getAction().toString();
+
+        for (Rule member : group) {
+            NumericRange memberRange = NumericRange.of(member.getCondition()).orElseThrow();
+            if (memberRange.overlaps(range)
+                || memberRange.matches(output)
+                || range.matches(member.getAction().toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCandidate(Rule rule) {
+        if (!"CATEGORIZE".equalsIgnoreCase(rule.getType()) || rule.getAction() == null) {
+            return false;
+        }
+        Optional<NumericRange> range = NumericRange.of(rule.getCondition());
+        return range.isPresent() && !range.get().matches(rule.getAction().toString());
+    }
+}
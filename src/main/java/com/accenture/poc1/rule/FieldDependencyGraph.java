@@ -0,0 +1,84 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.model.Rule;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Connected groups of fields whose rules depend on each other. A rule links
+ * the fields it reads or writes; every current rule type reads and writes only
+ * its own field, so each field with rules is a group of its own until a rule
+ * spans fields. Fields of one group are evaluated in order on one thread,
+ * different groups may run concurrently.
+ */
+final class FieldDependencyGraph {
+
+    private final Map<String, Integer> groups;
+    private final int groupCount;
+
+    private FieldDependencyGraph(Map<String, Integer> groups, int groupCount) {
+        this.groups = groups;
+        this.groupCount = groupCount;
+    }
+
+    static FieldDependencyGraph of(Map<String, List<Rule>> rulesByField) {
+        Map<String, String> parents = new HashMap<>();
+        rulesByField.forEach((field, fieldRules) -> {
+            parents.putIfAbsent(field, field);
+            for (Rule rule : fieldRules) {
+                for (String other : fieldsOf(rule)) {
+                    parents.putIfAbsent(other, other);
+                    union(parents, field, other);
+                }
+            }
+        });
+
+        Map<String, Integer> roots = new HashMap<>();
+        Map<String, Integer> groups = new HashMap<>();
+        for (String field : parents.keySet()) {
+            groups.put(field, roots.computeIfAbsent(find(parents, field), root -> roots.size()));
+        }
+        return new FieldDependencyGraph(groups, roots.size());
+    }
+
+    // Fields a rule reads or writes, lower-cased like the engine's field index
+    static Set<String> fieldsOf(Rule rule) {
+        return Set.of(rule.getFieldName().toLowerCase());
+    }
+
+    /**
+     * Group of a lower-cased field name, or -1 when no rule touches it.
+     */
+    int groupOf(String field) {
+        return groups.getOrDefault(field, -1);
+    }
+
+    int groupCount() {
+        return groupCount;
+    }
+
+    private static String find(Map<String, String> parents, String field) {
+        String root = field;
+        while (!parents.get(root).equals(root)) {
+            root = parents.get(root);
+        }
+        // Path compression
+        while (!field.equals(root)) {
+            String next = parents.get(field);
+            parents.put(field, root);
+            field = next;
+        }
+        return root;
+    }
+
+    private static void union(Map<String, String> parents, String a, String b) {
+        String rootA = find(parents, a);
+        String rootB = find(parents, b);
+        if (!rootA.equals(rootB)) {
+            parents.put(rootB, rootA);
+        }
+    }
+}
@@ -0,0 +1,557 @@
+package com.accenture.poc1.rule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only string map for ENRICH rules and IN_LIST conditions, kept in an
+ * open-addressed hash file that is memory-mapped instead of loaded, so tens of
+ * millions of reference entries cost no heap and one mapping is shared by all
+ * threads.
+ * <p>
+ * The file holds a header, which also records the size and modification time
+ * of the source it was built from, the records ({@code int keyLength, key,
+ * int valueLength, value}, UTF-8), a slot table of longs with a record offset
+ * in the low 40 bits and 24 bits of the key hash above it (empty slots are
+ * zero), and a blocked Bloom filter that answers most misses from one cache
+ * line before the slot table is touched. It is mapped in segments of
+ * {@code 1 << segmentBits} bytes and no record crosses a segment boundary.
+ * A case-folded table stores folded keys and folds every probe the same way.
+ */
+@Slf4j
+public final class LookupTable {
+
+    private static final int MAGIC = 0x4C4B5550; // "LKUP"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 64;
+    private static final int FOLDED = 1;
+    private static final int PADDING = -1;
+    private static final long OFFSET_MASK = (1L << 40) - 1;
+    static final int DEFAULT_SEGMENT_BITS = 30;
+    // 10 bits and 7 probes per key, all within one 512-bit block: about 1% false positives
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    private static final int BLOOM_PROBES = 7;
+    private static final int BLOOM_BLOCK_BITS = 512;
+
+    private final MappedByteBuffer[] segments;
+    private final int segmentBits;
+    private final long segmentMask;
+    private final boolean folded;
+    private final long size;
+    private final long slotMask;
+    private final long slotOffset;
+    private final long bloomOffset;
+    private final long bloomBlockMask;
+
+    private LookupTable(MappedByteBuffer[] segments, int segmentBits, boolean folded, long size, long slots,
+                        long slotOffset, long bloomBits) {
+        this.segments = segments;
+        this.segmentBits = segmentBits;
+        this.segmentMask = (1L << segmentBits) - 1;
+        this.folded = folded;
+        this.size = size;
+        this.slotMask = slots - 1;
+        this.slotOffset = slotOffset;
+        this.bloomOffset = bloomOffset(slotOffset, slots);
+        this.bloomBlockMask = bloomBits / BLOOM_BLOCK_BITS - 1;
+    }
+
+    /**
+     * Opens the hash file for the {@code key,value} CSV at {@code location},
+     * building it first when it is missing, of another version, or was built
+     * from a CSV of a different size or modification time. Without the CSV an
+     * existing file is used as is.
+     */
+    public static LookupTable load(String location, Path file) throws IOException {
+        return load(location, file, false, false);
+    }
+
+    /**
+     * Opens the hash file for a list with one entry per line, for membership
+     * tests; blank lines and lines starting with {@code #} are skipped.
+     */
+    public static LookupTable loadList(String location, Path file, boolean caseSensitive) throws IOException {
+        return load(location, file, true, !caseSensitive);
+    }
+
+    private static LookupTable load(String location, Path file, boolean list, boolean fold) throws IOException {
+        Resource source = new DefaultResourceLoader().getResource(location);
+        if (!source.exists()) {
+            return open(file);
+        }
+        // Compared for equality: a CSV restored from a backup is older than the file built from its successor
+        long sourceSize = source.contentLength();
+        long sourceModified = source.lastModified();
+        if (!isCurrent(file, sourceSize, sourceModified)) {
+            long start = System.nanoTime();
+            try (InputStream in = source.getInputStream()) {
+                if (list) {
+                    buildList(in, new Builder(file, DEFAULT_SEGMENT_BITS, fold, sourceSize, sourceModified));
+                } else {
+                    build(in, new Builder(file, DEFAULT_SEGMENT_BITS, false, sourceSize, sourceModified));
+                }
+            }
+            log.info("Built lookup table {} from {} in {} ms", file, location, (System.nanoTime() - start) / 1_000_000);
+        }
+        return open(file);
+    }
+
+    private static boolean isCurrent(Path file, long sourceSize, long sourceModified) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) < HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // read the whole header
+            }
+            return header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                && header.getLong(48) == sourceSize && header.getLong(56) == sourceModified;
+        }
+    }
+
+    /**
+     * Writes the hash file for a CSV of {@code key,value} lines after one
+     * header line. The value is everything after the first comma; surrounding
+     * double quotes are removed. The first of duplicate keys wins.
+     */
+    public static void build(InputStream csv, Path target) throws IOException {
+        build(csv, target, DEFAULT_SEGMENT_BITS);
+    }
+
+    static void build(InputStream csv, Path target, int segmentBits) throws IOException {
+        build(csv, new Builder(target, segmentBits, false, -1, -1));
+    }
+
+    private static void build(InputStream csv, Builder builder) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                if (comma < 0) {
+                    throw new IOException("Line " + lineNumber + " is not key,value: " + line);
+                }
+                builder.add(unquote(line.substring(0, comma)), unquote(line.substring(comma + 1)));
+            }
+            builder.finish();
+        } finally {
+            builder.abort();
+        }
+    }
+
+    /**
+     * Writes the hash file for a list with one entry per line and empty
+     * values; with {@code fold} the entries are stored case-folded.
+     */
+    public static void buildList(InputStream list, Path target, boolean fold) throws IOException {
+        buildList(list, target, fold, DEFAULT_SEGMENT_BITS);
+    }
+
+    static void buildList(InputStream list, Path target, boolean fold, int segmentBits) throws IOException {
+        buildList(list, new Builder(target, segmentBits, fold, -1, -1));
+    }
+
+    private static void buildList(InputStream list, Builder builder) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(list, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String entry = line.trim();
+                if (!entry.isEmpty() && !entry.startsWith("#")) {
+                    builder.add(entry, "");
+                }
+            }
+            builder.finish();
+        } finally {
+            builder.abort();
+        }
+    }
+
+    public static LookupTable open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(file + " is not a lookup table of version " + VERSION);
+            }
+            int segmentBits = header.getInt();
+            int flags = header.getInt();
+            long entries = header.getLong();
+            long slots = header.getLong();
+            long slotOffset = slotOffset(header.getLong());
+            long bloomBits = header.getLong();
+            // The mapping stays valid after the channel is closed
+            return new LookupTable(map(channel, FileChannel.MapMode.READ_ONLY, channel.size(), segmentBits),
+                segmentBits, (flags & FOLDED) != 0, entries, slots, slotOffset, bloomBits);
+        }
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long length, int segmentBits)
+        throws IOException {
+        long segmentSize = 1L << segmentBits;
+        MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((length + segmentSize - 1) >>> segmentBits)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << segmentBits;
+            segments[i] = channel.map(mode, start, Math.min(segmentSize, length - start));
+        }
+        return segments;
+    }
+
+    /**
+     * Value stored for {@code key}, or {@code null}.
+     */
+    public String get(String key) {
+        long record = find(key);
+        return record != 0 ? value(record) : null;
+    }
+
+    public boolean contains(String key) {
+        return find(key) != 0;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isCaseFolded() {
+        return folded;
+    }
+
+    private long find(String key) {
+        long hash = hash(key, folded);
+        if (!mightContain(hash)) {
+            return 0;
+        }
+        long tag = hash >>> 40;
+        for (long slot = hash & slotMask; ; slot = (slot + 1) & slotMask) {
+            long entry = getLong(slotOffset + slot * 8);
+            if (entry == 0) {
+                return 0;
+            }
+            if (entry >>> 40 == tag && keyEquals(entry & OFFSET_MASK, key, folded)) {
+                return entry & OFFSET_MASK;
+            }
+        }
+    }
+
+    // False only for keys that are certainly absent
+    boolean mightContain(String key) {
+        return mightContain(hash(key, folded));
+    }
+
+    private boolean mightContain(long hash) {
+        long block = bloomOffset + ((hash >>> 32) & bloomBlockMask) * (BLOOM_BLOCK_BITS / 8);
+        long bits = bloomBits(hash);
+        for (int i = 0; i < BLOOM_PROBES; i++, bits >>>= 9) {
+            int bit = (int) bits & (BLOOM_BLOCK_BITS - 1);
+            if ((getLong(block + (bit >>> 6) * 8) & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addToBloom(long hash) {
+        long block = bloomOffset + ((hash >>> 32) & bloomBlockMask) * (BLOOM_BLOCK_BITS / 8);
+        long bits = bloomBits(hash);
+        for (int i = 0; i < BLOOM_PROBES; i++, bits >>>= 9) {
+            int bit = (int) bits & (BLOOM_BLOCK_BITS - 1);
+            long address = block + (bit >>> 6) * 8;
+            segment(address).putLong(offset(address), getLong(address) | 1L << bit);
+        }
+    }
+
+    // 63 bits for the seven 9-bit positions inside the block, independent of the block index
+    private static long bloomBits(long hash) {
+        long bits = hash * 0x9e3779b97f4a7c15L;
+        return bits ^ bits >>> 29;
+    }
+
+    // Fills the slot table and Bloom filter from the records; returns the keys indexed
+    private long index(long dataEnd) {
+        long segmentSize = 1L << segmentBits;
+        long entries = 0;
+        long position = HEADER_SIZE;
+        while (position < dataEnd) {
+            long room = segmentSize - (position & segmentMask);
+            int keyLength = room >= 8 ? getInt(position) : PADDING;
+            if (keyLength == PADDING) {
+                position += room;
+                continue;
+            }
+            String key = string(position + 4, keyLength);
+            if (insert(hash(key, false), position, key)) {
+                entries++;
+            }
+            position += 8 + keyLength + getInt(position + 4 + keyLength);
+        }
+        return entries;
+    }
+
+    private boolean insert(long hash, long record, String key) {
+        long tag = hash >>> 40;
+        for (long slot = hash & slotMask; ; slot = (slot + 1) & slotMask) {
+            long address = slotOffset + slot * 8;
+            long entry = getLong(address);
+            if (entry == 0) {
+                segment(address).putLong(offset(address), tag << 40 | record);
+                addToBloom(hash);
+                return true;
+            }
+            if (entry >>> 40 == tag && keyEquals(entry & OFFSET_MASK, key, false)) {
+                return false;
+            }
+        }
+    }
+
+    // Compares the stored UTF-8 key with the (folded) string without encoding it
+    private boolean keyEquals(long record, String key, boolean fold) {
+        ByteBuffer segment = segment(record);
+        int position = offset(record);
+        int end = position + 4 + segment.getInt(position);
+        position += 4;
+        for (int i = 0; i < key.length(); i++) {
+            int c = key.charAt(i);
+            if (Character.isHighSurrogate((char) c) && i + 1 < key.length()
+                    && Character.isLowSurrogate(key.charAt(i + 1))) {
+                c = Character.toCodePoint((char) c, key.charAt(++i));
+            }
+            if (fold) {
+                c = fold(c);
+            }
+            int bytes = c < 0x80 ? 1 : c < 0x800 ? 2 : c < 0x10000 ? 3 : 4;
+            if (position + bytes > end) {
+                return false;
+            }
+            if (bytes == 1) {
+                if (segment.get(position++) != (byte) c) {
+                    return false;
+                }
+                continue;
+            }
+            int lead = bytes == 2 ? 0xC0 : bytes == 3 ? 0xE0 : 0xF0;
+            if (segment.get(position++) != (byte) (lead | c >> 6 * (bytes - 1))) {
+                return false;
+            }
+            for (int shift = 6 * (bytes - 2); shift >= 0; shift -= 6) {
+                if (segment.get(position++) != (byte) (0x80 | c >> shift & 0x3F)) {
+                    return false;
+                }
+            }
+        }
+        return position == end;
+    }
+
+    private String value(long record) {
+        long valueAt = record + 4 + getInt(record);
+        return string(valueAt + 4, getInt(valueAt));
+    }
+
+    private String string(long address, int length) {
+        byte[] bytes = new byte[length];
+        segment(address).get(offset(address), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int getInt(long address) {
+        return segment(address).getInt(offset(address));
+    }
+
+    private long getLong(long address) {
+        return segment(address).getLong(offset(address));
+    }
+
+    private MappedByteBuffer segment(long address) {
+        return segments[(int) (address >>> segmentBits)];
+    }
+
+    private int offset(long address) {
+        return (int) (address & segmentMask);
+    }
+
+    private static long slotOffset(long dataEnd) {
+        return (dataEnd + 7) & ~7L;
+    }
+
+    // Block aligned, so a Bloom probe reads a single cache line
+    private static long bloomOffset(long slotOffset, long slots) {
+        return (slotOffset + slots * 8 + 63) & ~63L;
+    }
+
+    // FNV-1a over the (folded) chars, finished with the MurmurHash3 mixer so low bits spread
+    static long hash(String key, boolean fold) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (!fold) {
+                hash = (hash ^ c) * 0x100000001b3L;
+                continue;
+            }
+            int codePoint = c;
+            if (Character.isHighSurrogate(c) && i + 1 < key.length() && Character.isLowSurrogate(key.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, key.charAt(++i));
+            }
+            codePoint = fold(codePoint);
+            if (Character.isBmpCodePoint(codePoint)) {
+                hash = (hash ^ codePoint) * 0x100000001b3L;
+            } else {
+                hash = (hash ^ Character.highSurrogate(codePoint)) * 0x100000001b3L;
+                hash = (hash ^ Character.lowSurrogate(codePoint)) * 0x100000001b3L;
+            }
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    // Per code point, so stored keys and probes fold identically (no locale rules)
+    private static int fold(int codePoint) {
+        if (codePoint < 0x80) {
+            return codePoint >= 'A' && codePoint <= 'Z' ? codePoint + ('a' - 'A') : codePoint;
+        }
+        return Character.toLowerCase(Character.toUpperCase(codePoint));
+    }
+
+    static String fold(String text) {
+        StringBuilder folded = new StringBuilder(text.length());
+        text.codePoints().forEach(codePoint -> folded.appendCodePoint(fold(codePoint)));
+        return folded.toString();
+    }
+
+    private static String unquote(String text) {
+        String trimmed = text.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1).replace("\"\"", "\"");
+        }
+        return trimmed;
+    }
+
+    /**
+     * Streams records to a temporary file, then sizes and fills the slot table
+     * and Bloom filter in a second pass over the mapped file and moves it into
+     * place. The temporary file has a unique name in the target directory, so
+     * processes building the same table at once do not write into each other.
+     */
+    private static final class Builder {
+
+        private final Path target;
+        private final Path temp;
+        private final int segmentBits;
+        private final long segmentSize;
+        private final boolean fold;
+        private final long sourceSize;
+        private final long sourceModified;
+        private final DataOutputStream out;
+        private long records;
+        private long position = HEADER_SIZE;
+
+        Builder(Path target, int segmentBits, boolean fold, long sourceSize, long sourceModified) throws IOException {
+            if (segmentBits < 6 || segmentBits > 30) {
+                throw new IllegalArgumentException("Segment bits must be between 6 and 30: " + segmentBits);
+            }
+            Path directory = target.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            this.target = target;
+            this.temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            this.segmentBits = segmentBits;
+            this.segmentSize = 1L << segmentBits;
+            this.fold = fold;
+            this.sourceSize = sourceSize;
+            this.sourceModified = sourceModified;
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16));
+            out.write(new byte[HEADER_SIZE]);
+        }
+
+        void add(String key, String value) throws IOException {
+            byte[] keyBytes = (fold ? fold(key) : key).getBytes(StandardCharsets.UTF_8);
+            byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+            int length = 8 + keyBytes.length + valueBytes.length;
+            if (length > segmentSize) {
+                throw new IOException("Entry " + key + " does not fit a segment of " + segmentSize + " bytes");
+            }
+            long room = segmentSize - (position & (segmentSize - 1));
+            if (length > room) {
+                // Continue in the next segment
+                if (room >= 8) {
+                    out.writeInt(PADDING);
+                    out.write(new byte[(int) room - 4]);
+                } else {
+                    out.write(new byte[(int) room]);
+                }
+                position += room;
+            }
+            out.writeInt(keyBytes.length);
+            out.write(keyBytes);
+            out.writeInt(valueBytes.length);
+            out.write(valueBytes);
+            position += length;
+            records++;
+        }
+
+        // Removes the temporary file unless finish() already moved it into place
+        void abort() throws IOException {
+            out.close();
+            Files.deleteIfExists(temp);
+        }
+
+        void finish() throws IOException {
+            out.close();
+            long dataEnd = position;
+            long slotOffset = slotOffset(dataEnd);
+            long slots = Math.max(8, Long.highestOneBit(Math.max(1, records * 3 / 2)) << 1);
+            long bloomBits = Math.max(BLOOM_BLOCK_BITS, Long.highestOneBit(Math.max(1, records * BLOOM_BITS_PER_KEY)) << 1);
+            long fileLength = bloomOffset(slotOffset, slots) + bloomBits / 8;
+            if (fileLength > OFFSET_MASK) {
+                throw new IOException("Lookup table exceeds " + OFFSET_MASK + " bytes");
+            }
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(1), fileLength - 1);
+                LookupTable table = new LookupTable(map(channel, FileChannel.MapMode.READ_WRITE, fileLength, segmentBits),
+                    segmentBits, false, 0, slots, slotOffset, bloomBits);
+                long entries = table.index(dataEnd);
+                if (entries < records) {
+                    log.warn("Lookup table {}: ignored {} duplicate keys", target, records - entries);
+                }
+                for (MappedByteBuffer segment : table.segments) {
+                    segment.force();
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC).putInt(VERSION).putInt(segmentBits).putInt(fold ? FOLDED : 0)
+                    .putLong(entries).putLong(slots).putLong(dataEnd).putLong(bloomBits)
+                    .putLong(sourceSize).putLong(sourceModified)
+                    .flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
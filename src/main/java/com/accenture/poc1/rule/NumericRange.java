@@ -0,0 +1,69 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.model.Rule.RuleCondition;
+import lombok.Value;
+
+import java.util.Optional;
+
+/**
+ * Closed integer interval matched by a numeric condition (BETWEEN, &gt;, &gt;=, &lt;, &lt;=).
+ * Bounds are widened to long so {@code > Integer.MAX_VALUE} style edges stay exact.
+ */
+@Value
+class NumericRange {
+
+    long min;
+    long max;
+
+    static Optional<NumericRange> of(RuleCondition condition) {
+        if (condition == null || condition.getOperator() == null) {
+            return Optional.empty();
+        }
+        try {
+            switch (condition.getOperator().toUpperCase()) {
+                case "BETWEEN":
+                    if (condition.getMin() == null || condition.getMax() == null) {
+                        return Optional.empty();
+                    }
+                    return Optional.of(new NumericRange(condition.getMin(), condition.getMax()));
+                case ">":
+                    return Optional.of(new NumericRange(bound(condition) + 1, Integer.MAX_VALUE));
+                case ">=":
+                    return Optional.of(new NumericRange(bound(condition), Integer.MAX_VALUE));
+                case "<":
+                    return Optional.of(new NumericRange(Integer.MIN_VALUE, bound(condition) - 1));
+                case "<=":
+                    return Optional.of(new NumericRange(Integer.MIN_VALUE, bound(condition)));
+                default:
+                    return Optional.empty();
+            }
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static long bound(RuleCondition condition) {
+        return Integer.parseInt(String.valueOf(condition.getValue()));
+    }
+
+    boolean isEmpty() {
+        return min > max;
+    }
+
+    boolean overlaps(NumericRange other) {
+        return !isEmpty() && !other.isEmpty() && min <= other.max && other.min <= max;
+    }
+
+    /**
+     * True if {@code value} parses as an int inside this range, i.e. the
+     * condition this range came from would match it.
+     */
+    boolean matches(String value) {
+        try {
+            int number = Integer.parseInt(value);
+            return number >= min && number <= max;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.model.Rule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Evaluates whole records for {@link EnhancedRuleEngine#evaluateRecord}.
+ * Fields are grouped by the {@link FieldDependencyGraph}; when the estimated
+ * cost of a record reaches the threshold and it has at least two groups, the
+ * groups are spread over up to {@code parallelism} tasks on a ForkJoin pool,
+ * otherwise fields run one after another on the caller's thread.
+ * <p>
+ * Field cost is the average measured execution time of the field's rules,
+ * refreshed every {@value #COST_REFRESH_INTERVAL} records.
+ */
+@Slf4j
+class RecordEvaluator {
+
+    private static final int COST_REFRESH_INTERVAL = 1024;
+
+    private final EnhancedRuleEngine engine;
+    private final long thresholdNanos;
+    private final long defaultRuleNanos;
+    private final ForkJoinPool pool;
+    private final AtomicLong records = new AtomicLong();
+    private volatile FieldDependencyGraph graph;
+    private volatile Map<String, Long> fieldCosts = Map.of();
+    private volatile Map<String, List<Rule>> rulesByField = Map.of();
+
+    RecordEvaluator(EnhancedRuleEngine engine, RuleEngineProperties.Parallel settings) {
+        this.engine = engine;
+        this.thresholdNanos = settings.getThreshold().toNanos();
+        this.defaultRuleNanos = settings.getDefaultRuleCost().toNanos();
+        int parallelism = settings.getParallelism() > 0
+            ? settings.getParallelism() : Runtime.getRuntime().availableProcessors();
+        this.pool = settings.isEnabled() && parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    void rebuild(Map<String, List<Rule>> rulesByField) {
+        this.rulesByField = rulesByField;
+        this.graph = FieldDependencyGraph.of(rulesByField);
+        this.fieldCosts = estimateCosts(rulesByField);
+        log.debug("Field dependency graph: {} groups for {} fields", graph.groupCount(), rulesByField.size());
+    }
+
+    Map<String, String> evaluate(Map<String, ?> record, long recordId) {
+        int size = record.size();
+        String[] names = new String[size];
+        Object[] values = new Object[size];
+        int index = 0;
+        for (Map.Entry<String, ?> field : record.entrySet()) {
+            names[index] = field.getKey();
+            values[index++] = field.getValue();
+        }
+
+        String[] results = new String[size];
+        int[][] tasks = pool != null ? plan(names) : null;
+        if (tasks == null) {
+            evaluate(names, values, results, null, recordId);
+        } else {
+            evaluateParallel(names, values, results, tasks, recordId);
+        }
+
+        Map<String, String> evaluated = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            evaluated.put(names[i], results[i]);
+        }
+        return evaluated;
+    }
+
+    private void evaluate(String[] names, Object[] values, String[] results, int[] fields, long recordId) {
+        int count = fields != null ? fields.length : names.length;
+        for (int i = 0; i < count; i++) {
+            int field = fields != null ? fields[i] : i;
+            results[field] = engine.applyRules(names[field], values[field], recordId);
+        }
+    }
+
+    private void evaluateParallel(String[] names, Object[] values, String[] results, int[][] tasks, long recordId) {
+        AtomicReference<RecordRejectedException> rejected = new AtomicReference<>();
+        List<ForkJoinTask<?>> forked = new ArrayList<>(tasks.length - 1);
+        for (int t = 1; t < tasks.length; t++) {
+            int[] fields = tasks[t];
+            forked.add(pool.submit(() -> evaluateTask(names, values, results, fields, recordId, rejected)));
+        }
+        evaluateTask(names, values, results, tasks[0], recordId, rejected);
+        for (ForkJoinTask<?> task : forked) {
+            task.join();
+        }
+        if (rejected.get() != null) {
+            throw rejected.get();
+        }
+    }
+
+    private void evaluateTask(String[] names, Object[] values, String[] results, int[] fields, long recordId,
+                              AtomicReference<RecordRejectedException> rejected) {
+        try {
+            evaluate(names, values, results, fields, recordId);
+        } catch (RecordRejectedException e) {
+            rejected.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * Field indexes per task, or null when the record should run sequentially.
+     * Groups go to the least loaded task, most expensive group first.
+     */
+    int[][] plan(String[] names) {
+        if (records.incrementAndGet() % COST_REFRESH_INTERVAL == 0) {
+            fieldCosts = estimateCosts(rulesByField);
+        }
+        FieldDependencyGraph current = graph;
+        Map<String, Long> costs = fieldCosts;
+        Map<Integer, long[]> groupCosts = new HashMap<>();
+        long total = 0;
+        for (String name : names) {
+            String field = name.toLowerCase();
+            int group = current.groupOf(field);
+            if (group >= 0) {
+                long cost = costs.getOrDefault(field, 0L);
+                groupCosts.computeIfAbsent(group, g -> new long[1])[0] += cost;
+                total += cost;
+            }
+        }
+        if (total < thresholdNanos || groupCosts.size() < 2) {
+            return null;
+        }
+
+        List<Map.Entry<Integer, long[]>> groups = new ArrayList<>(groupCosts.entrySet());
+        groups.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        int taskCount = Math.min(pool.getParallelism(), groups.size());
+        long[] load = new long[taskCount];
+        Map<Integer, Integer> taskOfGroup = new HashMap<>();
+        for (Map.Entry<Integer, long[]> group : groups) {
+            int lightest = 0;
+            for (int t = 1; t < taskCount; t++) {
+                if (load[t] < load[lightest]) {
+                    lightest = t;
+                }
+            }
+            load[lightest] += group.getValue()[0];
+            taskOfGroup.put(group.getKey(), lightest);
+        }
+
+        int[] counts = new int[taskCount];
+        int[] taskOfField = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            // Fields without rules are copied by the first task
+            int group = current.groupOf(names[i].toLowerCase());
+            taskOfField[i] = group >= 0 ? taskOfGroup.get(group) : 0;
+            counts[taskOfField[i]]++;
+        }
+        int[][] tasks = new int[taskCount][];
+        for (int t = 0; t < taskCount; t++) {
+            tasks[t] = new int[counts[t]];
+        }
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < names.length; i++) {
+            tasks[taskOfField[i]][counts[taskOfField[i]]++] = i;
+        }
+        return tasks;
+    }
+
+    private Map<String, Long> estimateCosts(Map<String, List<Rule>> rules) {
+        Map<String, Long> costs = new HashMap<>();
+        rules.forEach((field, fieldRules) -> {
+            long cost = 0;
+            for (Rule rule : fieldRules) {
+                cost += engine.averageRuleNanos(rule.getId(), defaultRuleNanos);
+            }
+            costs.put(field, cost);
+        });
+        return costs;
+    }
+
+    void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
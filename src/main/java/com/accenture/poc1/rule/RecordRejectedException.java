@@ -0,0 +1,27 @@
+package com.accenture.poc1.rule;
+
+import lombok.Getter;
+
+/**
+ * Signals that the whole record must be filtered out of the batch, e.g. because
+ * a VALIDATE rule rejected a field or a rule exceeded its regex budget under
+ * the REJECT_ITEM policy. The message is the rule's reason and never contains
+ * the value. No stack trace is captured, since a bad input batch can reject
+ * every row.
+ */
+@Getter
+public class RecordRejectedException extends RuntimeException {
+
+    private final String ruleId;
+    private final String fieldName;
+
+    public RecordRejectedException(String ruleId, String message) {
+        this(ruleId, null, message);
+    }
+
+    public RecordRejectedException(String ruleId, String fieldName, String message) {
+        super(message, null, false, false);
+        this.ruleId = ruleId;
+        this.fieldName = fieldName;
+    }
+}
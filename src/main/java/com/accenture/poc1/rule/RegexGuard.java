@@ -0,0 +1,85 @@
+package com.accenture.poc1.rule;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Runs user-authored patterns against a {@link CharSequence} that counts
+ * {@code charAt} calls, so catastrophic backtracking is cut off after a step
+ * or time budget with a {@link RegexTimeoutException}. Compiled patterns are
+ * cached, as rules reuse a handful of expressions for every row.
+ */
+class RegexGuard {
+
+    // Check the clock only every 4096 steps
+    private static final long CLOCK_CHECK_MASK = 0xFFF;
+
+    private final long stepBudget;
+    private final long timeBudgetNanos;
+    private final Map<String, Pattern> patterns = new ConcurrentHashMap<>();
+
+    RegexGuard(RuleEngineProperties.Regex settings) {
+        this.stepBudget = settings.getStepBudget();
+        this.timeBudgetNanos = settings.getTimeBudget() == null ? 0 : settings.getTimeBudget().toNanos();
+    }
+
+    Pattern pattern(String regex, boolean caseSensitive) {
+        return patterns.computeIfAbsent((caseSensitive ? "s:" : "i:") + regex,
+            key -> Pattern.compile(regex, caseSensitive ? 0 : Pattern.CASE_INSENSITIVE));
+    }
+
+    boolean find(Pattern pattern, String input) {
+        return pattern.matcher(budgeted(input)).find();
+    }
+
+    String replaceAll(Pattern pattern, String replacement, String input) {
+        return pattern.matcher(budgeted(input)).replaceAll(replacement);
+    }
+
+    private CharSequence budgeted(String input) {
+        if (stepBudget <= 0 && timeBudgetNanos <= 0) {
+            return input;
+        }
+        return new BudgetedCharSequence(input);
+    }
+
+    private final class BudgetedCharSequence implements CharSequence {
+
+        private final String text;
+        private final long startNanos = timeBudgetNanos > 0 ? System.nanoTime() : 0;
+        private long steps;
+
+        private BudgetedCharSequence(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public char charAt(int index) {
+            steps++;
+            if (stepBudget > 0 && steps > stepBudget) {
+                throw new RegexTimeoutException("Regex step budget of " + stepBudget + " exceeded");
+            }
+            if (timeBudgetNanos > 0 && (steps & CLOCK_CHECK_MASK) == 0
+                && System.nanoTime() - startNanos > timeBudgetNanos) {
+                throw new RegexTimeoutException("Regex time budget of " + timeBudgetNanos / 1_000_000 + " ms exceeded");
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.accenture.poc1.rule;
+
+/**
+ * Thrown when a regex evaluation exceeds its step or time budget.
+ */
+public class RegexTimeoutException extends RuntimeException {
+
+    public RegexTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,60 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.model.Rule;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Result of {@link RuleSetAnalyzer}: every finding, and which rule instances were
+ * proven dead and dropped from the execution plan.
+ */
+@Data
+public class RuleAnalysisReport {
+
+    private int ruleCount;
+    private int liveRuleCount;
+    private List<Finding> findings = new ArrayList<>();
+
+    @JsonIgnore
+    private final Set<Rule> prunedRules = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public boolean isPruned(Rule rule) {
+        return prunedRules.contains(rule);
+    }
+
+    void add(Rule rule, FindingType type, boolean pruned, String reason) {
+        findings.add(new Finding(rule.getId(), rule.getFieldName(), type, pruned, reason));
+        if (pruned) {
+            prunedRules.add(rule);
+        }
+    }
+
+    public enum FindingType {
+        UNSATISFIABLE_CONDITION,
+        DUPLICATE_RULE,
+        SHADOWED_RULE,
+        UNREACHABLE_AFTER_MASK,
+        OVERWRITTEN_TRANSFORM,
+        DUPLICATE_ID,
+        DISABLED_DUPLICATE
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Finding {
+        private String ruleId;
+        private String fieldName;
+        private FindingType type;
+        private boolean pruned;
+        private String reason;
+    }
+}
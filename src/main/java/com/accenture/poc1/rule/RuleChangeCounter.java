@@ -0,0 +1,23 @@
+package com.accenture.poc1.rule;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts, per rule id, the field values a rule changed while the counter was
+ * bound to the evaluating thread with {@link EnhancedRuleEngine#bindChangeCounter}.
+ * A counter belongs to one batch step, so jobs sharing the engine keep their
+ * counts apart. Compiled field programs report their changes under {@code *}.
+ */
+public class RuleChangeCounter {
+
+    private final Map<String, Long> changes = new TreeMap<>();
+
+    void changed(String ruleId) {
+        changes.merge(ruleId, 1L, Long::sum);
+    }
+
+    public Map<String, Long> getChanges() {
+        return changes;
+    }
+}
@@ -0,0 +1,204 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.audit.AuditProperties;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "rule-engine")
+public class RuleEngineProperties {
+
+    /**
+     * Rule file to load, as a Spring resource location.
+     */
+    private String rulesLocation = "classpath:rules.json";
+
+    /**
+     * Execution backend for field rule lists. COMPILED builds one MethodHandle
+     * chain per field at load time; it does not collect per-rule metrics.
+     */
+    private Backend backend = Backend.INTERPRETER;
+
+    private AdaptiveOrdering adaptiveOrdering = new AdaptiveOrdering();
+
+    private Analysis analysis = new Analysis();
+
+    private Regex regex = new Regex();
+
+    private Snapshot snapshot = new Snapshot();
+
+    private AuditProperties audit = new AuditProperties();
+
+    private Lookup lookup = new Lookup();
+
+    private Parallel parallel = new Parallel();
+
+    private Shadow shadow = new Shadow();
+
+    public enum Backend {
+        INTERPRETER,
+        COMPILED
+    }
+
+    public enum RegexTimeoutPolicy {
+        /** Leave the value unchanged by the offending rule and continue. */
+        SKIP_RULE,
+        /** Filter the whole record out of the chunk. */
+        REJECT_ITEM,
+        /** Propagate the timeout and fail the step. */
+        FAIL_JOB
+    }
+
+    @Data
+    public static class AdaptiveOrdering {
+
+        /**
+         * Profile rule cost and hit rate and periodically re-order mutually
+         * exclusive same-priority rules. Profiling needs the interpreter backend.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Evaluations of a field between two re-ordering passes.
+         */
+        private long reorderInterval = 10_000;
+
+        /**
+         * Start with re-ordering frozen; profiling still runs.
+         */
+        private boolean frozen = false;
+
+        /**
+         * Explicit rule id order per field, e.g. taken from
+         * {@code EnhancedRuleEngine.getRuleOrder()} of an earlier run.
+         * Pinned fields are never re-ordered.
+         */
+        private Map<String, List<String>> pinnedOrder = new HashMap<>();
+    }
+
+    @Data
+    public static class Analysis {
+
+        /**
+         * Drop rules the load-time analyzer proves can never change a value.
+         * When false the findings are only reported.
+         */
+        private boolean prune = true;
+
+        /**
+         * File the JSON analysis report is written to on every (re)load;
+         * empty to only log the findings.
+         */
+        private String reportPath = "";
+    }
+
+    @Data
+    public static class Regex {
+
+        /**
+         * Maximum characters the regex engine may inspect per evaluation,
+         * backtracking included; 0 disables the step budget.
+         */
+        private long stepBudget = 1_000_000;
+
+        /**
+         * Wall-clock budget per evaluation; zero disables it.
+         */
+        private Duration timeBudget = Duration.ofMillis(250);
+
+        /**
+         * What happens to a record when a rule exceeds its budget.
+         */
+        private RegexTimeoutPolicy timeoutPolicy = RegexTimeoutPolicy.SKIP_RULE;
+    }
+
+    @Data
+    public static class Lookup {
+
+        /**
+         * Reference tables for ENRICH rules: table name to the location of a
+         * {@code key,value} CSV with a header line.
+         */
+        private Map<String, String> tables = new HashMap<>();
+
+        /**
+         * Watch lists for IN_LIST conditions: list name to the location of a
+         * file with one entry per line.
+         */
+        private Map<String, String> lists = new HashMap<>();
+
+        /**
+         * Directory of the memory-mapped hash files built from the tables and
+         * lists; a file is rebuilt when its source is newer.
+         */
+        private String directory = "lookup";
+    }
+
+    @Data
+    public static class Parallel {
+
+        /**
+         * Evaluate independent field groups of expensive records concurrently
+         * in {@code EnhancedRuleEngine.evaluateRecord}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Estimated record cost from which the field groups are split over
+         * the pool; cheaper records run sequentially.
+         */
+        private Duration threshold = Duration.ofNanos(50_000);
+
+        /**
+         * ForkJoin pool size, 0 for the available processors.
+         */
+        private int parallelism = 0;
+
+        /**
+         * Cost assumed for a rule until it has been measured.
+         */
+        private Duration defaultRuleCost = Duration.ofNanos(200);
+    }
+
+    @Data
+    public static class Snapshot {
+
+        /**
+         * Binary snapshot of the parsed and analyzed rule set. Written on the
+         * first load and reused while the rule file and analysis settings are
+         * unchanged; empty to always parse the JSON.
+         */
+        private String path = "";
+    }
+
+    @Data
+    public static class Shadow {
+
+        /**
+         * Candidate rule file evaluated next to the active rules on every
+         * field; empty turns shadow mode off.
+         */
+        private String candidateLocation = "";
+
+        /**
+         * CSV of the fields whose candidate outcome differs, one line each.
+         */
+        private String reportPath = "shadow/rule-diff.csv";
+
+        /**
+         * Comparison and per-rule divergence counts, written on shutdown.
+         */
+        private String summaryPath = "shadow/rule-diff-summary.json";
+
+        /**
+         * Comparisons queued for the shadow thread before the calling thread
+         * evaluates the candidate itself.
+         */
+        private int capacity = 16_384;
+    }
+}
@@ -0,0 +1,369 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.model.Rule;
+import com.accenture.poc1.rule.model.Rule.RuleCondition;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles each field's rule list into one {@link MethodHandle} chain of
+ * {@code (String)String}. Conditions and actions are specialized with their
+ * parameters bound as constants, so the JIT sees straight-line code instead
+ * of the interpreter's per-rule type dispatch. Semantics follow
+ * {@link EnhancedRuleEngine#applyRules(String, Object)}: MASK and VALIDATE
+ * short-circuit, and an exception inside a rule goes through
+ * {@link EnhancedRuleEngine#handleRuleFailure}, which leaves the value
+ * unchanged unless a regex timeout policy says otherwise.
+ */
+@Slf4j
+class RuleProgramCompiler {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType UNARY = MethodType.methodType(String.class, String.class);
+    private static final MethodType PREDICATE = MethodType.methodType(boolean.class, String.class);
+    private static final MethodType RULE_ACTION = MethodType.methodType(String.class, Rule.class, String.class);
+
+    private static final MethodHandle IDENTITY = MethodHandles.identity(String.class);
+    private static final MethodHandle ON_RULE_ERROR;
+    private static final MethodHandle ON_CONDITION_ERROR;
+    private static final MethodHandle MASK_STOPS;
+    private static final MethodHandle VALIDATION_STOPS;
+    private static final MethodHandle NOT_BLANK;
+    private static final MethodHandle REGEX_FIND;
+    private static final MethodHandle REGEX_REPLACE;
+    private static final MethodHandle BETWEEN;
+    private static final MethodHandle GREATER_THAN;
+    private static final MethodHandle AT_LEAST;
+    private static final MethodHandle LESS_THAN;
+    private static final MethodHandle AT_MOST;
+    private static final MethodHandle TO_UPPER_CASE;
+
+    static {
+        try {
+            ON_RULE_ERROR = LOOKUP.findStatic(RuleProgramCompiler.class, "onRuleError",
+                MethodType.methodType(String.class, EnhancedRuleEngine.class, Rule.class, String.class,
+                    Exception.class, String.class));
+            ON_CONDITION_ERROR = LOOKUP.findStatic(RuleProgramCompiler.class, "onConditionError",
+                MethodType.methodType(boolean.class, EnhancedRuleEngine.class, Rule.class, String.class,
+                    Exception.class, String.class));
+            MethodType stopTest = MethodType.methodType(boolean.class, String.class, String.class);
+            MASK_STOPS = LOOKUP.findStatic(RuleProgramCompiler.class, "maskStops", stopTest);
+            VALIDATION_STOPS = LOOKUP.findStatic(RuleProgramCompiler.class, "validationStops", stopTest);
+            NOT_BLANK = LOOKUP.findStatic(RuleProgramCompiler.class, "notBlank", PREDICATE);
+            REGEX_FIND = LOOKUP.findVirtual(RegexGuard.class, "find",
+                MethodType.methodType(boolean.class, Pattern.class, String.class));
+            REGEX_REPLACE = LOOKUP.findVirtual(RegexGuard.class, "replaceAll",
+                MethodType.methodType(String.class, Pattern.class, String.class, String.class));
+            BETWEEN = LOOKUP.findStatic(RuleProgramCompiler.class, "between",
+                MethodType.methodType(boolean.class, int.class, int.class, String.class));
+            GREATER_THAN = LOOKUP.findStatic(RuleProgramCompiler.class, "greaterThan",
+                MethodType.methodType(boolean.class, int.class, String.class));
+            AT_LEAST = LOOKUP.findStatic(RuleProgramCompiler.class, "atLeast",
+                MethodType.methodType(boolean.class, int.class, String.class));
+            LESS_THAN = LOOKUP.findStatic(RuleProgramCompiler.class, "lessThan",
+                MethodType.methodType(boolean.class, int.class, String.class));
+            AT_MOST = LOOKUP.findStatic(RuleProgramCompiler.class, "atMost",
+                MethodType.methodType(boolean.class, int.class, String.class));
+            TO_UPPER_CASE = LOOKUP.findVirtual(String.class, "toUpperCase", MethodType.methodType(String.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final EnhancedRuleEngine engine;
+
+    RuleProgramCompiler(EnhancedRuleEngine engine) {
+        this.engine = engine;
+    }
+
+    Map<String, MethodHandle> compile(Map<String, List<Rule>> rulesByField, Map<String, int[]> groupEnds) {
+        Map<String, MethodHandle> programs = new HashMap<>();
+        rulesByField.forEach((field, fieldRules) ->
+            programs.put(field, compileField(field, fieldRules, groupEnds.get(field))));
+        log.info("Compiled rule programs for {} fields", programs.size());
+        return programs;
+    }
+
+    /**
+     * @param groupEnds exclusive group end per rule index (see {@link ExclusiveRuleGroups});
+     *                  a match inside a group continues after the group
+     */
+    MethodHandle compileField(String fieldName, List<Rule> fieldRules, int[] groupEnds) {
+        // continuations[i] runs rules i..n-1; built back to front so every jump target exists
+        int size = fieldRules.size();
+        MethodHandle[] continuations = new MethodHandle[size + 1];
+        continuations[size] = IDENTITY;
+
+        for (int i = size - 1; i >= 0; i--) {
+            Rule rule = fieldRules.get(i);
+            MethodHandle next = continuations[i + 1];
+
+            if ("VALIDATE".equals(rule.getType())) {
+                MethodHandle step = isolate(fieldName, rule, bindEngine("applyValidateRule", rule));
+                continuations[i] = shortCircuit(step, VALIDATION_STOPS, next);
+            } else if ("REPLACE".equals(rule.getType())) {
+                MethodHandle step = isolate(fieldName, rule, compileReplaceStep(rule));
+                continuations[i] = MethodHandles.filterReturnValue(step, next);
+            } else if ("MASK".equals(rule.getType())) {
+                MethodHandle step = isolate(fieldName, rule,
+                    MethodHandles.guardWithTest(conditionOf(rule), actionOf(rule), IDENTITY));
+                continuations[i] = shortCircuit(step, MASK_STOPS, next);
+            } else {
+                MethodHandle afterMatch = continuations[groupEnds != null ? groupEnds[i] : i + 1];
+                MethodHandle condition = MethodHandles.catchException(conditionOf(rule), Exception.class,
+                    MethodHandles.insertArguments(ON_CONDITION_ERROR, 0, engine, rule, fieldName));
+                MethodHandle action = isolate(fieldName, rule, actionOf(rule));
+                continuations[i] = MethodHandles.guardWithTest(condition,
+                    MethodHandles.filterReturnValue(action, afterMatch), next);
+            }
+        }
+        return continuations[0];
+    }
+
+    private MethodHandle compileReplaceStep(Rule rule) {
+        try {
+            return compileReplace(rule);
+        } catch (RuntimeException e) {
+            log.warn("Rule {} cannot be specialized, using generic dispatch: {}", rule.getId(), e.getMessage());
+            return bindEngine("applyReplaceRule", rule);
+        }
+    }
+
+    private MethodHandle conditionOf(Rule rule) {
+        try {
+            return compileCondition(rule.getCondition());
+        } catch (RuntimeException e) {
+            log.warn("Condition of rule {} cannot be specialized: {}", rule.getId(), e.getMessage());
+            return MethodHandles.insertArguments(
+                virtualOn(EnhancedRuleEngine.class, "evaluateCondition", boolean.class, Rule.class, String.class),
+                0, engine, rule);
+        }
+    }
+
+    private MethodHandle actionOf(Rule rule) {
+        try {
+            return compileAction(rule);
+        } catch (RuntimeException e) {
+            log.warn("Action of rule {} cannot be specialized: {}", rule.getId(), e.getMessage());
+            return bindEngine("applyRule", rule);
+        }
+    }
+
+    /**
+     * Runs {@code step} once, then either returns its result or continues with
+     * {@code rest} on the original value, depending on {@code stopTest(new, old)}.
+     */
+    private MethodHandle shortCircuit(MethodHandle step, MethodHandle stopTest, MethodHandle rest) {
+        MethodHandle returnNew = MethodHandles.dropArguments(IDENTITY, 1, String.class);
+        MethodHandle continueWithOld = MethodHandles.dropArguments(rest, 0, String.class);
+        MethodHandle decide = MethodHandles.guardWithTest(stopTest, returnNew, continueWithOld);
+        return MethodHandles.foldArguments(decide, step);
+    }
+
+    private MethodHandle isolate(String fieldName, Rule rule, MethodHandle step) {
+        MethodHandle handler = MethodHandles.insertArguments(ON_RULE_ERROR, 0, engine, rule, fieldName);
+        return MethodHandles.catchException(step, Exception.class, handler);
+    }
+
+    private MethodHandle compileReplace(Rule rule) {
+        RuleCondition condition = rule.getCondition();
+        @SuppressWarnings("unchecked")
+        String replaceWith = (String) ((Map<String, Object>) rule.getAction()).get("replaceWith");
+        if (replaceWith == null || !"REGEX".equalsIgnoreCase(condition.getOperator())) {
+            return bindEngine("applyReplaceRule", rule);
+        }
+        MethodHandle replace = MethodHandles.insertArguments(REGEX_REPLACE, 0,
+            engine.regexGuard(), compilePattern(condition), replaceWith);
+        return MethodHandles.guardWithTest(compileCondition(condition), replace, IDENTITY);
+    }
+
+    private MethodHandle compileCondition(RuleCondition condition) {
+        Object value = condition.getValue();
+        boolean caseSensitive = condition.isCaseSensitive();
+
+        switch (condition.getOperator().toUpperCase()) {
+            case "NOT_NULL":
+                return NOT_BLANK;
+            case "EQUALS":
+                return caseSensitive
+                    ? MethodHandles.insertArguments(virtual("equals", boolean.class, Object.class), 0, String.valueOf(value))
+                        .asType(PREDICATE)
+                    : MethodHandles.insertArguments(virtual("equalsIgnoreCase", boolean.class, String.class), 0,
+                        String.valueOf(value));
+            case "CONTAINS":
+                return textMatch(virtual("contains", boolean.class, CharSequence.class), value, caseSensitive);
+            case "STARTS_WITH":
+                return textMatch(virtual("startsWith", boolean.class, String.class), value, caseSensitive);
+            case "ENDS_WITH":
+                return textMatch(virtual("endsWith", boolean.class, String.class), value, caseSensitive);
+            case "REGEX":
+                return MethodHandles.insertArguments(REGEX_FIND, 0, engine.regexGuard(), compilePattern(condition));
+            case "IN_LIST":
+                return MethodHandles.insertArguments(
+                    virtualOn(EnhancedRuleEngine.class, "inList", boolean.class, RuleCondition.class, String.class),
+                    0, engine, condition);
+            case "BETWEEN":
+                return MethodHandles.insertArguments(BETWEEN, 0, (int) condition.getMin(), (int) condition.getMax());
+            case ">":
+                return MethodHandles.insertArguments(GREATER_THAN, 0, Integer.parseInt(String.valueOf(value)));
+            case ">=":
+                return MethodHandles.insertArguments(AT_LEAST, 0, Integer.parseInt(String.valueOf(value)));
+            case "<":
+                return MethodHandles.insertArguments(LESS_THAN, 0, Integer.parseInt(String.valueOf(value)));
+            case "<=":
+                return MethodHandles.insertArguments(AT_MOST, 0, Integer.parseInt(String.valueOf(value)));
+            default:
+                return MethodHandles.insertArguments(
+                    virtualOn(RuleCondition.class, "evaluate", boolean.class, String.class), 0, condition);
+        }
+    }
+
+    private MethodHandle compileAction(Rule rule) {
+        Object action = rule.getAction();
+
+        switch (rule.getType().toUpperCase()) {
+            case "CATEGORIZE":
+                return MethodHandles.dropArguments(MethodHandles.constant(String.class, action.toString()), 0, String.class);
+            case "TRANSFORM":
+                switch (action.toString().toUpperCase()) {
+                    case "UPPERCASE":
+                        return TO_UPPER_CASE;
+                    case "LOWERCASE":
+                        return virtual("toLowerCase", String.class);
+                    case "TRIM":
+                        return virtual("trim", String.class);
+                    case "TITLECASE":
+                        return bindEngine("toTitleCase");
+                    default:
+                        return bindEngine("applyRule", rule);
+                }
+            case "MASK":
+                @SuppressWarnings("unchecked")
+                Map<String, Object> mask = (Map<String, Object>) action;
+                if ("FULL".equalsIgnoreCase((String) mask.get("maskType")) && mask.get("length") instanceof Integer length) {
+                    String masked = ((String) mask.getOrDefault("maskChar", "*")).repeat(length);
+                    return MethodHandles.dropArguments(MethodHandles.constant(String.class, masked), 0, String.class);
+                }
+                return bindEngine("applyMaskRule", rule);
+            case "FORMAT":
+                return bindEngine("applyFormatRule", rule);
+            case "ENRICH":
+                return bindEngine("applyEnrichRule", rule);
+            default:
+                return bindEngine("applyRule", rule);
+        }
+    }
+
+    private MethodHandle textMatch(MethodHandle test, Object value, boolean caseSensitive) {
+        if (caseSensitive) {
+            return MethodHandles.insertArguments(test, 1, String.valueOf(value));
+        }
+        MethodHandle upperTest = MethodHandles.insertArguments(test, 1, String.valueOf(value).toUpperCase());
+        return MethodHandles.filterArguments(upperTest, 0, TO_UPPER_CASE);
+    }
+
+    private Pattern compilePattern(RuleCondition condition) {
+        return engine.regexGuard().pattern(String.valueOf(condition.getValue()), condition.isCaseSensitive());
+    }
+
+    private MethodHandle bindEngine(String method, Rule rule) {
+        try {
+            MethodHandle handle = LOOKUP.findVirtual(EnhancedRuleEngine.class, method, RULE_ACTION);
+            return MethodHandles.insertArguments(handle, 0, engine, rule);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing rule engine method " + method, e);
+        }
+    }
+
+    private MethodHandle bindEngine(String method) {
+        try {
+            return LOOKUP.findVirtual(EnhancedRuleEngine.class, method, UNARY).bindTo(engine);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing rule engine method " + method, e);
+        }
+    }
+
+    private static MethodHandle virtual(String method, Class<?> returnType, Class<?>... parameterTypes) {
+        return virtualOn(String.class, method, returnType, parameterTypes);
+    }
+
+    private static MethodHandle virtualOn(Class<?> owner, String method, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            return LOOKUP.findVirtual(owner, method, MethodType.methodType(returnType, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing method " + owner.getSimpleName() + "." + method, e);
+        }
+    }
+
+    private static String onRuleError(EnhancedRuleEngine engine, Rule rule, String fieldName, Exception e,
+                                      String value) {
+        engine.handleRuleFailure(rule, fieldName, e);
+        return value;
+    }
+
+    private static boolean onConditionError(EnhancedRuleEngine engine, Rule rule, String fieldName, Exception e,
+                                            String value) {
+        engine.handleRuleFailure(rule, fieldName, e);
+        return false;
+    }
+
+    private static boolean maskStops(String newValue, String oldValue) {
+        return newValue != null && !newValue.equals(oldValue);
+    }
+
+    private static boolean validationStops(String newValue, String oldValue) {
+        return newValue == null || !newValue.equals(oldValue);
+    }
+
+    private static boolean notBlank(String input) {
+        return !input.trim().isEmpty();
+    }
+
+    private static boolean between(int min, int max, String input) {
+        try {
+            int numValue = Integer.parseInt(input);
+            return numValue >= min && numValue <= max;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean greaterThan(int bound, String input) {
+        try {
+            return Integer.parseInt(input) > bound;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean atLeast(int bound, String input) {
+        try {
+            return Integer.parseInt(input) >= bound;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean lessThan(int bound, String input) {
+        try {
+            return Integer.parseInt(input) < bound;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean atMost(int bound, String input) {
+        try {
+            return Integer.parseInt(input) <= bound;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.RuleAnalysisReport.FindingType;
+import com.accenture.poc1.rule.model.Rule;
+import com.accenture.poc1.rule.model.Rule.RuleCondition;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Load-time analysis of a priority-sorted rule set. A rule is only pruned when
+ * it provably cannot change any value under the interpreter's semantics; all
+ * other suspicious patterns are reported without touching the plan.
+ */
+class RuleSetAnalyzer {
+
+    // Part of the rule snapshot key; bump when the findings or pruning for a rule set change
+    static final int VERSION = 1;
+
+    // Transforms that map blank strings to themselves and non-blank strings to non-blank ones
+    private static final Set<String> BLANK_PRESERVING_TRANSFORMS = Set.of("UPPERCASE", "LOWERCASE", "TITLECASE");
+    private static final Set<String> IDEMPOTENT_TRANSFORMS = Set.of("UPPERCASE", "LOWERCASE", "TITLECASE", "TRIM");
+
+    private final boolean prune;
+
+    RuleSetAnalyzer(boolean prune) {
+        this.prune = prune;
+    }
+
+    RuleAnalysisReport analyze(List<Rule> rules) {
+        RuleAnalysisReport report = new RuleAnalysisReport();
+        report.setRuleCount(rules.size());
+
+        checkDuplicates(rules, report);
+
+        Map<String, List<Rule>> rulesByField = new LinkedHashMap<>();
+        rules.stream()
+            .filter(Rule::isEnabled)
+            .sorted(Comparator.comparingInt(Rule::getPriority))
+            .forEach(rule -> rulesByField.computeIfAbsent(fieldKey(rule), key -> new ArrayList<>()).add(rule));
+
+        int live = 0;
+        for (List<Rule> fieldRules : rulesByField.values()) {
+            live += analyzeField(fieldRules, report).size();
+        }
+        report.setLiveRuleCount(prune ? live : (int) rules.stream().filter(Rule::isEnabled).count());
+        return report;
+    }
+
+    private List<Rule> analyzeField(List<Rule> fieldRules, RuleAnalysisReport report) {
+        List<Rule> live = new ArrayList<>();
+
+        for (Rule rule : fieldRules) {
+            Rule previous = live.isEmpty() ? null : live.get(live.size() - 1);
+
+            if (isUnsatisfiable(rule)) {
+                dead(report, rule, FindingType.UNSATISFIABLE_CONDITION, "numeric condition matches no value");
+            } else if (previous != null && isIdempotentDuplicate(previous, rule)) {
+                dead(report, rule, FindingType.DUPLICATE_RULE, "repeats " + previous.getId() + " directly after it");
+            } else if (isShadowedByCategories(live, rule)) {
+                dead(report, rule, FindingType.SHADOWED_RULE,
+                    "range is covered by earlier CATEGORIZE rules " + AdaptiveRuleOrdering.ids(live));
+            } else if (previous != null && isUnreachableAfterMask(previous, rule)) {
+                dead(report, rule, FindingType.UNREACHABLE_AFTER_MASK,
+                    "only values already masked by " + previous.getId() + " can reach it, and it matches none");
+            } else {
+                live.add(rule);
+            }
+        }
+
+        // Back to front, so a chain of overwritten transforms collapses completely
+        for (int i = live.size() - 2; i >= 0; i--) {
+            Rule next = live.get(i + 1);
+            if (isOverwrittenTransform(live.get(i), next, i + 1 == live.size() - 1)) {
+                dead(report, live.get(i), FindingType.OVERWRITTEN_TRANSFORM,
+                    "output is always replaced by " + next.getId());
+                live.remove(i);
+            }
+        }
+        return live;
+    }
+
+    private void dead(RuleAnalysisReport report, Rule rule, FindingType type, String reason) {
+        report.add(rule, type, prune, reason);
+    }
+
+    private void checkDuplicates(List<Rule> rules, RuleAnalysisReport report) {
+        Map<String, Rule> enabledById = new HashMap<>();
+        for (Rule rule : rules) {
+            if (!rule.isEnabled()) {
+                continue;
+            }
+            Rule existing = enabledById.putIfAbsent(rule.getId(), rule);
+            if (existing != null) {
+                report.add(rule, FindingType.DUPLICATE_ID, false,
+                    "id is used by more than one enabled rule; metrics are merged");
+            }
+        }
+
+        for (Rule rule : rules) {
+            if (rule.isEnabled()) {
+                continue;
+            }
+            rules.stream()
+                .filter(Rule::isEnabled)
+                .filter(enabled -> Objects.equals(enabled.getId(), rule.getId()) || sameDefinition(enabled, rule))
+                .findFirst()
+                .ifPresent(enabled -> report.add(rule, FindingType.DISABLED_DUPLICATE, false,
+                    "disabled copy of enabled rule " + enabled.getId()));
+        }
+    }
+
+    private boolean isUnsatisfiable(Rule rule) {
+        // A VALIDATE rule with an impossible condition still fires (always invalid)
+        return !"VALIDATE".equals(rule.getType())
+            && NumericRange.of(rule.getCondition()).map(NumericRange::isEmpty).orElse(false);
+    }
+
+    private boolean isIdempotentDuplicate(Rule previous, Rule rule) {
+        if (!sameDefinition(previous, rule) || rule.getType() == null || rule.getAction() == null) {
+            return false;
+        }
+        switch (rule.getType().toUpperCase()) {
+            case "CATEGORIZE":
+                return true;
+            case "TRANSFORM":
+                return IDEMPOTENT_TRANSFORMS.contains(rule.getAction().toString().toUpperCase());
+            case "MASK":
+                return "MASK".equals(rule.getType()) && !"RANDOM".equalsIgnoreCase(String.valueOf(action(rule).get("maskType")));
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Every earlier rule is a numeric CATEGORIZE, their ranges cover this rule's
+     * range, and none of their labels falls into it: raw values in the range are
+     * categorized first, and labels never match afterwards.
+     */
+    private boolean isShadowedByCategories(List<Rule> earlier, Rule rule) {
+        if (earlier.isEmpty() || "VALIDATE".equals(rule.getType())) {
+            return false;
+        }
+        Optional<NumericRange> range = NumericRange.of(rule.getCondition());
+        if (range.isEmpty()) {
+            return false;
+        }
+
+        List<NumericRange> covering = new ArrayList<>();
+        for (Rule candidate : earlier) {
+            Optional<NumericRange> candidateRange = NumericRange.of(candidate.getCondition());
+            if (!"CATEGORIZE".equalsIgnoreCase(candidate.getType()) || candidate.getAction() == null
+                || candidateRange.isEmpty() || range.get().matches(candidate.getAction().toString())) {
+                return false;
+            }
+            covering.add(candidateRange.get());
+        }
+        return covers(covering, range.get());
+    }
+
+    private boolean covers(List<NumericRange> ranges, NumericRange target) {
+        List<NumericRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingLong(NumericRange::getMin));
+
+        long next = target.getMin();
+        for (NumericRange range : sorted) {
+            if (range.isEmpty() || range.getMax() < next) {
+                continue;
+            }
+            if (range.getMin() > next) {
+                return false;
+            }
+            next = range.getMax() + 1;
+            if (next > target.getMax()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * After a FULL mask with a constant output C whose condition is NOT_NULL, only
+     * blank values and C itself continue. A following rule that matches neither
+     * can never fire.
+     */
+    private boolean isUnreachableAfterMask(Rule mask, Rule rule) {
+        String masked = constantMaskOutput(mask);
+        if (masked == null || !isNotNull(mask.getCondition()) || "VALIDATE".equals(rule.getType())) {
+            return false;
+        }
+        return neverMatchesBlank(rule.getCondition()) && !matchesSafely(rule.getCondition(), masked);
+    }
+
+    /**
+     * An upper/lower/title-case transform directly followed by a NOT_NULL rule with
+     * a constant output: non-blank values end up as that constant either way, and
+     * blank values are left unchanged by the transform.
+     */
+    private boolean isOverwrittenTransform(Rule transform, Rule next, boolean nextIsLast) {
+        if (!"TRANSFORM".equalsIgnoreCase(transform.getType()) || transform.getAction() == null
+            || !BLANK_PRESERVING_TRANSFORMS.contains(transform.getAction().toString().toUpperCase())
+            || !isNotNull(next.getCondition())) {
+            return false;
+        }
+        if ("CATEGORIZE".equalsIgnoreCase(next.getType())) {
+            return next.getAction() != null;
+        }
+        // A MASK stops processing, which only matters when more rules follow it
+        return nextIsLast && constantMaskOutput(next) != null;
+    }
+
+    private String constantMaskOutput(Rule rule) {
+        if (!"MASK".equals(rule.getType()) || !(rule.getAction() instanceof Map)) {
+            return null;
+        }
+        Map<String, Object> action = action(rule);
+        Object maskChar = action.getOrDefault("maskChar", "*");
+        if ("FULL".equalsIgnoreCase(String.valueOf(action.get("maskType")))
+            && action.get("length") instanceof Integer length && length >= 0 && maskChar instanceof String) {
+            return ((String) maskChar).repeat(length);
+        }
+        return null;
+    }
+
+    private boolean neverMatchesBlank(RuleCondition condition) {
+        if (condition == null || condition.getOperator() == null) {
+            return false;
+        }
+        switch (condition.getOperator().toUpperCase()) {
+            case "NOT_NULL":
+            case "BETWEEN":
+            case ">":
+            case ">=":
+            case "<":
+            case "<=":
+                return true;
+            case "EQUALS":
+            case "CONTAINS":
+            case "STARTS_WITH":
+            case "ENDS_WITH":
+                return !String.valueOf(condition.getValue()).trim().isEmpty();
+            default:
+                return false;
+        }
+    }
+
+    private boolean matchesSafely(RuleCondition condition, String value) {
+        try {
+            return condition.evaluate(value);
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    private boolean isNotNull(RuleCondition condition) {
+        return condition != null && "NOT_NULL".equalsIgnoreCase(condition.getOperator());
+    }
+
+    private boolean sameDefinition(Rule a, Rule b) {
+        return Objects.equals(fieldKey(a), fieldKey(b))
+            && Objects.equals(a.getType(), b.getType())
+            && Objects.equals(a.getCondition(), b.getCondition())
+            && Objects.equals(a.getAction(), b.getAction());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> action(Rule rule) {
+        return rule.getAction() instanceof Map ? (Map<String, Object>) rule.getAction() : Map.of();
+    }
+
+    private static String fieldKey(Rule rule) {
+        return rule.getFieldName() == null ? null : rule.getFieldName().toLowerCase();
+    }
+}
@@ -0,0 +1,306 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.RuleAnalysisReport.Finding;
+import com.accenture.poc1.rule.RuleAnalysisReport.FindingType;
+import com.accenture.poc1.rule.model.Rule;
+import com.accenture.poc1.rule.model.Rule.RuleCondition;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Binary snapshot of a loaded rule set: the priority-sorted rules together with
+ * their analysis report, so a short-lived JVM can skip JSON parsing and the
+ * load-time analysis. The snapshot is keyed by a SHA-256 of the rule JSON, the
+ * analysis settings and the engine version, so an upgraded engine re-analyzes
+ * the rules instead of reusing a report of the old analyzer. It is read
+ * through a memory-mapped buffer.
+ */
+@Slf4j
+class RuleSnapshot {
+
+    private static final int MAGIC = 0x52534E50; // "RSNP"
+    private static final int VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte MAP = 6;
+    private static final byte LIST = 7;
+
+    // The jar version is only known when running from the packaged jar
+    static final String ENGINE_VERSION = "analyzer-" + RuleSetAnalyzer.VERSION + "/"
+        + Optional.ofNullable(RuleSnapshot.class.getPackage().getImplementationVersion()).orElse("dev");
+
+    private RuleSnapshot() {
+    }
+
+    @Value
+    static class Contents {
+        List<Rule> rules;
+        RuleAnalysisReport report;
+    }
+
+    static byte[] key(byte[] ruleJson, boolean prune) {
+        return key(ruleJson, prune, ENGINE_VERSION);
+    }
+
+    static byte[] key(byte[] ruleJson, boolean prune, String engineVersion) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((byte) VERSION);
+            digest.update((byte) (prune ? 1 : 0));
+            byte[] version = engineVersion.getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(4).putInt(version.length).array());
+            digest.update(version);
+            return digest.digest(ruleJson);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Empty when the file is missing, was written for other rules or settings,
+     * or cannot be decoded; the caller then falls back to the JSON.
+     */
+    static Optional<Contents> read(Path path, byte[] key) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.info("Ignoring rule snapshot {}: unknown format", path);
+                return Optional.empty();
+            }
+            byte[] storedKey = new byte[key.length];
+            buffer.get(storedKey);
+            if (!MessageDigest.isEqual(storedKey, key)) {
+                log.info("Ignoring rule snapshot {}: rules or settings changed", path);
+                return Optional.empty();
+            }
+            return Optional.of(readContents(buffer));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable rule snapshot {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    static void write(Path path, byte[] key, List<Rule> rules, RuleAnalysisReport report) {
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.write(key);
+                writeContents(out, rules, report);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            // Readers never see a half-written snapshot
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote rule snapshot {} ({} rules)", path, rules.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write rule snapshot {}: {}", path, e.toString());
+        }
+    }
+
+    private static void writeContents(DataOutputStream out, List<Rule> rules, RuleAnalysisReport report)
+            throws IOException {
+        out.writeInt(report.getRuleCount());
+        out.writeInt(report.getLiveRuleCount());
+
+        out.writeInt(rules.size());
+        for (Rule rule : rules) {
+            writeString(out, rule.getId());
+            writeString(out, rule.getFieldName());
+            writeString(out, rule.getType());
+            out.writeInt(rule.getPriority());
+            out.writeBoolean(rule.isEnabled());
+            writeString(out, rule.getDescription());
+            writeCondition(out, rule.getCondition());
+            writeValue(out, rule.getAction());
+            out.writeBoolean(report.isPruned(rule));
+        }
+
+        out.writeInt(report.getFindings().size());
+        for (Finding finding : report.getFindings()) {
+            writeString(out, finding.getRuleId());
+            writeString(out, finding.getFieldName());
+            writeString(out, finding.getType().name());
+            out.writeBoolean(finding.isPruned());
+            writeString(out, finding.getReason());
+        }
+    }
+
+    private static Contents readContents(ByteBuffer in) {
+        RuleAnalysisReport report = new RuleAnalysisReport();
+        report.setRuleCount(in.getInt());
+        report.setLiveRuleCount(in.getInt());
+
+        int ruleCount = in.getInt();
+        List<Rule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            Rule rule = Rule.builder()
+                .id(readString(in))
+                .fieldName(readString(in))
+                .type(readString(in))
+                .priority(in.getInt())
+                .enabled(in.get() != 0)
+                .description(readString(in))
+                .condition(readCondition(in))
+                .action(readValue(in))
+                .build();
+            if (in.get() != 0) {
+                report.getPrunedRules().add(rule);
+            }
+            rules.add(rule);
+        }
+
+        int findingCount = in.getInt();
+        for (int i = 0; i < findingCount; i++) {
+            report.getFindings().add(new Finding(readString(in), readString(in),
+                FindingType.valueOf(readString(in)), in.get() != 0, readString(in)));
+        }
+        return new Contents(rules, report);
+    }
+
+    private static void writeCondition(DataOutputStream out, RuleCondition condition) throws IOException {
+        out.writeBoolean(condition != null);
+        if (condition == null) {
+            return;
+        }
+        writeString(out, condition.getOperator());
+        writeValue(out, condition.getValue());
+        writeValue(out, condition.getMin());
+        writeValue(out, condition.getMax());
+        out.writeBoolean(condition.isCaseSensitive());
+    }
+
+    private static RuleCondition readCondition(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        return RuleCondition.builder()
+            .operator(readString(in))
+            .value(readValue(in))
+            .min((Integer) readValue(in))
+            .max((Integer) readValue(in))
+            .caseSensitive(in.get() != 0)
+            .build();
+    }
+
+    // The JSON value types Jackson produces for rule conditions and actions
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            writeString(out, string);
+        } else if (value instanceof Integer number) {
+            out.writeByte(INTEGER);
+            out.writeInt(number);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof Double number) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(number);
+        } else if (value instanceof Boolean flag) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(flag);
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(out, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported rule value type " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INTEGER:
+                return in.getInt();
+            case LONG:
+                return in.getLong();
+            case DOUBLE:
+                return in.getDouble();
+            case BOOLEAN:
+                return in.get() != 0;
+            case MAP:
+                int entries = in.getInt();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < entries; i++) {
+                    map.put(readString(in), readValue(in));
+                }
+                return map;
+            case LIST:
+                int size = in.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            default:
+                throw new IllegalStateException("Unknown value tag " + tag);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
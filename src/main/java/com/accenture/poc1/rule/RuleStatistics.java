@@ -0,0 +1,38 @@
+package com.accenture.poc1.rule;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-rule runtime counters. Executions are rule applications (the existing
+ * metrics); evaluations, matches and evaluation time form the cost/selectivity
+ * profile used by {@link AdaptiveRuleOrdering}.
+ */
+class RuleStatistics {
+
+    final LongAdder executions = new LongAdder();
+    final LongAdder executionNanos = new LongAdder();
+    final LongAdder evaluations = new LongAdder();
+    final LongAdder matches = new LongAdder();
+    final LongAdder evaluationNanos = new LongAdder();
+    final LongAdder regexTimeouts = new LongAdder();
+    final LongAdder rejections = new LongAdder();
+
+    void recordEvaluation(long nanos, boolean matched) {
+        evaluations.increment();
+        evaluationNanos.add(nanos);
+        if (matched) {
+            matches.increment();
+        }
+    }
+
+    /**
+     * Expected cost of reaching a match with this rule: average evaluation time
+     * divided by its (Laplace-smoothed) hit rate. Lower runs first.
+     */
+    double orderingScore(double fallbackNanos) {
+        long evaluated = evaluations.sum();
+        double averageNanos = evaluated > 0 ? (double) evaluationNanos.sum() / evaluated : fallbackNanos;
+        double selectivity = (matches.sum() + 1.0) / (evaluated + 2.0);
+        return averageNanos / selectivity;
+    }
+}
@@ -0,0 +1,214 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.model.Rule;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluates a candidate rule set next to the active one. Every field outcome
+ * of the active engine is handed to a background thread, which evaluates the
+ * candidate on the same input and writes the fields whose outcome differs to
+ * the diff report. A divergence is counted for each rule that was added,
+ * removed or changed on that field in the candidate; when the queue is full
+ * the calling thread does the comparison itself.
+ */
+@Slf4j
+class ShadowEvaluation {
+
+    static final String CSV_HEADER = "recordId,field,active,candidate,rules";
+
+    // Divergences on fields whose rules are identical, e.g. through a changed lookup table
+    private static final String UNATTRIBUTED = "*";
+
+    private final EnhancedRuleEngine candidate;
+    private final RuleEngineProperties.Shadow settings;
+    private final ThreadPoolExecutor executor;
+    private final BufferedWriter report;
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder divergences = new LongAdder();
+    private final Map<String, LongAdder> divergencesByRule = new ConcurrentHashMap<>();
+    private volatile Map<String, List<String>> changedRulesByField = Map.of();
+
+    ShadowEvaluation(RuleEngineProperties active) throws IOException {
+        this.settings = active.getShadow();
+        this.candidate = new EnhancedRuleEngine(candidateProperties(active), true);
+        Path reportPath = Path.of(settings.getReportPath());
+        if (reportPath.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        }
+        this.report = Files.newBufferedWriter(reportPath, StandardCharsets.UTF_8);
+        report.write(CSV_HEADER);
+        report.newLine();
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, settings.getCapacity())), runnable -> {
+                Thread thread = new Thread(runnable, "rule-shadow");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+        log.info("Shadow evaluation of {} ({} rules), differences to {}", settings.getCandidateLocation(),
+            candidate.getAnalysisReport().getRuleCount(), reportPath);
+    }
+
+    /**
+     * Compares the candidate against the active rules on their current
+     * enabled, unpruned rules per field.
+     */
+    void rebuild(Map<String, List<Rule>> activeRulesByField) {
+        Map<String, List<String>> changed = new HashMap<>();
+        Set<String> fields = new HashSet<>(activeRulesByField.keySet());
+        for (String field : candidate.getRuleOrder().keySet()) {
+            fields.add(field);
+        }
+        for (String field : fields) {
+            Map<String, Rule> activeRules = byId(activeRulesByField.getOrDefault(field, List.of()));
+            Map<String, Rule> candidateRules = byId(candidate.getRulesForField(field));
+            Set<String> ids = new HashSet<>(activeRules.keySet());
+            ids.addAll(candidateRules.keySet());
+            List<String> differing = new ArrayList<>();
+            for (String id : ids) {
+                if (!Objects.equals(activeRules.get(id), candidateRules.get(id))) {
+                    differing.add(id);
+                }
+            }
+            if (!differing.isEmpty()) {
+                differing.sort(null);
+                changed.put(field, List.copyOf(differing));
+            }
+        }
+        changedRulesByField = changed;
+    }
+
+    void reload(Map<String, List<Rule>> activeRulesByField) {
+        candidate.reloadRules();
+        rebuild(activeRulesByField);
+    }
+
+    /**
+     * Queues the comparison of one field; {@code rejection} is set when the
+     * active rules rejected the record.
+     */
+    void compare(String fieldName, String input, long recordId, String activeResult,
+                 RecordRejectedException rejection) {
+        String activeOutcome = rejection != null ? rejected(rejection) : quoted(activeResult);
+        executor.execute(() -> compareNow(fieldName, input, recordId, activeOutcome));
+    }
+
+    Map<String, Long> getDivergencesByRule() {
+        Map<String, Long> counts = new TreeMap<>();
+        divergencesByRule.forEach((rule, count) -> counts.put(rule, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Finishes the queued comparisons, then writes the summary next to the
+     * diff report.
+     */
+    void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            report.close();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("candidate", settings.getCandidateLocation());
+            summary.put("candidateRuleSetHash", candidate.getRuleSetHash());
+            summary.put("comparisons", comparisons.sum());
+            summary.put("divergences", divergences.sum());
+            summary.put("divergencesByRule", getDivergencesByRule());
+            Path summaryPath = Path.of(settings.getSummaryPath());
+            if (summaryPath.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(summaryPath.toAbsolutePath().getParent());
+            }
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(summaryPath.toFile(), summary);
+        } catch (IOException e) {
+            log.error("Failed to write shadow evaluation summary to {}", settings.getSummaryPath(), e);
+        }
+        candidate.close();
+        log.info("Shadow evaluation: {} comparisons, {} divergences {}", comparisons.sum(), divergences.sum(),
+            getDivergencesByRule());
+    }
+
+    private void compareNow(String fieldName, String input, long recordId, String activeOutcome) {
+        String candidateOutcome;
+        try {
+            candidateOutcome = quoted(candidate.applyRules(fieldName, input, recordId));
+        } catch (RecordRejectedException e) {
+            candidateOutcome = rejected(e);
+        } catch (RuntimeException e) {
+            candidateOutcome = "ERROR(" + e.getClass().getSimpleName() + ")";
+        }
+        comparisons.increment();
+        if (activeOutcome.equals(candidateOutcome)) {
+            return;
+        }
+
+        divergences.increment();
+        List<String> rules = changedRulesByField.getOrDefault(fieldName.toLowerCase(), List.of(UNATTRIBUTED));
+        for (String rule : rules) {
+            divergencesByRule.computeIfAbsent(rule, id -> new LongAdder()).increment();
+            Metrics.counter("rule.engine.shadow.divergences", "rule", rule).increment();
+        }
+        String line = recordId + "," + fieldName + "," + activeOutcome + "," + candidateOutcome + ","
+            + String.join(" ", rules) + System.lineSeparator();
+        try {
+            report.write(line);
+        } catch (IOException e) {
+            log.error("Failed to write shadow difference for record {}: {}", recordId, e.getMessage());
+        }
+    }
+
+    private static RuleEngineProperties candidateProperties(RuleEngineProperties active) {
+        // Same evaluation settings; no snapshot, analysis report, audit, re-ordering or pool of its own
+        RuleEngineProperties candidate = new RuleEngineProperties();
+        candidate.setRulesLocation(active.getShadow().getCandidateLocation());
+        candidate.setBackend(active.getBackend());
+        candidate.setRegex(active.getRegex());
+        candidate.setLookup(active.getLookup());
+        candidate.getAnalysis().setPrune(active.getAnalysis().isPrune());
+        return candidate;
+    }
+
+    private static Map<String, Rule> byId(List<Rule> rules) {
+        Map<String, Rule> byId = new HashMap<>();
+        for (Rule rule : rules) {
+            byId.put(rule.getId(), rule);
+        }
+        return byId;
+    }
+
+    private static String rejected(RecordRejectedException e) {
+        return "REJECT(" + e.getRuleId() + ")";
+    }
+
+    // Values are always quoted so they cannot be mistaken for REJECT(...) or ERROR(...)
+    private static String quoted(String value) {
+        if (value == null) {
+            return "";
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -48,15 +48,16 @@ public class Rule {
                 case "CONTAINS":
                     return caseSensitive ? 
                         input.contains(String.valueOf(value)) : 
-                        input.toUpperCase().contains(String.valueOf(value).toUpperCase());
+                        containsIgnoreCase(input, String.valueOf(value));
                 case "STARTS_WITH":
                     return caseSensitive ?
                         input.startsWith(String.valueOf(value)) :
-                        input.toUpperCase().startsWith(String.valueOf(value).toUpperCase());
+                        regionMatchesIgnoreCase(input, 0, String.valueOf(value));
                 case "ENDS_WITH":
+                    String suffix = String.valueOf(value);
                     return caseSensitive ?
-                        input.endsWith(String.valueOf(value)) :
-                        input.toUpperCase().endsWith(String.valueOf(value).toUpperCase());
+                        input.endsWith(suffix) :
+                        regionMatchesIgnoreCase(input, input.length() - suffix.length(), suffix);
                 case "REGEX":
                     // Use find() to search for pattern anywhere in the string
                     java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(
@@ -73,25 +74,25 @@ public class Rule {
                     }
                 case ">":
                     try {
-                        return Integer.parseInt(input) > Integer.parseInt(String.valueOf(value));
+                        return Integer.parseInt(input) > intValue();
                     } catch (NumberFormatException e) {
                         return false;
                     }
                 case ">=":
                     try {
-                        return Integer.parseInt(input) >= Integer.parseInt(String.valueOf(value));
+                        return Integer.parseInt(input) >= intValue();
                     } catch (NumberFormatException e) {
                         return false;
                     }
                 case "<":
                     try {
-                        return Integer.parseInt(input) < Integer.parseInt(String.valueOf(value));
+                        return Integer.parseInt(input) < intValue();
                     } catch (NumberFormatException e) {
                         return false;
                     }
                 case "<=":
                     try {
-                        return Integer.parseInt(input) <= Integer.parseInt(String.valueOf(value));
+                        return Integer.parseInt(input) <= intValue();
                     } catch (NumberFormatException e) {
                         return false;
                     }
@@ -99,5 +100,24 @@ public class Rule {
                     return false;
             }
         }
+        
+        // JSON numbers arrive as Integer; converting them per call would allocate a String
+        private int intValue() {
+            return value instanceof Number number ? number.intValue() : Integer.parseInt(String.valueOf(value));
+        }
+        
+        // Case-insensitive matching without upper-casing copies of the input
+        private static boolean containsIgnoreCase(String input, String search) {
+            for (int offset = 0; offset <= input.length() - search.length(); offset++) {
+                if (input.regionMatches(true, offset, search, 0, search.length())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private static boolean regionMatchesIgnoreCase(String input, int offset, String search) {
+            return offset >= 0 && input.regionMatches(true, offset, search, 0, search.length());
+        }
     }
 }
\ No newline at end of file
@@ -1,46 +1,190 @@
 package com.accenture.poc1.runner;
 
+import com.accenture.poc1.config.BatchConfig;
+import com.accenture.poc1.partition.ClientIdRangePartitioner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.JobFactory;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Launches the jobs named on the command line. Each {@code --job=<name>[,key=value...]}
+ * is one launch; the key/value pairs become job parameters, e.g.
+ * {@code --job=clientToCsv,output=tenant-a.csv --job=clientToCsv,output=tenant-b.csv}.
+ * The plain {@code clientToCsv} argument still works.
+ * <p>
+ * Launches run concurrently on an async launcher, limited by
+ * {@link JobRunnerProperties}. Jobs with a {@link JobFactory} get a fresh
+ * instance per launch; other jobs are used as the singleton bean. When all
+ * launches are done a consolidated throughput report is logged.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JobRunner implements CommandLineRunner {
 
-    private final JobLauncher jobLauncher;
-    
-    @Qualifier("clientToCsvJob")
-    private final Job clientToCsvJob;
+    private static final String JOB_ARGUMENT = "--job=";
+    private static final String LEGACY_JOB = "clientToCsv";
+
+    private final JobRepository jobRepository;
+    private final JobExplorer jobExplorer;
+    private final Map<String, Job> jobs;
+    private final List<JobFactory> jobFactories;
+    private final JobRunnerProperties properties;
+
+    record JobRequest(String jobName, Map<String, String> parameters) {
+
+        String label() {
+            return parameters.isEmpty() ? jobName : jobName + " " + parameters;
+        }
+    }
+
+    record Launch(JobRequest request, JobExecution execution) {
+    }
 
     @Override
     public void run(String... args) throws Exception {
-        // Check if we should run the job based on command line arguments
-        boolean runClientToCsvJob = false;
+        List<JobRequest> requests = parse(args);
+        if (!requests.isEmpty()) {
+            runJobs(requests);
+        }
+    }
+
+    static List<JobRequest> parse(String... args) {
+        List<JobRequest> requests = new ArrayList<>();
+        boolean legacy = false;
         for (String arg : args) {
-            if (arg.contains("clientToCsv") || arg.contains("--job=clientToCsv")) {
-                runClientToCsvJob = true;
-                break;
+            if (arg.startsWith(JOB_ARGUMENT)) {
+                String[] parts = arg.substring(JOB_ARGUMENT.length()).split(",");
+                Map<String, String> parameters = new LinkedHashMap<>();
+                for (int i = 1; i < parts.length; i++) {
+                    int equals = parts[i].indexOf('=');
+                    if (equals <= 0) {
+                        throw new IllegalArgumentException("Expected key=value in " + arg);
+                    }
+                    parameters.put(parts[i].substring(0, equals).trim(), parts[i].substring(equals + 1).trim());
+                }
+                requests.add(new JobRequest(parts[0].trim(), parameters));
+            } else if (arg.contains(LEGACY_JOB)) {
+                legacy = true;
             }
         }
+        if (requests.isEmpty() && legacy) {
+            requests.add(new JobRequest(LEGACY_JOB, Map.of()));
+        }
+        return requests;
+    }
 
-        if (runClientToCsvJob) {
-            log.info("Starting clientToCsvJob...");
-            JobParameters jobParameters = new JobParametersBuilder()
-                    .addLong("timestamp", System.currentTimeMillis())
-                    .toJobParameters();
+    List<Launch> runJobs(List<JobRequest> requests) throws Exception {
+        int concurrency = properties.concurrency(requests.size());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("job-runner-");
+        executor.initialize();
+        TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+        launcher.setJobRepository(jobRepository);
+        launcher.setTaskExecutor(executor);
+        launcher.afterPropertiesSet();
+        log.info("Launching {} jobs, {} at a time with {} threads each", requests.size(), concurrency,
+            properties.getThreadsPerJob());
 
-            JobExecution jobExecution = jobLauncher.run(clientToCsvJob, jobParameters);
-            log.info("Job Status: {}", jobExecution.getStatus());
-            log.info("Job Exit Status: {}", jobExecution.getExitStatus().getExitCode());
+        long start = System.nanoTime();
+        List<Launch> launches = new ArrayList<>();
+        try {
+            for (int i = 0; i < requests.size(); i++) {
+                JobRequest request = requests.get(i);
+                try {
+                    launches.add(new Launch(request, launcher.run(resolve(request.jobName()), parameters(request, i))));
+                } catch (Exception e) {
+                    log.error("Could not launch {}: {}", request.label(), e.getMessage());
+                }
+            }
+        } finally {
+            executor.getThreadPoolExecutor().shutdown();
+            executor.getThreadPoolExecutor().awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
         }
+
+        List<Launch> finished = new ArrayList<>();
+        for (Launch launch : launches) {
+            // Reload so partitions run by workers are included
+            JobExecution stored = jobExplorer.getJobExecution(launch.execution().getId());
+            finished.add(new Launch(launch.request(), stored != null ? stored : launch.execution()));
+        }
+        log.info("Job runner report:{}", report(finished, System.nanoTime() - start));
+        return finished;
+    }
+
+    private Job resolve(String name) {
+        for (JobFactory factory : jobFactories) {
+            if (factory.getJobName().equals(name) || factory.getJobName().equals(name + "Job")) {
+                return factory.createJob();
+            }
+        }
+        Job job = jobs.getOrDefault(name, jobs.get(name + "Job"));
+        if (job == null) {
+            throw new IllegalArgumentException("No job named " + name + ", known jobs: " + jobs.keySet());
+        }
+        return job;
+    }
+
+    private JobParameters parameters(JobRequest request, int index) {
+        JobParametersBuilder builder = new JobParametersBuilder()
+            .addLong("timestamp", System.currentTimeMillis())
+            .addLong("launch", (long) index)
+            .addLong(BatchConfig.THREADS_PARAMETER, (long) properties.getThreadsPerJob(), false);
+        request.parameters().forEach(builder::addString);
+        return builder.toJobParameters();
+    }
+
+    static String report(List<Launch> launches, long wallNanos) {
+        StringBuilder table = new StringBuilder(String.format("%n%-50s %-10s %9s %9s %9s %10s%n",
+            "Job", "Status", "Read", "Written", "Seconds", "Items/s"));
+        long totalRead = 0;
+        long totalWritten = 0;
+        for (Launch launch : launches) {
+            JobExecution execution = launch.execution();
+            long read = 0;
+            long written = 0;
+            for (StepExecution step : execution.getStepExecutions()) {
+                // A partitioned manager step already aggregates its partitions
+                if (!step.getExecutionContext().containsKey(ClientIdRangePartitioner.PARTITION_KEY)) {
+                    read += step.getReadCount();
+                    written += step.getWriteCount();
+                }
+            }
+            Duration elapsed = execution.getStartTime() != null && execution.getEndTime() != null
+                ? Duration.between(execution.getStartTime(), execution.getEndTime()) : Duration.ZERO;
+            table.append(String.format("%-50s %-10s %9d %9d %9.1f %10d%n",
+                launch.request().label(), execution.getStatus(), read, written, elapsed.toMillis() / 1000.0,
+                itemsPerSecond(read, elapsed.toNanos())));
+            totalRead += read;
+            totalWritten += written;
+        }
+        table.append(String.format("%-50s %-10s %9d %9d %9.1f %10d%n",
+            "Total (" + launches.size() + " jobs, wall clock)", "", totalRead, totalWritten,
+            wallNanos / 1_000_000_000.0, itemsPerSecond(totalRead, wallNanos)));
+        return table.toString();
+    }
+
+    private static long itemsPerSecond(long items, long nanos) {
+        return nanos > 0 ? items * TimeUnit.SECONDS.toNanos(1) / nanos : 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.accenture.poc1.runner;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "job-runner")
+public class JobRunnerProperties {
+
+    /**
+     * Jobs running at the same time; 0 leaves it to the thread budget alone.
+     */
+    private int maxConcurrentJobs = 0;
+
+    /**
+     * Threads one launch is expected to keep busy. Passed to the job as the
+     * {@code threads} parameter, which caps e.g. the routing flush pool.
+     */
+    private int threadsPerJob = 1;
+
+    /**
+     * Threads all running jobs may use together; 0 uses the available
+     * processors. At most {@code threadBudget / threadsPerJob} jobs run at once.
+     */
+    private int threadBudget = 0;
+
+    /**
+     * Concurrent launches for {@code requested} jobs under these limits.
+     */
+    public int concurrency(int requested) {
+        int budget = threadBudget > 0 ? threadBudget : Runtime.getRuntime().availableProcessors();
+        int byBudget = Math.max(1, budget / Math.max(1, threadsPerJob));
+        int limit = maxConcurrentJobs > 0 ? Math.min(maxConcurrentJobs, byBudget) : byBudget;
+        return Math.max(1, Math.min(limit, requested));
+    }
+}
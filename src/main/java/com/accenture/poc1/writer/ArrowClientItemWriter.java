@@ -0,0 +1,258 @@
+package com.accenture.poc1.writer;
+
+import com.accenture.poc1.model.Client;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes clients as an Arrow IPC stream: columns id, name, age and ageCategory,
+ * in record batches of {@code batchSize} rows. ageCategory is dictionary
+ * encoded; the dictionary grows as new categories appear and is re-sent
+ * before the next batch when it changed.
+ * <p>
+ * Record batches span chunk boundaries, so the file cannot be resumed from a
+ * committed chunk. A restarted step fails instead of writing a partial file.
+ * The stream is written to a temporary file next to {@code output} and only
+ * moved into place in {@link #afterStep} when the step completes; a failed or
+ * stopped step discards it and leaves any previous output untouched. The
+ * move happens before the step is saved, so a failure there fails the step.
+ */
+@Slf4j
+public class ArrowClientItemWriter implements ItemStreamWriter<Client>, StepExecutionListener {
+
+    private static final String STARTED_KEY = "arrow-export.started";
+    private static final long CATEGORY_DICTIONARY_ID = 1L;
+
+    private final Path output;
+    private final int batchSize;
+    private final StepExecution stepExecution;
+
+    private BufferAllocator allocator;
+    private VectorSchemaRoot root;
+    private IntVector id;
+    private VarCharVector name;
+    private IntVector age;
+    private IntVector ageCategory;
+    private VarCharVector categories;
+    private final Map<String, Integer> categoryIndex = new HashMap<>();
+    private ArrowStreamWriter writer;
+    private FileChannel channel;
+    private Path partial;
+    private int rows;
+    private long totalRows;
+
+    public ArrowClientItemWriter(Path output, int batchSize, StepExecution stepExecution) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.output = output;
+        this.batchSize = batchSize;
+        this.stepExecution = stepExecution;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (executionContext.containsKey(STARTED_KEY)) {
+            throw new ItemStreamException("Arrow export cannot resume " + output
+                + " from a committed chunk; start a new job instance instead");
+        }
+        allocator = new RootAllocator();
+        categories = new VarCharVector("ageCategory", allocator);
+        ArrowType.Int indexType = new ArrowType.Int(32, true);
+        DictionaryEncoding encoding = new DictionaryEncoding(CATEGORY_DICTIONARY_ID, false, indexType);
+        DictionaryProvider.MapDictionaryProvider dictionaries =
+            new DictionaryProvider.MapDictionaryProvider(new Dictionary(categories, encoding));
+
+        Schema schema = new Schema(List.of(
+            Field.nullable("id", new ArrowType.Int(32, true)),
+            Field.nullable("name", ArrowType.Utf8.INSTANCE),
+            Field.nullable("age", new ArrowType.Int(32, true)),
+            // In memory the column holds indices; the stream schema declares the Utf8 values
+            new Field("ageCategory", new FieldType(true, indexType, encoding), null)));
+        root = VectorSchemaRoot.create(schema, allocator);
+        id = (IntVector) root.getVector("id");
+        name = (VarCharVector) root.getVector("name");
+        age = (IntVector) root.getVector("age");
+        ageCategory = (IntVector) root.getVector("ageCategory");
+        root.allocateNew();
+
+        try {
+            Path parent = output.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            // Same directory as the output so the final move stays on one file system
+            partial = Files.createTempFile(parent, output.getFileName().toString(), ".partial");
+            channel = FileChannel.open(partial, StandardOpenOption.WRITE);
+            writer = new ArrowStreamWriter(root, dictionaries, channel);
+            writer.start();
+        } catch (IOException e) {
+            release();
+            throw new ItemStreamException("Could not open Arrow output " + output, e);
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends Client> chunk) throws Exception {
+        for (Client client : chunk) {
+            setInt(id, client.getId());
+            setText(name, client.getName());
+            setInt(age, client.getAge());
+            if (client.getAgeCategory() != null) {
+                ageCategory.setSafe(rows, categoryIndex(client.getAgeCategory()));
+            } else {
+                ageCategory.setNull(rows);
+            }
+            if (++rows == batchSize) {
+                writeBatch();
+            }
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.put(STARTED_KEY, true);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        // close() runs only after the step was saved, too late to fail it
+        if (writer == null || stepExecution.getStatus() != BatchStatus.COMPLETED) {
+            return null;
+        }
+        try {
+            if (rows > 0) {
+                writeBatch();
+            }
+            writer.end();
+            long bytes = writer.bytesWritten();
+            long clients = totalRows;
+            release();
+            Files.move(partial, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            partial = null;
+            log.info("Wrote {} clients to {} ({} bytes)", clients, output, bytes);
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not finish Arrow output {}", output, e);
+            stepExecution.setStatus(BatchStatus.FAILED);
+            stepExecution.addFailureException(e);
+            return ExitStatus.FAILED.addExitDescription(e);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        // close() also runs after a failure; the rows of a rolled back chunk are still buffered
+        release();
+        discardPartial();
+    }
+
+    private void discardPartial() {
+        if (partial == null) {
+            return;
+        }
+        try {
+            if (Files.deleteIfExists(partial)) {
+                log.warn("Step {} ended {}, discarded partial Arrow output for {}",
+                    stepExecution.getStepName(), stepExecution.getStatus(), output);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete {}", partial, e);
+        }
+        partial = null;
+    }
+
+    private void writeBatch() throws IOException {
+        root.setRowCount(rows);
+        categories.setValueCount(categoryIndex.size());
+        writer.writeBatch();
+        totalRows += rows;
+        rows = 0;
+        // Reuse the buffers; the dictionary keeps its values
+        root.getFieldVectors().forEach(ValueVector::reset);
+    }
+
+    private int categoryIndex(String category) {
+        return categoryIndex.computeIfAbsent(category, key -> {
+            int index = categoryIndex.size();
+            categories.setSafe(index, key.getBytes(StandardCharsets.UTF_8));
+            return index;
+        });
+    }
+
+    private void setInt(IntVector vector, Integer value) {
+        if (value != null) {
+            vector.setSafe(rows, value);
+        } else {
+            vector.setNull(rows);
+        }
+    }
+
+    private void setText(VarCharVector vector, String value) {
+        if (value != null) {
+            vector.setSafe(rows, value.getBytes(StandardCharsets.UTF_8));
+        } else {
+            vector.setNull(rows);
+        }
+    }
+
+    private void release() {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not close {}", output, e);
+        }
+        channel = null;
+        if (root != null) {
+            root.close();
+            root = null;
+        }
+        if (categories != null) {
+            categories.close();
+            categories = null;
+        }
+        categoryIndex.clear();
+        rows = 0;
+        totalRows = 0;
+        if (allocator != null) {
+            allocator.close();
+            allocator = null;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.accenture.poc1.writer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.file.transform.LineAggregator;
+import org.springframework.classify.Classifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Writes each item to a file chosen by a classifier, e.g. one CSV per age
+ * category, in the same pass as the export. Every route has its own buffered
+ * writer; the routes touched by a chunk are written and flushed in parallel.
+ * At most {@code maxOpenFiles} files are open at a time, the least recently
+ * used route is closed first and reopened in append mode when needed again.
+ * <p>
+ * The size of every route file is saved in the execution context on each
+ * commit, so a restart truncates the files back to the last committed chunk.
+ */
+@Slf4j
+public class ClassifierRoutingItemWriter<T> implements ItemStreamWriter<T> {
+
+    private static final String POSITIONS_KEY = "routing.positions";
+    private static final Pattern UNSAFE_CHARS = Pattern.compile("[^A-Za-z0-9_-]");
+
+    private final Classifier<T, String> classifier;
+    private final LineAggregator<T> lineAggregator;
+    private final String header;
+    private final String basePath;
+    private final boolean append;
+    private final int maxOpenFiles;
+    private final int flushThreads;
+
+    // Access-ordered, so the first entry is the least recently used route
+    private final LinkedHashMap<String, Route> openRoutes = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Path> knownRoutes = new HashMap<>();
+    private final Map<Path, String> routeKeys = new HashMap<>();
+    private ExecutorService flushExecutor;
+
+    public ClassifierRoutingItemWriter(Classifier<T, String> classifier, LineAggregator<T> lineAggregator,
+                                       String header, String basePath, boolean append,
+                                       int maxOpenFiles, int flushThreads) {
+        if (maxOpenFiles < 1 || flushThreads < 1) {
+            throw new IllegalArgumentException("maxOpenFiles and flushThreads must be at least 1");
+        }
+        this.classifier = classifier;
+        this.lineAggregator = lineAggregator;
+        this.header = header;
+        this.basePath = basePath;
+        this.append = append;
+        this.maxOpenFiles = maxOpenFiles;
+        this.flushThreads = flushThreads;
+    }
+
+    /**
+     * File a route key is written to: {@code <base>-<key>.<ext>}. Characters
+     * that are not safe in file names are replaced by {@code _}, followed by
+     * the CRC-32 of the raw key so that e.g. {@code a/b} and {@code a b} do
+     * not share a file.
+     */
+    public static Path routeFile(String basePath, String key) {
+        String safeKey = UNSAFE_CHARS.matcher(key).replaceAll("_");
+        if (!safeKey.equals(key)) {
+            CRC32 crc = new CRC32();
+            crc.update(key.getBytes(StandardCharsets.UTF_8));
+            safeKey += String.format("-%08x", crc.getValue());
+        }
+        String suffix = "-" + safeKey;
+        int slash = Math.max(basePath.lastIndexOf('/'), basePath.lastIndexOf('\\'));
+        int dot = basePath.lastIndexOf('.');
+        return Path.of(dot > slash + 1
+            ? basePath.substring(0, dot) + suffix + basePath.substring(dot)
+            : basePath + suffix);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        AtomicInteger threadCount = new AtomicInteger();
+        flushExecutor = Executors.newFixedThreadPool(flushThreads, runnable -> {
+            Thread thread = new Thread(runnable, "route-flush-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (executionContext.containsKey(POSITIONS_KEY)) {
+            // Restart: drop whatever was written after the last commit
+            Map<String, Long> positions = (Map<String, Long>) executionContext.get(POSITIONS_KEY);
+            positions.forEach((key, position) -> {
+                Path file = routeFile(basePath, key);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(position);
+                } catch (IOException e) {
+                    throw new ItemStreamException("Could not restore route file " + file, e);
+                }
+                knownRoutes.put(key, file);
+                routeKeys.put(file, key);
+            });
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) throws Exception {
+        Map<String, List<T>> itemsByRoute = new LinkedHashMap<>();
+        for (T item : chunk) {
+            String key = classifier.classify(item);
+            itemsByRoute.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
+        }
+
+        // More routes than open files: write in waves so each wave fits the bound
+        List<Map.Entry<String, List<T>>> routes = new ArrayList<>(itemsByRoute.entrySet());
+        for (int from = 0; from < routes.size(); from += maxOpenFiles) {
+            List<Map.Entry<String, List<T>>> wave = routes.subList(from, Math.min(routes.size(), from + maxOpenFiles));
+            List<Future<?>> flushes = new ArrayList<>(wave.size());
+            for (Map.Entry<String, List<T>> entry : wave) {
+                Route route = route(entry.getKey());
+                List<T> items = entry.getValue();
+                flushes.add(flushExecutor.submit(() -> {
+                    route.write(items);
+                    return null;
+                }));
+            }
+            awaitAll(flushes);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        // Routes are flushed at the end of every write, so file sizes match the chunk
+        HashMap<String, Long> positions = new HashMap<>();
+        knownRoutes.forEach((key, file) -> {
+            try {
+                positions.put(key, Files.size(file));
+            } catch (IOException e) {
+                throw new ItemStreamException("Could not read size of route file " + file, e);
+            }
+        });
+        executionContext.put(POSITIONS_KEY, positions);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        IOException failure = null;
+        for (Route route : openRoutes.values()) {
+            try {
+                route.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        openRoutes.clear();
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+            flushExecutor = null;
+        }
+        if (!knownRoutes.isEmpty()) {
+            log.info("Routed export written to {} files", knownRoutes.size());
+        }
+        knownRoutes.clear();
+        routeKeys.clear();
+        if (failure != null) {
+            throw new ItemStreamException("Could not close route file", failure);
+        }
+    }
+
+    private Route route(String key) throws IOException {
+        Route route = openRoutes.get(key);
+        if (route != null) {
+            return route;
+        }
+        if (openRoutes.size() >= maxOpenFiles) {
+            Iterator<Route> eldest = openRoutes.values().iterator();
+            Route evicted = eldest.next();
+            eldest.remove();
+            evicted.close();
+        }
+
+        Path file = routeFile(basePath, key);
+        String owner = routeKeys.putIfAbsent(file, key);
+        if (owner != null && !owner.equals(key)) {
+            throw new IllegalStateException("Route keys '" + owner + "' and '" + key + "' both map to " + file);
+        }
+        // Truncate only on the first open of a route in this step, unless appending
+        boolean firstOpen = knownRoutes.putIfAbsent(key, file) == null;
+        boolean truncate = firstOpen && !append;
+        route = new Route(file, truncate);
+        openRoutes.put(key, route);
+        return route;
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws Exception {
+        Exception failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private class Route {
+
+        private final Writer writer;
+
+        Route(Path file, boolean truncate) throws IOException {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                truncate ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND);
+            boolean empty = channel.size() == 0;
+            writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            if (empty && header != null) {
+                writer.write(header);
+                writer.write(System.lineSeparator());
+            }
+        }
+
+        void write(List<T> items) {
+            try {
+                for (T item : items) {
+                    writer.write(lineAggregator.aggregate(item));
+                    writer.write(System.lineSeparator());
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() throws IOException {
+            writer.close();
+        }
+    }
+}
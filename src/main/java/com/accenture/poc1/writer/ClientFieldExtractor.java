@@ -0,0 +1,42 @@
+package com.accenture.poc1.writer;
+
+import com.accenture.poc1.model.Client;
+import org.springframework.batch.item.file.transform.FieldExtractor;
+
+import java.util.function.Function;
+
+/**
+ * Extracts client properties without bean reflection. id and age come from
+ * the pass-through column text when the reader kept it.
+ */
+public class ClientFieldExtractor implements FieldExtractor<Client> {
+
+    private final Function<Client, Object>[] getters;
+
+    @SuppressWarnings("unchecked")
+    public ClientFieldExtractor(String... names) {
+        getters = new Function[names.length];
+        for (int i = 0; i < names.length; i++) {
+            getters[i] = getter(names[i]);
+        }
+    }
+
+    @Override
+    public Object[] extract(Client item) {
+        Object[] values = new Object[getters.length];
+        for (int i = 0; i < getters.length; i++) {
+            values[i] = getters[i].apply(item);
+        }
+        return values;
+    }
+
+    private static Function<Client, Object> getter(String name) {
+        return switch (name) {
+            case "id" -> client -> client.getIdText() != null ? client.getIdText() : client.getId();
+            case "name" -> Client::getName;
+            case "age" -> client -> client.getAgeText() != null ? client.getAgeText() : client.getAge();
+            case "ageCategory" -> Client::getAgeCategory;
+            default -> throw new IllegalArgumentException("Unknown client property: " + name);
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package com.accenture.poc1.writer;
+
+import com.accenture.poc1.model.Client;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Writes each chunk to a database table through {@link CopyIn}. Without a
+ * staging table rows are copied straight into the target. With one, the chunk
+ * is copied into staging, upserted into the target by id and staging is
+ * cleared again.
+ * <p>
+ * All statements use the connection bound to the chunk transaction, so the
+ * rows commit or roll back together with the step's execution context. That
+ * makes restarts safe as long as the target lives in the same database as the
+ * job repository.
+ */
+@Slf4j
+public class CopyClientItemWriter implements ItemStreamWriter<Client> {
+
+    private static final List<String> COLUMNS = List.of("id", "name", "age", "age_category");
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final DataSource dataSource;
+    private final CopyIn copyIn;
+    private final String targetTable;
+    private final String stagingTable;
+    private final String mergeSql;
+
+    /**
+     * @param stagingTable staging table for upserts, or {@code null} to copy
+     *                     straight into the target
+     */
+    public CopyClientItemWriter(DataSource dataSource, CopyIn copyIn, String targetTable, String stagingTable) {
+        requireTableName(targetTable);
+        if (stagingTable != null) {
+            requireTableName(stagingTable);
+        }
+        this.dataSource = dataSource;
+        this.copyIn = copyIn;
+        this.targetTable = targetTable;
+        this.stagingTable = stagingTable;
+        this.mergeSql = stagingTable != null ? copyIn.mergeSql(targetTable, stagingTable, "id", COLUMNS) : null;
+    }
+
+    @Override
+    public void write(Chunk<? extends Client> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        StringBuilder csv = new StringBuilder(chunk.size() * 48);
+        for (Client client : chunk) {
+            appendRow(csv, client);
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            if (stagingTable == null) {
+                copyIn.copy(connection, targetTable, COLUMNS, new StringReader(csv.toString()));
+                return;
+            }
+            copyIn.copy(connection, stagingTable, COLUMNS, new StringReader(csv.toString()));
+            try (Statement statement = connection.createStatement()) {
+                int merged = statement.executeUpdate(mergeSql);
+                statement.executeUpdate("DELETE FROM " + stagingTable);
+                log.debug("Merged {} clients into {}", merged, targetTable);
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static void appendRow(StringBuilder csv, Client client) {
+        appendNumber(csv, client.getId());
+        csv.append(',');
+        appendText(csv, client.getName());
+        csv.append(',');
+        appendNumber(csv, client.getAge());
+        csv.append(',');
+        appendText(csv, client.getAgeCategory());
+        csv.append('\n');
+    }
+
+    private static void appendNumber(StringBuilder csv, Integer value) {
+        if (value != null) {
+            csv.append(value.intValue());
+        }
+    }
+
+    // Always quoted, so an empty string is not read back as NULL
+    private static void appendText(StringBuilder csv, String value) {
+        if (value == null) {
+            return;
+        }
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        csv.append('"');
+    }
+
+    private static void requireTableName(String table) {
+        if (table == null || !TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid table name: " + table);
+        }
+    }
+}
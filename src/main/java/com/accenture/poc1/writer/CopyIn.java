@@ -0,0 +1,37 @@
+package com.accenture.poc1.writer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk load of CSV rows into a table on a given connection, and the
+ * statement that merges a staging table into its target.
+ */
+public interface CopyIn {
+
+    /**
+     * Loads headerless CSV rows into {@code table}. Unquoted empty fields are
+     * NULL, quoted ones are empty strings.
+     *
+     * @return number of rows loaded
+     */
+    long copy(Connection connection, String table, List<String> columns, Reader csv)
+        throws SQLException, IOException;
+
+    /**
+     * Upsert of every staging row into the target, keyed by {@code key}.
+     */
+    default String mergeSql(String target, String staging, String key, List<String> columns) {
+        String columnList = String.join(", ", columns);
+        String updates = columns.stream()
+            .filter(column -> !column.equals(key))
+            .map(column -> column + " = EXCLUDED." + column)
+            .collect(Collectors.joining(", "));
+        return "INSERT INTO " + target + " (" + columnList + ") SELECT " + columnList + " FROM " + staging
+            + " ON CONFLICT (" + key + ") DO UPDATE SET " + updates;
+    }
+}
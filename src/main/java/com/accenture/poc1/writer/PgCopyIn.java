@@ -0,0 +1,24 @@
+package com.accenture.poc1.writer;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * {@link CopyIn} over pgjdbc's {@code COPY ... FROM STDIN}.
+ */
+public class PgCopyIn implements CopyIn {
+
+    @Override
+    public long copy(Connection connection, String table, List<String> columns, Reader csv)
+            throws SQLException, IOException {
+        // Unwrap the pooled connection; COPY runs in its current transaction
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        return copyManager.copyIn("COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)", csv);
+    }
+}
@@ -0,0 +1,67 @@
+package com.accenture.poc1.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionRingBufferTest {
+
+    @Test
+    void testRefusesWhenFullAndReusesDrainedSlots() {
+        DecisionRingBuffer buffer = new DecisionRingBuffer(3);
+        assertEquals(4, buffer.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i, i, "rule", "name", DecisionOutcome.MASKED));
+        }
+        assertFalse(buffer.offer(4, 4, "rule", "name", DecisionOutcome.MASKED));
+
+        List<Long> drained = new ArrayList<>();
+        assertEquals(2, buffer.drain((timestamp, recordId, ruleId, field, outcome) -> drained.add(recordId), 2));
+        assertTrue(buffer.offer(4, 4, "rule", "name", DecisionOutcome.MASKED));
+        assertTrue(buffer.offer(5, 5, "rule", "name", DecisionOutcome.MASKED));
+        buffer.drain((timestamp, recordId, ruleId, field, outcome) -> drained.add(recordId), 10);
+
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothing() throws Exception {
+        DecisionRingBuffer buffer = new DecisionRingBuffer(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            long base = p * (long) perProducer;
+            pool.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(0, base + i, "rule", "name", DecisionOutcome.DEFAULTED)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        boolean[] seen = new boolean[producers * perProducer];
+        int[] count = {0};
+        while (done.getCount() > 0 || buffer.size() > 0) {
+            buffer.drain((timestamp, recordId, ruleId, field, outcome) -> {
+                assertFalse(seen[(int) recordId]);
+                seen[(int) recordId] = true;
+                count[0]++;
+            }, 128);
+        }
+        pool.shutdown();
+
+        assertEquals(producers * perProducer, count[0]);
+    }
+}
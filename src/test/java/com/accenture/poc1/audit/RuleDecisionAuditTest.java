@@ -0,0 +1,113 @@
+package com.accenture.poc1.audit;
+
+import com.accenture.poc1.rule.EnhancedRuleEngine;
+import com.accenture.poc1.rule.RecordRejectedException;
+import com.accenture.poc1.rule.RuleEngineProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleDecisionAuditTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEngineRecordsMaskRejectAndDefault() throws Exception {
+        Path file = directory.resolve("decisions.csv");
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getAudit().setEnabled(true);
+        properties.getAudit().setPath(file.toString());
+        EnhancedRuleEngine engine = new EnhancedRuleEngine(properties);
+
+        assertEquals("*********", engine.applyRules("name", "Lisa Chen", 7));
+        assertThrows(RecordRejectedException.class, () -> engine.applyRules("email", "not-an-email", 8));
+        assertEquals("000-000-0000", engine.applyRules("phone", "12", 9));
+        assertEquals("JOHN DOE", engine.applyRules("name", "John Doe", 10));
+        engine.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(AuditFileWriter.CSV_HEADER, lines.get(0));
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(1).endsWith(",7,mask-chen-names,name,MASKED"));
+        assertTrue(lines.get(2).endsWith(",8,validate-email,email,REJECTED"));
+        assertTrue(lines.get(3).endsWith(",9,validate-phone,phone,DEFAULTED"));
+    }
+
+    @Test
+    void testNullDefaultIsAuditedAsDefaulted() throws Exception {
+        Path file = directory.resolve("decisions.csv");
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.setRulesLocation("classpath:rules/null-default-rules.json");
+        properties.getAudit().setEnabled(true);
+        properties.getAudit().setPath(file.toString());
+        for (RuleEngineProperties.Backend backend : RuleEngineProperties.Backend.values()) {
+            properties.setBackend(backend);
+            EnhancedRuleEngine engine = new EnhancedRuleEngine(properties);
+            assertNull(engine.applyRules("phone", "12", 11), backend.name());
+            assertEquals("5551234567", engine.applyRules("phone", "5551234567", 12), backend.name());
+            engine.close();
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertTrue(lines.get(lines.size() - 1).endsWith(",11,clear-invalid-phone,phone,DEFAULTED"));
+        assertTrue(lines.stream().noneMatch(line -> line.endsWith("REJECTED")));
+    }
+
+    @Test
+    void testRotatesBinaryFile() throws Exception {
+        Path file = directory.resolve("decisions.bin");
+        AuditFileWriter writer = new AuditFileWriter(file, AuditProperties.Format.BINARY, 100, 2);
+
+        for (int i = 0; i < 20; i++) {
+            writer.accept(1_000 + i, i, "mask-chen-names", "name", DecisionOutcome.MASKED);
+        }
+        writer.close();
+
+        assertTrue(Files.exists(directory.resolve("decisions.bin.1")));
+        assertTrue(Files.exists(directory.resolve("decisions.bin.2")));
+        assertFalse(Files.exists(directory.resolve("decisions.bin.3")));
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            assertEquals(AuditFileWriter.MAGIC, in.readInt());
+            in.readLong();
+            assertTrue(in.readLong() > 0);
+            assertEquals("mask-chen-names", in.readUTF());
+            assertEquals("name", in.readUTF());
+            assertEquals(DecisionOutcome.MASKED.ordinal(), in.readByte());
+        }
+    }
+
+    @Test
+    void testWriteFailureFailsPublishUnderBlock() {
+        AuditProperties properties = new AuditProperties();
+        properties.setOverflow(AuditProperties.Overflow.BLOCK);
+        properties.setCapacity(4);
+        AuditFileWriter fullDisk = new AuditFileWriter(directory.resolve("decisions.csv"),
+            AuditProperties.Format.CSV, 0, 0) {
+            @Override
+            public void accept(long timestamp, long recordId, String ruleId, String field, DecisionOutcome outcome) {
+                throw new UncheckedIOException(new IOException("No space left on device"));
+            }
+        };
+        RuleDecisionAudit audit = new RuleDecisionAudit(properties, fullDisk);
+
+        // Without the failure state the publisher would park forever once the buffer is full
+        IllegalStateException e = assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+            assertThrows(IllegalStateException.class, () -> {
+                for (long recordId = 0; ; recordId++) {
+                    audit.publish(recordId, "mask-chen-names", "name", DecisionOutcome.MASKED);
+                }
+            }));
+        assertEquals("No space left on device", e.getCause().getCause().getMessage());
+        audit.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.accenture.poc1.benchmark;
+
+import com.accenture.poc1.config.ClientExportProperties;
+import com.accenture.poc1.model.Client;
+import com.accenture.poc1.processor.ClientRuleProcessor;
+import com.accenture.poc1.processor.RejectedRecordWriter;
+import com.accenture.poc1.rule.EnhancedRuleEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of processing one row, including creating the row as the reader would.
+ * The {@code gc.alloc.rate.norm} line of the gc profiler is the bytes
+ * allocated per row. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ClientRuleProcessorBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientRuleProcessorBenchmark {
+
+    private static final String[] NAMES = {"John Doe", "Michael Chen", "DAVID THOMAS", "Alice Brown", "CHARLIE WILSON"};
+    private static final int[] AGES = {18, 25, 30, 41, 65};
+
+    private ClientRuleProcessor processor;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        processor = new ClientRuleProcessor(new EnhancedRuleEngine(),
+            new RejectedRecordWriter(new ClientExportProperties()));
+    }
+
+    @Benchmark
+    public Client processRow() throws Exception {
+        int i = index++ % NAMES.length;
+        return processor.process(new Client(i, NAMES[i], AGES[i]));
+    }
+}
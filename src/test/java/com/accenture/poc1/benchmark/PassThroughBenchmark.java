@@ -0,0 +1,86 @@
+package com.accenture.poc1.benchmark;
+
+import com.accenture.poc1.model.Client;
+import com.accenture.poc1.reader.ClientRowMapper;
+import com.accenture.poc1.writer.ClientFieldExtractor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
+import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reader-to-line cost per row without rules: {@code bean} is the former
+ * BeanPropertyRowMapper and BeanWrapperFieldExtractor pair, {@code typed} and
+ * {@code text} the positional mapper with and without decoding id and age.
+ * Rows come from an in-memory H2 table. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PassThroughBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PassThroughBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"bean", "typed", "text"})
+    private String mode;
+
+    private Connection connection;
+    private RowMapper<Client> mapper;
+    private final DelimitedLineAggregator<Client> aggregator = new DelimitedLineAggregator<>();
+
+    @Setup
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:pass-through-" + System.nanoTime());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE client (id INT PRIMARY KEY, name VARCHAR(100), age INT)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO client VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                insert.setInt(1, i);
+                insert.setString(2, "Client " + i);
+                insert.setInt(3, 18 + i % 60);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        if (mode.equals("bean")) {
+            BeanWrapperFieldExtractor<Client> extractor = new BeanWrapperFieldExtractor<>();
+            extractor.setNames(new String[]{"id", "name", "age", "ageCategory"});
+            aggregator.setFieldExtractor(extractor);
+            mapper = new BeanPropertyRowMapper<>(Client.class);
+        } else {
+            aggregator.setFieldExtractor(new ClientFieldExtractor("id", "name", "age", "ageCategory"));
+            mapper = new ClientRowMapper(mode.equals("text"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long exportRows() throws Exception {
+        long chars = 0;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id, name, age FROM client ORDER BY id")) {
+            for (int row = 0; rs.next(); row++) {
+                chars += aggregator.aggregate(mapper.mapRow(rs, row)).length();
+            }
+        }
+        return chars;
+    }
+}
@@ -0,0 +1,95 @@
+package com.accenture.poc1.benchmark;
+
+import com.accenture.poc1.Application;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of the online rule API: 16 client threads post records to an
+ * in-process server over HTTP/1.1 keep-alive. Sample-time mode reports the
+ * latency percentiles (p0.50 ... p0.999) per request. Shed requests (503)
+ * are part of the sample and counted separately at the end of each run. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RuleApiLoadBenchmark}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class RuleApiLoadBenchmark {
+
+    private static final String RECORD = "{\"id\": 7, \"name\": \"Michael Chen\", \"age\": 41, \"phone\": \"5551234567\"}";
+    private static final String RECORDS = "[" + String.join(",", Collections.nCopies(10, RECORD)) + "]";
+
+    @Param({"0ms", "1ms"})
+    private String maxBatchDelay;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI uri;
+    private final AtomicLong ok = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(Application.class,
+            "--spring.main.web-application-type=servlet",
+            "--server.port=0",
+            "--rule-api.max-batch-delay=" + maxBatchDelay,
+            "--spring.datasource.url=jdbc:h2:mem:rule-api-load",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--rule-engine.analysis.report-path=",
+            "--rule-engine.snapshot.path=",
+            "--logging.level.root=WARN",
+            "--logging.level.com.accenture.poc1=WARN");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        uri = URI.create("http://localhost:" + port + "/api/rules/evaluate");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%d requests answered, %d shed (%.2f%%)%n", ok.get(), shed.get(),
+            100.0 * shed.get() / Math.max(1, ok.get() + shed.get()));
+        context.close();
+    }
+
+    @Benchmark
+    public String singleRecord() throws Exception {
+        return post(RECORD);
+    }
+
+    @Benchmark
+    public String tenRecords() throws Exception {
+        return post(RECORDS);
+    }
+
+    private String post(String body) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 503) {
+            shed.incrementAndGet();
+        } else if (response.statusCode() == 200) {
+            ok.incrementAndGet();
+        } else {
+            throw new IllegalStateException("HTTP " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+}
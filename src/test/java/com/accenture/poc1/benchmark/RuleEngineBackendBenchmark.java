@@ -0,0 +1,52 @@
+package com.accenture.poc1.benchmark;
+
+import com.accenture.poc1.rule.EnhancedRuleEngine;
+import com.accenture.poc1.rule.RuleEngineProperties;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interpreter vs. MethodHandle-compiled rule programs over a mixed Client-like
+ * workload. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RuleEngineBackendBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleEngineBackendBenchmark {
+
+    private static final String[] NAMES = {"John Doe", "Michael Chen", "David Thomas", "Alice Brown", "Charlie Wilson"};
+    private static final String[] AGES = {"18", "25", "30", "41", "65"};
+
+    @Param({"INTERPRETER", "COMPILED"})
+    private RuleEngineProperties.Backend backend;
+
+    private EnhancedRuleEngine engine;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.setBackend(backend);
+        engine = new EnhancedRuleEngine(properties);
+    }
+
+    @Benchmark
+    public void clientRecord(Blackhole blackhole) {
+        int i = index++ % NAMES.length;
+        blackhole.consume(engine.applyRules("name", NAMES[i]));
+        blackhole.consume(engine.applyRules("age", AGES[i]));
+    }
+
+    @Benchmark
+    public void contactRecord(Blackhole blackhole) {
+        blackhole.consume(engine.applyRules("ssn", "123-45-6789"));
+        blackhole.consume(engine.applyRules("phone", "5551234567"));
+        blackhole.consume(engine.applyRules("comments", "This contains badword1 in text"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.accenture.poc1.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cold start of the packaged application up to a refreshed context
+ * ({@code spring.context.exit=onRefresh}): plain JVM, Spring AOT, and Spring AOT
+ * with an AppCDS archive. Needs {@code mvn -Pfast-start package} first (use
+ * {@code -Dexec.skip} without a database); the benchmark trains its own archive
+ * against an in-memory H2 database. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=StartupBenchmark}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    public enum StartupMode {
+        DEFAULT,
+        AOT,
+        CDS_AOT
+    }
+
+    private static final Path TARGET = Path.of("target");
+
+    @Param({"DEFAULT", "AOT", "CDS_AOT"})
+    private StartupMode mode;
+
+    private List<String> command;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path archive = TARGET.resolve("startup-benchmark.jsa");
+        if (mode == StartupMode.CDS_AOT) {
+            Files.deleteIfExists(archive);
+            run(command("-XX:ArchiveClassesAtExit=" + archive));
+            command = command("-XX:SharedArchiveFile=" + archive, "-Xshare:auto");
+        } else {
+            command = command();
+        }
+    }
+
+    @Benchmark
+    public int startToRefreshedContext() throws Exception {
+        return run(command);
+    }
+
+    private List<String> command(String... jvmOptions) throws Exception {
+        String h2 = Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of(jvmOptions));
+        if (mode != StartupMode.DEFAULT) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.add("-Dspring.context.exit=onRefresh");
+        command.add("-cp");
+        command.add(applicationJar() + File.pathSeparator + h2);
+        command.add("com.accenture.poc1.Application");
+        command.add("--spring.datasource.url=jdbc:h2:mem:startup");
+        command.add("--spring.datasource.driver-class-name=org.h2.Driver");
+        command.add("--spring.datasource.username=sa");
+        command.add("--spring.datasource.password=");
+        command.add("--rule-engine.analysis.report-path=");
+        command.add("--rule-engine.snapshot.path=" + TARGET.resolve("startup-benchmark.snapshot"));
+        command.add("--logging.level.root=WARN");
+        command.add("--logging.level.com.accenture.poc1=WARN");
+        command.add("--logging.level.org.springframework.batch=WARN");
+        command.add("--logging.level.org.springframework.jdbc=WARN");
+        return command;
+    }
+
+    // The plain jar from the fast-start profile, whose manifest points at target/lib
+    private static Path applicationJar() throws IOException {
+        try (Stream<Path> files = Files.list(TARGET)) {
+            return files
+                .filter(file -> file.getFileName().toString().endsWith(".jar"))
+                .filter(file -> !file.getFileName().toString().endsWith("-exec.jar"))
+                .findFirst()
+                .filter(jar -> Files.isDirectory(TARGET.resolve("lib")))
+                .orElseThrow(() -> new IllegalStateException("Run 'mvn -Pfast-start package' first"));
+        }
+    }
+
+    private static int run(List<String> command) throws Exception {
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("Application exited with " + exitCode + ": " + command);
+        }
+        return exitCode;
+    }
+}
@@ -0,0 +1,68 @@
+package com.accenture.poc1.benchmark;
+
+import com.accenture.poc1.rule.LookupTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IN_LIST membership tests against a case-insensitive watch list of a few
+ * million names. Most production values are not on the list, so {@code miss}
+ * is the common path and should end at the Bloom filter. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=WatchListBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WatchListBenchmark {
+
+    private static final int VALUES = 1 << 12;
+
+    @Param({"2000000"})
+    private int entries;
+
+    private LookupTable list;
+    private Path file;
+    private final String[] hits = new String[VALUES];
+    private final String[] misses = new String[VALUES];
+    private int index;
+
+    @Setup
+    public void setUp() throws Exception {
+        ByteArrayOutputStream names = new ByteArrayOutputStream();
+        for (int i = 0; i < entries; i++) {
+            names.write(("Given" + i + " Family" + (i * 31) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        file = Files.createTempFile("watch-list", ".lkp");
+        LookupTable.buildList(new ByteArrayInputStream(names.toByteArray()), file, true);
+        list = LookupTable.open(file);
+        for (int i = 0; i < VALUES; i++) {
+            int entry = (int) ((i * 2_654_435_761L) % entries);
+            hits[i] = ("GIVEN" + entry + " FAMILY" + (entry * 31));
+            misses[i] = "Given" + entry + " Other" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return list.contains(misses[index++ & (VALUES - 1)]);
+    }
+
+    @Benchmark
+    public boolean hit() {
+        return list.contains(hits[index++ & (VALUES - 1)]);
+    }
+}
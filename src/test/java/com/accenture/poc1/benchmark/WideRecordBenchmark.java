@@ -0,0 +1,79 @@
+package com.accenture.poc1.benchmark;
+
+import com.accenture.poc1.rule.EnhancedRuleEngine;
+import com.accenture.poc1.rule.RuleEngineProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates one record of {@code fields} columns, each with a few regex rules,
+ * sequentially ({@code parallelism=1}) or split across field groups. The gain
+ * is bounded by the number of cores, so compare runs on the target hardware. Run
+ * with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=WideRecordBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WideRecordBenchmark {
+
+    @Param({"120"})
+    private int fields;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private EnhancedRuleEngine engine;
+    private Path rules;
+    private final Map<String, Object> record = new LinkedHashMap<>();
+
+    @Setup
+    public void setUp() throws Exception {
+        StringBuilder json = new StringBuilder("{\"rules\": [");
+        for (int i = 0; i < fields; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(rule("upper-" + i, "field" + i, 10, "[a-z]+\\\\s[a-z]+\\\\d{2,}", "\"UPPERCASE\""));
+            json.append(',');
+            json.append(rule("trim-" + i, "field" + i, 20, "^\\\\s*\\\\S.*$", "\"TRIM\""));
+            record.put("field" + i, "value number " + i + " for column " + i);
+        }
+        json.append("]}");
+        rules = Files.createTempFile("wide-rules", ".json");
+        Files.writeString(rules, json);
+
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.setRulesLocation(rules.toUri().toString());
+        properties.getParallel().setEnabled(parallelism > 1);
+        properties.getParallel().setParallelism(parallelism);
+        properties.getParallel().setThreshold(Duration.ZERO);
+        engine = new EnhancedRuleEngine(properties);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        engine.close();
+        Files.deleteIfExists(rules);
+    }
+
+    @Benchmark
+    public Map<String, String> evaluateRecord() {
+        return engine.evaluateRecord(record);
+    }
+
+    private static String rule(String id, String field, int priority, String regex, String action) {
+        return "{\"id\": \"" + id + "\", \"fieldName\": \"" + field + "\", \"type\": \"TRANSFORM\", "
+            + "\"priority\": " + priority + ", \"enabled\": true, "
+            + "\"condition\": {\"operator\": \"REGEX\", \"value\": \"" + regex + "\"}, "
+            + "\"action\": " + action + "}";
+    }
+}
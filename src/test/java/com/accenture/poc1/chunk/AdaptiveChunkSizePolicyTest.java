@@ -0,0 +1,186 @@
+package com.accenture.poc1.chunk;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.repeat.RepeatContext;
+
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdaptiveChunkSizePolicyTest {
+
+    private static final long MS = 1_000_000;
+
+    private double heapUsage = 0.2;
+
+    @Test
+    void testGrowsWhileChunksAreFastUpToMax() {
+        AdaptiveChunkSizePolicy policy = policy();
+
+        for (int i = 0; i < 20; i++) {
+            int size = policy.getChunkSize();
+            policy.onChunkCompleted(size, size * MS / 10);
+        }
+
+        assertEquals(1_000, policy.getChunkSize());
+    }
+
+    @Test
+    void testShrinksWhenChunkOverrunsTarget() {
+        AdaptiveChunkSizePolicy policy = policy();
+
+        policy.onChunkCompleted(100, 400 * MS);
+
+        // 100 items took twice the 200 ms target
+        assertEquals(50, policy.getChunkSize());
+    }
+
+    @Test
+    void testHalvesUnderMemoryPressure() {
+        AdaptiveChunkSizePolicy policy = policy();
+        heapUsage = 0.95;
+
+        policy.onChunkCompleted(100, 5 * MS);
+
+        assertEquals(50, policy.getChunkSize());
+    }
+
+    @Test
+    void testRollbackHalvesAndPausesGrowth() {
+        AdaptiveChunkSizePolicy policy = policy();
+
+        policy.onChunkRolledBack();
+        assertEquals(50, policy.getChunkSize());
+
+        for (int i = 0; i < 5; i++) {
+            policy.onChunkCompleted(50, 5 * MS);
+        }
+        assertEquals(50, policy.getChunkSize());
+
+        policy.onChunkCompleted(50, 5 * MS);
+        assertEquals(75, policy.getChunkSize());
+    }
+
+    @Test
+    void testStepsBackWhenThroughputDrops() {
+        AdaptiveChunkSizePolicy policy = policy();
+
+        policy.onChunkCompleted(100, 10 * MS);
+        assertEquals(150, policy.getChunkSize());
+
+        // Half the throughput at the larger size
+        policy.onChunkCompleted(150, 30 * MS);
+        assertEquals(100, policy.getChunkSize());
+    }
+
+    @Test
+    void testNeverLeavesBounds() {
+        AdaptiveChunkSizePolicy policy = policy();
+
+        for (int i = 0; i < 10; i++) {
+            policy.onChunkRolledBack();
+        }
+
+        assertEquals(10, policy.getChunkSize());
+    }
+
+    @Test
+    void testChunkCompletesAtCurrentSize() {
+        AdaptiveChunkSizePolicy policy = policy();
+        RepeatContext context = policy.start(null);
+
+        for (int i = 0; i < 99; i++) {
+            policy.update(context);
+        }
+        assertFalse(policy.isComplete(context));
+
+        policy.update(context);
+        assertTrue(policy.isComplete(context));
+    }
+
+    @Test
+    void testPublishesOneSizeGaugePerStepExecution() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            AdaptiveChunkSizePolicy first = policy();
+            AdaptiveChunkSizePolicy second = policy();
+            StepExecution firstStep = stepExecution(21L);
+            StepExecution secondStep = stepExecution(22L);
+
+            first.beforeChunk(new ChunkContext(new StepContext(firstStep)));
+            second.beforeChunk(new ChunkContext(new StepContext(secondStep)));
+            second.onChunkRolledBack();
+
+            assertEquals(100, registry.get("batch.chunk.size").tag("execution", "21").gauge().value());
+            assertEquals(50, registry.get("batch.chunk.size").tag("execution", "22").gauge().value());
+            assertEquals(2, registry.find("batch.chunk.items").tag("step", "chunkStep").summaries().size());
+
+            first.afterStep(firstStep);
+            second.afterStep(secondStep);
+            assertTrue(Metrics.globalRegistry.find("batch.chunk.size").tag("step", "chunkStep").gauges().isEmpty());
+            assertTrue(registry.find("batch.chunk.items").tag("step", "chunkStep").summaries().isEmpty());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    void testOnlyOldGenerationDrivesMemoryCheck() {
+        List<MemoryPoolMXBean> pools = List.of(
+            pool("PS Eden Space", false, 0, 100),
+            pool("PS Survivor Space", false, 100, 100),
+            pool("PS Old Gen", true, 30, 100),
+            nonHeapPool());
+
+        assertEquals(0.3, AdaptiveChunkSizePolicy.oldGenUsageAfterGc(pools), 1e-9);
+    }
+
+    private AdaptiveChunkSizePolicy policy() {
+        ChunkSizingProperties settings = new ChunkSizingProperties();
+        settings.setInitialSize(100);
+        settings.setMinSize(10);
+        settings.setMaxSize(1_000);
+        settings.setTargetChunkTime(Duration.ofMillis(200));
+        settings.setMemoryThreshold(0.8);
+        return new AdaptiveChunkSizePolicy(settings, () -> heapUsage);
+    }
+
+    private static StepExecution stepExecution(long id) {
+        JobExecution jobExecution = new JobExecution(new JobInstance(id, "testJob"), id, new JobParameters());
+        return new StepExecution("chunkStep", jobExecution, id);
+    }
+
+    // Eden and survivor pools support a collection usage threshold but no usage threshold
+    private static MemoryPoolMXBean pool(String name, boolean tenured, long used, long max) {
+        MemoryPoolMXBean pool = mock(MemoryPoolMXBean.class);
+        when(pool.getName()).thenReturn(name);
+        when(pool.getType()).thenReturn(MemoryType.HEAP);
+        when(pool.isUsageThresholdSupported()).thenReturn(tenured);
+        when(pool.isCollectionUsageThresholdSupported()).thenReturn(true);
+        when(pool.getCollectionUsage()).thenReturn(new MemoryUsage(0, used, max, max));
+        return pool;
+    }
+
+    private static MemoryPoolMXBean nonHeapPool() {
+        MemoryPoolMXBean pool = mock(MemoryPoolMXBean.class);
+        when(pool.getType()).thenReturn(MemoryType.NON_HEAP);
+        when(pool.isUsageThresholdSupported()).thenReturn(true);
+        when(pool.isCollectionUsageThresholdSupported()).thenReturn(true);
+        when(pool.getCollectionUsage()).thenReturn(new MemoryUsage(0, 100, 100, 100));
+        return pool;
+    }
+}
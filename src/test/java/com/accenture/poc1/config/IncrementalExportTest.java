@@ -0,0 +1,106 @@
+package com.accenture.poc1.config;
+
+import com.accenture.poc1.reader.WatermarkClientItemReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.sql.init.mode=always",
+    "spring.datasource.url=jdbc:h2:mem:incremental;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=MySQL",
+    "client-export.incremental=true",
+    "client-export.output-mode=append",
+    "client-export.output=target/incremental-export-test.csv"
+})
+@ActiveProfiles("test")
+@EnableAutoConfiguration
+@Import(TestBatchConfiguration.class)
+class IncrementalExportTest {
+
+    private static final Path OUTPUT = Path.of("target/incremental-export-test.csv");
+    private static final Path OTHER_OUTPUT = Path.of("target/incremental-export-other.csv");
+    private static final Path THIRD_OUTPUT = Path.of("target/incremental-export-third.csv");
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier("clientToCsvJob")
+    private Job clientToCsvJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.deleteIfExists(OUTPUT);
+    }
+
+    @Test
+    void testLaterRunsOnlyExportNewRows() throws Exception {
+        int existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM client", Integer.class);
+        int maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM client", Integer.class);
+
+        JobExecution first = runJob();
+        assertEquals(existing, writeCount(first));
+        assertEquals(maxId, ((Number) first.getExecutionContext().get(WatermarkClientItemReader.WATERMARK_KEY)).intValue());
+
+        jdbcTemplate.update("INSERT INTO client (name, age) VALUES ('New Client', 33), ('Other Client', 52)");
+        JobExecution second = runJob();
+        assertEquals(2, writeCount(second));
+
+        JobExecution third = runJob();
+        assertEquals(0, writeCount(third));
+
+        List<String> lines = Files.readAllLines(OUTPUT);
+        assertEquals("id,name,age,ageCategory", lines.get(0));
+        assertEquals(1 + existing + 2, lines.size());
+        assertEquals(1, lines.stream().filter(line -> line.startsWith("id,")).count());
+        assertTrue(lines.get(lines.size() - 1).endsWith(",52,Senior"));
+    }
+
+    @Test
+    void testOtherOutputKeepsItsOwnWatermark() throws Exception {
+        Files.deleteIfExists(OTHER_OUTPUT);
+        Files.deleteIfExists(THIRD_OUTPUT);
+        int clients = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM client", Integer.class);
+
+        assertEquals(clients, writeCount(runJob(THIRD_OUTPUT.toString())));
+        assertEquals(clients, writeCount(runJob(OTHER_OUTPUT.toString())));
+        assertEquals(0, writeCount(runJob(OTHER_OUTPUT.toString())));
+    }
+
+    private JobExecution runJob() throws Exception {
+        return runJob(OUTPUT.toString());
+    }
+
+    private JobExecution runJob(String output) throws Exception {
+        JobExecution execution = jobLauncher.run(clientToCsvJob, new JobParametersBuilder()
+            .addLong("time", System.nanoTime())
+            .addString(BatchConfig.OUTPUT_PARAMETER, output)
+            .toJobParameters());
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+        return execution;
+    }
+
+    private long writeCount(JobExecution execution) {
+        return execution.getStepExecutions().iterator().next().getWriteCount();
+    }
+}
@@ -0,0 +1,107 @@
+package com.accenture.poc1.config;
+
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.sql.init.mode=always",
+    "spring.datasource.url=jdbc:h2:mem:partitioned-arrow;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=MySQL",
+    "client-export.output=target/partitioned-arrow-test.csv",
+    "client-export.format=arrow",
+    "client-export.partitioning.mode=manager",
+    "client-export.partitioning.channel=in-process",
+    "client-export.partitioning.grid-size=3",
+    "client-export.partitioning.workers=2"
+})
+@ActiveProfiles("test")
+@EnableAutoConfiguration
+@Import(TestBatchConfiguration.class)
+class PartitionedArrowExportTest {
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier("clientToCsvJob")
+    private Job clientToCsvJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int part = 0; part < 3; part++) {
+            FileSystemUtils.deleteRecursively(partFile(part));
+        }
+    }
+
+    @Test
+    void testEveryPartitionWritesItsOwnStream() throws Exception {
+        int clients = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM client", Integer.class);
+
+        JobExecution execution = jobLauncher.run(clientToCsvJob, new JobParametersBuilder()
+            .addLong("time", System.nanoTime())
+            .toJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+        Set<Integer> ids = new HashSet<>();
+        for (int part = 0; part < 3; part++) {
+            try (RootAllocator allocator = new RootAllocator();
+                 InputStream in = Files.newInputStream(partFile(part));
+                 ArrowStreamReader reader = new ArrowStreamReader(in, allocator)) {
+                while (reader.loadNextBatch()) {
+                    IntVector id = (IntVector) reader.getVectorSchemaRoot().getVector("id");
+                    for (int i = 0; i < reader.getVectorSchemaRoot().getRowCount(); i++) {
+                        assertTrue(ids.add(id.get(i)), "Client " + id.get(i) + " exported twice");
+                    }
+                }
+            }
+        }
+        assertEquals(clients, ids.size());
+    }
+
+    @Test
+    void testFailedMoveFailsTheJob() throws Exception {
+        // A non-empty directory in place of part 2 makes the final move fail
+        Files.createDirectories(partFile(2));
+        Files.writeString(partFile(2).resolve("keep"), "in the way");
+
+        JobExecution execution = jobLauncher.run(clientToCsvJob, new JobParametersBuilder()
+            .addLong("time", System.nanoTime())
+            .toJobParameters());
+
+        assertEquals(BatchStatus.FAILED, execution.getStatus());
+        assertTrue(Files.isDirectory(partFile(2)));
+        try (var files = Files.list(Path.of("target"))) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".partial")));
+        }
+    }
+
+    private static Path partFile(int part) {
+        return Path.of("target/partitioned-arrow-test-part" + part + ".arrows");
+    }
+}
@@ -0,0 +1,89 @@
+package com.accenture.poc1.config;
+
+import com.accenture.poc1.partition.ClientIdRangePartitioner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.sql.init.mode=always",
+    "spring.datasource.url=jdbc:h2:mem:partitioned;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=MySQL",
+    "client-export.output=target/partitioned-export-test.csv",
+    "client-export.partitioning.mode=manager",
+    "client-export.partitioning.channel=in-process",
+    "client-export.partitioning.grid-size=3",
+    "client-export.partitioning.workers=2"
+})
+@ActiveProfiles("test")
+@EnableAutoConfiguration
+@Import(TestBatchConfiguration.class)
+class PartitionedExportTest {
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier("clientToCsvJob")
+    private Job clientToCsvJob;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int part = 0; part < 3; part++) {
+            Files.deleteIfExists(partFile(part));
+        }
+    }
+
+    @Test
+    void testWorkersExportEveryPartition() throws Exception {
+        int clients = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM client", Integer.class);
+
+        JobExecution execution = jobLauncher.run(clientToCsvJob, new JobParametersBuilder()
+            .addLong("time", System.nanoTime())
+            .toJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+        // Workers update the repository, the launcher's copy only has the manager's view
+        List<StepExecution> partitions = jobExplorer.getJobExecution(execution.getId()).getStepExecutions().stream()
+            .filter(step -> step.getExecutionContext().containsKey(ClientIdRangePartitioner.PARTITION_KEY))
+            .toList();
+        assertEquals(3, partitions.size());
+        assertEquals(clients, partitions.stream().mapToLong(StepExecution::getWriteCount).sum());
+
+        int rows = 0;
+        for (int part = 0; part < 3; part++) {
+            List<String> lines = Files.readAllLines(partFile(part));
+            assertEquals("id,name,age,ageCategory", lines.get(0));
+            rows += lines.size() - 1;
+        }
+        assertEquals(clients, rows);
+    }
+
+    private static Path partFile(int part) {
+        return Path.of("target/partitioned-export-test-part" + part + ".csv");
+    }
+}
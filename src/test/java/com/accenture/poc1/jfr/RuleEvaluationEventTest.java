@@ -0,0 +1,48 @@
+package com.accenture.poc1.jfr;
+
+import com.accenture.poc1.rule.EnhancedRuleEngine;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleEvaluationEventTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsRuleEvaluationsWhenEnabled() throws Exception {
+        EnhancedRuleEngine engine = new EnhancedRuleEngine();
+        Path file = directory.resolve("rules.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(RuleEvaluationEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            assertEquals("Adult", engine.applyRules("age", "30"));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+            .filter(event -> event.getEventType().getName().equals("com.accenture.poc1.RuleEvaluation"))
+            .toList();
+        assertFalse(events.isEmpty());
+        assertTrue(events.stream().allMatch(event -> "age".equals(event.getString("field"))));
+        assertTrue(events.stream().anyMatch(event -> event.getBoolean("matched")));
+    }
+
+    @Test
+    void testTruncatesLongValues() {
+        assertEquals("short", RuleEvaluationEvent.truncate("short"));
+        assertEquals(67, RuleEvaluationEvent.truncate("x".repeat(100)).length());
+        assertNull(RuleEvaluationEvent.truncate(null));
+    }
+}
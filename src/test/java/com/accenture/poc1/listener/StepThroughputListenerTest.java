@@ -0,0 +1,98 @@
+package com.accenture.poc1.listener;
+
+import com.accenture.poc1.model.Client;
+import com.accenture.poc1.rule.EnhancedRuleEngine;
+import io.micrometer.core.instrument.Metrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.Chunk;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class StepThroughputListenerTest {
+
+    @Test
+    void testStoresPhaseTimingsInStepContext() throws Exception {
+        StepThroughputListener<Client> listener = new StepThroughputListener<>(new EnhancedRuleEngine(), mock(JobExplorer.class));
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "testJob"), 1L, new JobParameters());
+        StepExecution stepExecution = new StepExecution("testStep", jobExecution, 2L);
+        ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+        Client client = new Client(1, "John Doe", 30);
+
+        listener.beforeJob(jobExecution);
+        listener.beforeStep(stepExecution);
+        listener.beforeChunk(chunkContext);
+        listener.beforeRead();
+        Thread.sleep(2);
+        listener.afterRead(client);
+        listener.beforeProcess(client);
+        Thread.sleep(2);
+        listener.afterProcess(client, client);
+        listener.beforeWrite(Chunk.of(client));
+        Thread.sleep(2);
+        listener.afterWrite(Chunk.of(client));
+        listener.afterChunk(chunkContext);
+        listener.afterStep(stepExecution);
+        listener.afterJob(jobExecution);
+
+        var context = stepExecution.getExecutionContext();
+        assertTrue(context.getLong(StepThroughputListener.READ_NANOS_KEY) >= 2_000_000);
+        assertTrue(context.getLong(StepThroughputListener.PROCESS_NANOS_KEY) >= 2_000_000);
+        assertTrue(context.getLong(StepThroughputListener.WRITE_NANOS_KEY) >= 2_000_000);
+        assertTrue(context.getLong(StepThroughputListener.ACTIVE_NANOS_KEY) >= 6_000_000);
+    }
+
+    @Test
+    void testCountsRuleChangesOfItsOwnStep() throws Exception {
+        EnhancedRuleEngine ruleEngine = new EnhancedRuleEngine();
+        StepThroughputListener<Client> listener = new StepThroughputListener<>(ruleEngine, mock(JobExplorer.class));
+        StepExecution stepExecution = new StepExecution("testStep",
+            new JobExecution(new JobInstance(1L, "testJob"), 1L, new JobParameters()), 2L);
+
+        listener.beforeStep(stepExecution);
+        ruleEngine.applyRules("name", "john doe");
+        ruleEngine.applyRules("name", "JANE DOE");
+        // Another job evaluating on its own thread
+        CompletableFuture.runAsync(() -> ruleEngine.applyRules("name", "other job")).get();
+        listener.afterStep(stepExecution);
+        ruleEngine.applyRules("name", "after the step");
+
+        assertEquals(Map.of("uppercase-name", 1L),
+            stepExecution.getExecutionContext().get(StepThroughputListener.RULE_CHANGES_KEY));
+    }
+
+    @Test
+    void testKeepsOneThroughputGaugePerStepExecution() {
+        StepThroughputListener<Client> listener = new StepThroughputListener<>(new EnhancedRuleEngine(), mock(JobExplorer.class));
+        StepExecution first = new StepExecution("gaugeStep",
+            new JobExecution(new JobInstance(1L, "testJob"), 1L, new JobParameters()), 11L);
+        StepExecution second = new StepExecution("gaugeStep",
+            new JobExecution(new JobInstance(2L, "testJob"), 2L, new JobParameters()), 12L);
+
+        listener.beforeStep(first);
+        listener.beforeStep(second);
+        assertEquals(2, Metrics.globalRegistry.find("batch.step.throughput").tag("step", "gaugeStep").gauges().size());
+
+        listener.afterStep(first);
+        listener.afterStep(second);
+        assertTrue(Metrics.globalRegistry.find("batch.step.throughput").tag("step", "gaugeStep").gauges().isEmpty());
+    }
+
+    @Test
+    void testNamesTheSlowestPhase() {
+        assertEquals("read (database) 50%", StepThroughputListener.bottleneck(50, 30, 20));
+        assertEquals("process (rules) 60%", StepThroughputListener.bottleneck(20, 60, 20));
+        assertEquals("write (output) 70%", StepThroughputListener.bottleneck(10, 20, 70));
+        assertEquals("-", StepThroughputListener.bottleneck(0, 0, 0));
+    }
+}
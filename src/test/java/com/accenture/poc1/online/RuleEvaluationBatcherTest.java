@@ -0,0 +1,86 @@
+package com.accenture.poc1.online;
+
+import com.accenture.poc1.rule.EnhancedRuleEngine;
+import com.accenture.poc1.rule.RecordRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RuleEvaluationBatcherTest {
+
+    private final EnhancedRuleEngine ruleEngine = mock(EnhancedRuleEngine.class);
+    private final RuleApiProperties properties = new RuleApiProperties();
+    private RuleEvaluationBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    void testEvaluatesEveryRecordInOrder() throws Exception {
+        when(ruleEngine.evaluateRecord(anyMap(), anyLong())).thenAnswer(invocation -> {
+            Map<String, ?> record = invocation.getArgument(0);
+            if ("bad".equals(record.get("email"))) {
+                throw new RecordRejectedException("validate-email", "Invalid email");
+            }
+            Map<String, String> fields = new LinkedHashMap<>();
+            record.forEach((name, value) -> fields.put(name, String.valueOf(value).toUpperCase()));
+            return fields;
+        });
+        batcher = start(1, 16, Duration.ofSeconds(1));
+
+        List<EvaluationResult> results = batcher.submit(List.of(
+            Map.of("name", "ann"),
+            Map.of("email", "bad"))).get(1, TimeUnit.SECONDS);
+
+        assertEquals(Map.of("name", "ANN"), results.get(0).getFields());
+        assertTrue(results.get(1).isRejected());
+        assertEquals("validate-email", results.get(1).getRejectedBy());
+    }
+
+    @Test
+    void testShedsWhenQueueIsFullOrRequestWaitedTooLong() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(ruleEngine.evaluateRecord(anyMap(), anyLong())).thenAnswer(invocation -> {
+            release.await();
+            return Map.of("name", "x");
+        });
+        batcher = start(1, 1, Duration.ofMillis(20));
+
+        CompletableFuture<List<EvaluationResult>> running = batcher.submit(List.of(Map.of("name", "a")));
+        // Wait until the worker has taken the first request off the queue
+        verify(ruleEngine, timeout(1_000)).evaluateRecord(anyMap(), anyLong());
+        CompletableFuture<List<EvaluationResult>> queued = batcher.submit(List.of(Map.of("name", "b")));
+        assertThrows(LoadSheddingException.class, () -> batcher.submit(List.of(Map.of("name", "c"))));
+
+        Thread.sleep(50);
+        release.countDown();
+        assertEquals("x", running.get(1, TimeUnit.SECONDS).get(0).getFields().get("name"));
+        ExecutionException shed = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(LoadSheddingException.class, shed.getCause());
+    }
+
+    private RuleEvaluationBatcher start(int workers, int queueCapacity, Duration timeout) {
+        properties.setWorkers(workers);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setTimeout(timeout);
+        RuleEvaluationBatcher started = new RuleEvaluationBatcher(ruleEngine, properties);
+        started.start();
+        return started;
+    }
+}
@@ -0,0 +1,120 @@
+package com.accenture.poc1.online;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "spring.main.web-application-type=servlet",
+    "spring.datasource.url=jdbc:h2:mem:online;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=MySQL"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RuleEvaluationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testEvaluatesSingleRecord() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/rules/evaluate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\": 1, \"name\": \"Lisa Chen\", \"age\": 30, \"phone\": \"12\"}"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.fields.name").value("*********"))
+            .andExpect(jsonPath("$.fields.age").value("Adult"))
+            .andExpect(jsonPath("$.fields.phone").value("000-000-0000"))
+            .andExpect(jsonPath("$.rejected").value(false));
+    }
+
+    @Test
+    void testEvaluatesArrayOfRecords() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/rules/evaluate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"name\": \"John Doe\"}, {\"email\": \"not-an-email\"}]"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].fields.name").value("JOHN DOE"))
+            .andExpect(jsonPath("$[1].fields.email").doesNotExist());
+    }
+
+    @Test
+    void testRejectsScalarBody() throws Exception {
+        mockMvc.perform(post("/api/rules/evaluate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("42"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testTimeoutShedsAndCompletesThePendingRequest() throws Exception {
+        RuleEvaluationBatcher batcher = mock(RuleEvaluationBatcher.class);
+        CompletableFuture<List<EvaluationResult>> pending = new CompletableFuture<>();
+        when(batcher.submit(any())).thenReturn(pending);
+        RuleApiProperties properties = new RuleApiProperties();
+        properties.setTimeout(Duration.ofMillis(20));
+        ObjectMapper objectMapper = new ObjectMapper();
+        RuleEvaluationController controller = new RuleEvaluationController(batcher, properties, objectMapper);
+
+        CompletableFuture<?> response = controller.evaluate(objectMapper.readTree("{\"name\": \"Lisa Chen\"}"));
+
+        assertThatThrownBy(response::get)
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(LoadSheddingException.class);
+        // The worker sees the request as done and skips it
+        assertThat(pending).isCompletedExceptionally();
+    }
+
+    @Test
+    void testTimedOutRequestIsAnsweredWith503() throws Exception {
+        RuleEvaluationBatcher batcher = mock(RuleEvaluationBatcher.class);
+        when(batcher.submit(any())).thenReturn(new CompletableFuture<>());
+        RuleApiProperties properties = new RuleApiProperties();
+        properties.setTimeout(Duration.ofMillis(20));
+        MockMvc standalone = MockMvcBuilders
+            .standaloneSetup(new RuleEvaluationController(batcher, properties, new ObjectMapper()))
+            .build();
+
+        MvcResult result = standalone.perform(post("/api/rules/evaluate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Lisa Chen\"}"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        standalone.perform(asyncDispatch(result))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "1"))
+            .andExpect(jsonPath("$.error").value("Rule evaluation timed out"));
+    }
+}
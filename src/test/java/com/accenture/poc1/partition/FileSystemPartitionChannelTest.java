@@ -0,0 +1,56 @@
+package com.accenture.poc1.partition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSystemPartitionChannelTest {
+
+    private static final Duration POLL = Duration.ofMillis(10);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEachRequestIsClaimedOnce() throws Exception {
+        FileSystemPartitionChannel manager = new FileSystemPartitionChannel(directory, POLL);
+        FileSystemPartitionChannel worker1 = new FileSystemPartitionChannel(directory, POLL);
+        FileSystemPartitionChannel worker2 = new FileSystemPartitionChannel(directory, POLL);
+
+        manager.sendRequest(new PartitionRequest(1, 10, "step", "hash"));
+
+        PartitionRequest received = worker1.receiveRequest(POLL);
+        assertEquals(10, received.getStepExecutionId());
+        assertEquals("hash", received.getRuleSetHash());
+        assertNull(worker2.receiveRequest(POLL));
+    }
+
+    @Test
+    void testReplyReachesManager() throws Exception {
+        FileSystemPartitionChannel channel = new FileSystemPartitionChannel(directory, POLL);
+        channel.sendRequest(new PartitionRequest(1, 11, "step", "hash"));
+        channel.receiveRequest(POLL);
+
+        channel.sendReply(new PartitionReply(11, "worker-1", false, "rule set mismatch"));
+        PartitionReply reply = channel.receiveReply(11, POLL);
+
+        assertFalse(reply.isAccepted());
+        assertEquals("worker-1", reply.getWorkerId());
+        // Consumed messages are cleaned up
+        try (var files = Files.walk(directory)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void testReceiveReplyTimesOut() throws Exception {
+        FileSystemPartitionChannel channel = new FileSystemPartitionChannel(directory, POLL);
+
+        assertNull(channel.receiveReply(12, Duration.ofMillis(50)));
+    }
+}
@@ -0,0 +1,43 @@
+package com.accenture.poc1.partition;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PartitionWorkerTest {
+
+    private final JobExplorer jobExplorer = mock(JobExplorer.class);
+    private final Step step = mock(Step.class);
+
+    @Test
+    void testRefusesDifferentRuleSet() throws Exception {
+        PartitionWorker worker = new PartitionWorker("w1", new InProcessPartitionChannel(), jobExplorer, step, () -> "bbb");
+
+        PartitionReply reply = worker.handle(new PartitionRequest(1, 2, "partitionStep", "aaa"));
+
+        assertFalse(reply.isAccepted());
+        assertTrue(reply.getMessage().contains("does not match"));
+        verify(step, never()).execute(any());
+    }
+
+    @Test
+    void testRunsPartitionWithSameRuleSet() throws Exception {
+        StepExecution stepExecution = mock(StepExecution.class);
+        when(step.getName()).thenReturn("partitionStep");
+        when(jobExplorer.getStepExecution(1L, 2L)).thenReturn(stepExecution);
+        when(stepExecution.getStatus()).thenReturn(BatchStatus.COMPLETED);
+        PartitionWorker worker = new PartitionWorker("w1", new InProcessPartitionChannel(), jobExplorer, step, () -> "aaa");
+
+        PartitionReply reply = worker.handle(new PartitionRequest(1, 2, "partitionStep", "aaa"));
+
+        assertTrue(reply.isAccepted());
+        assertEquals("COMPLETED", reply.getMessage());
+        verify(step).execute(stepExecution);
+    }
+}
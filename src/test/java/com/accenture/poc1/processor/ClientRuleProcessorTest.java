@@ -53,9 +53,40 @@ class ClientRuleProcessorTest {
         assertEquals("Senior", processedClient.getAgeCategory());
     }
 
+    @Test
+    void testProcessPassThroughClient() throws Exception {
+        Client inputClient = new Client();
+        inputClient.setIdText("6");
+        inputClient.setName("Carol White");
+        inputClient.setAgeText("50");
+
+        Client processedClient = clientRuleProcessor.process(inputClient);
+
+        assertNotNull(processedClient);
+        assertNull(processedClient.getId(), "Pass-through columns are not decoded");
+        assertEquals("6", processedClient.getIdText());
+        assertEquals("50", processedClient.getAgeText());
+        assertEquals("CAROL WHITE", processedClient.getName());
+        assertEquals("Senior", processedClient.getAgeCategory());
+    }
+
     @Test
     void testProcessNullClient() throws Exception {
         Client result = clientRuleProcessor.process(null);
         assertNull(result, "Null input should return null");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReusesItemAndCanonicalValues() throws Exception {
+        Client first = new Client(4, "ALREADY UPPER", 30);
+        Client second = new Client(5, "Someone Else", 35);
+        String name = first.getName();
+
+        Client processedFirst = clientRuleProcessor.process(first);
+        Client processedSecond = clientRuleProcessor.process(second);
+
+        assertSame(first, processedFirst, "Rules are applied in place");
+        assertSame(name, processedFirst.getName(), "Unchanged values keep their reference");
+        assertSame(processedFirst.getAgeCategory(), processedSecond.getAgeCategory(), "Category labels are shared");
+    }
+}
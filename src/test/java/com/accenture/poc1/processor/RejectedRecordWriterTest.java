@@ -0,0 +1,68 @@
+package com.accenture.poc1.processor;
+
+import com.accenture.poc1.config.ClientExportProperties;
+import com.accenture.poc1.model.Client;
+import com.accenture.poc1.rule.EnhancedRuleEngine;
+import com.accenture.poc1.rule.RuleEngineProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RejectedRecordWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRejectedClientsAreFilteredAndWrittenToRejectsFile() throws Exception {
+        Path file = directory.resolve("rejects.csv");
+        ClientExportProperties exportProperties = new ClientExportProperties();
+        exportProperties.getRejects().setPath(file.toString());
+        RuleEngineProperties ruleProperties = new RuleEngineProperties();
+        ruleProperties.setRulesLocation("classpath:rules/reject-rules.json");
+        EnhancedRuleEngine engine = new EnhancedRuleEngine(ruleProperties);
+        RejectedRecordWriter rejects = new RejectedRecordWriter(exportProperties);
+        ClientRuleProcessor processor = new ClientRuleProcessor(engine, rejects);
+
+        assertNull(processor.process(new Client(1, "Ann \"Nan\" Lee", 150)));
+        Client accepted = processor.process(new Client(2, "Bob Stone", 40));
+        Client passThrough = new Client();
+        passThrough.setIdText("3");
+        passThrough.setName("Cy Reed");
+        passThrough.setAgeText("-4");
+        assertNull(processor.process(passThrough));
+        rejects.close();
+        engine.close();
+
+        assertEquals("BOB STONE", accepted.getName());
+        assertEquals(2, engine.getRuleMetrics().get("validate-age-range").getRejectionCount());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(RejectedRecordWriter.CSV_HEADER, lines.get(0));
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(1).endsWith(",1,\"validate-age-range\",\"age\",\"Age out of range\",\"1\",\"Ann \"\"Nan\"\" Lee\",\"150\""));
+        assertTrue(lines.get(2).endsWith(",3,\"validate-age-range\",\"age\",\"Age out of range\",\"3\",\"Cy Reed\",\"-4\""));
+    }
+
+    @Test
+    void testDisabledRejectsFileIsNotCreated() throws Exception {
+        Path file = directory.resolve("rejects.csv");
+        ClientExportProperties exportProperties = new ClientExportProperties();
+        exportProperties.getRejects().setEnabled(false);
+        exportProperties.getRejects().setPath(file.toString());
+        RuleEngineProperties ruleProperties = new RuleEngineProperties();
+        ruleProperties.setRulesLocation("classpath:rules/reject-rules.json");
+        EnhancedRuleEngine engine = new EnhancedRuleEngine(ruleProperties);
+        RejectedRecordWriter rejects = new RejectedRecordWriter(exportProperties);
+
+        assertNull(new ClientRuleProcessor(engine, rejects).process(new Client(1, "Ann Lee", 150)));
+        rejects.close();
+        engine.close();
+
+        assertFalse(Files.exists(file));
+    }
+}
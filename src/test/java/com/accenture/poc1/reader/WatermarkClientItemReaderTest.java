@@ -0,0 +1,149 @@
+package com.accenture.poc1.reader;
+
+import com.accenture.poc1.model.Client;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WatermarkClientItemReaderTest {
+
+    private final JobExplorer jobExplorer = mock(JobExplorer.class);
+    private long nextInstanceId = 10;
+    private EmbeddedDatabase dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE client (id INT PRIMARY KEY, name VARCHAR(50), age INT, batch_no INT)");
+        jdbc.update("INSERT INTO client VALUES (1, 'A', 30, 10), (2, 'B', 31, 10), (3, 'C', 32, 10), (4, 'D', 33, 20)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void testResumesWithinRowsSharingTheWatermark() throws Exception {
+        previousRuns(completedRun("output=a.csv", 10, 2));
+
+        assertEquals(List.of(3, 4), readIds(reader(2), "a.csv"));
+    }
+
+    @Test
+    void testIgnoresWatermarkOfOtherScope() throws Exception {
+        previousRuns(completedRun("output=a.csv", 20, 4));
+
+        assertEquals(List.of(1, 2, 3, 4), readIds(reader(2), "b.csv"));
+    }
+
+    @Test
+    void testFailsWhenLookbackHoldsNoCompletedRun() {
+        JobExecution failed = completedRun("output=a.csv", 20, 4);
+        failed.setStatus(BatchStatus.FAILED);
+        previousRuns(failed, failed);
+
+        WatermarkClientItemReader reader = reader(2);
+        assertThrows(IllegalStateException.class, () -> reader.beforeStep(stepExecution("a.csv")));
+    }
+
+    @Test
+    void testNewScopeStartsWhenLookbackIsFull() throws Exception {
+        previousRuns(completedRun("output=a.csv", 20, 4), completedRun("output=a.csv", 10, 3),
+            completedRun("output=a.csv", 10, 2));
+
+        assertEquals(List.of(1, 2, 3, 4), readIds(reader(2), "b.csv"));
+    }
+
+    @Test
+    void testFailsWhenKnownScopeIsBeyondLookback() {
+        JobExecution newest = completedRun("output=b.csv", 20, 4);
+        newest.getExecutionContext().put(WatermarkClientItemReader.KNOWN_SCOPES_KEY,
+            new ArrayList<>(List.of("output=a.csv", "output=b.csv")));
+        previousRuns(newest, newest, completedRun("output=a.csv", 10, 2));
+
+        WatermarkClientItemReader reader = reader(2);
+        assertThrows(IllegalStateException.class, () -> reader.beforeStep(stepExecution("a.csv")));
+    }
+
+    @Test
+    void testSavesScopeAndWatermarkInJobContext() throws Exception {
+        previousRuns();
+        StepExecution stepExecution = stepExecution("a.csv");
+        WatermarkClientItemReader reader = reader(2);
+        reader.beforeStep(stepExecution);
+        reader.open(new ExecutionContext());
+        while (reader.read() != null) {
+        }
+        reader.close();
+        reader.afterStep(stepExecution);
+
+        ExecutionContext context = stepExecution.getJobExecution().getExecutionContext();
+        assertEquals("output=a.csv", context.getString(WatermarkClientItemReader.WATERMARK_SCOPE_KEY));
+        assertEquals(20, context.get(WatermarkClientItemReader.WATERMARK_KEY));
+        assertEquals(4, context.get(WatermarkClientItemReader.WATERMARK_ID_KEY));
+        assertEquals(List.of("output=a.csv"), context.get(WatermarkClientItemReader.KNOWN_SCOPES_KEY));
+    }
+
+    private WatermarkClientItemReader reader(int lookback) {
+        return new WatermarkClientItemReader(dataSource, jobExplorer, "batch_no", new ClientRowMapper(false),
+            parameters -> "output=" + parameters.getString("output"), lookback);
+    }
+
+    private List<Integer> readIds(WatermarkClientItemReader reader, String output) throws Exception {
+        reader.beforeStep(stepExecution(output));
+        reader.open(new ExecutionContext());
+        List<Integer> ids = new ArrayList<>();
+        for (Client client = reader.read(); client != null; client = reader.read()) {
+            ids.add(client.getId());
+        }
+        reader.close();
+        return ids;
+    }
+
+    private void previousRuns(JobExecution... executions) {
+        List<JobInstance> instances = new ArrayList<>();
+        for (JobExecution execution : executions) {
+            instances.add(execution.getJobInstance());
+            when(jobExplorer.getJobExecutions(execution.getJobInstance())).thenReturn(List.of(execution));
+        }
+        when(jobExplorer.getJobInstances(eq("testJob"), eq(0), anyInt())).thenAnswer(invocation ->
+            instances.subList(0, Math.min(instances.size(), invocation.<Integer>getArgument(2))));
+    }
+
+    private JobExecution completedRun(String scope, int watermark, int id) {
+        long instanceId = nextInstanceId++;
+        JobExecution execution = new JobExecution(new JobInstance(instanceId, "testJob"), instanceId,
+            new JobParameters());
+        execution.setStatus(BatchStatus.COMPLETED);
+        execution.getExecutionContext().putString(WatermarkClientItemReader.WATERMARK_SCOPE_KEY, scope);
+        execution.getExecutionContext().put(WatermarkClientItemReader.WATERMARK_KEY, watermark);
+        execution.getExecutionContext().put(WatermarkClientItemReader.WATERMARK_ID_KEY, id);
+        return execution;
+    }
+
+    private static StepExecution stepExecution(String output) {
+        JobParameters parameters = new JobParametersBuilder().addString("output", output).toJobParameters();
+        JobExecution jobExecution = new JobExecution(new JobInstance(2L, "testJob"), 2L, parameters);
+        return new StepExecution("exportStep", jobExecution, 3L);
+    }
+}
@@ -0,0 +1,109 @@
+package com.accenture.poc1.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CoalescingJobRepositoryTest {
+
+    private final JobRepository delegate = mock(JobRepository.class);
+    private final AtomicLong now = new AtomicLong();
+    private final CoalescingJobRepository repository =
+        new CoalescingJobRepository(delegate, Duration.ofSeconds(5), 100, now::get);
+    private StepExecution step;
+
+    @BeforeEach
+    void setUp() {
+        JobExecution job = new JobExecution(new JobInstance(1L, "testJob"), 1L, new JobParameters());
+        step = new StepExecution("testStep", job, 2L);
+        step.setStatus(BatchStatus.STARTED);
+    }
+
+    @Test
+    void testSavesRunningStepOnlyAtCheckpoints() {
+        repository.update(step);
+        verify(delegate, times(1)).update(step);
+
+        commit(10);
+        commit(10);
+        verify(delegate, times(1)).update(step);
+        verify(delegate, never()).updateExecutionContext(step);
+
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        commit(10);
+        verify(delegate, times(2)).update(step);
+        verify(delegate, times(1)).updateExecutionContext(step);
+
+        commit(10);
+        verify(delegate, times(2)).update(step);
+    }
+
+    @Test
+    void testSavesAfterItemInterval() {
+        repository.update(step);
+
+        commit(60);
+        verify(delegate, never()).updateExecutionContext(step);
+        commit(60);
+        verify(delegate, times(1)).updateExecutionContext(step);
+        verify(delegate, times(2)).update(step);
+    }
+
+    @Test
+    void testAlwaysSavesFinishedStep() {
+        repository.update(step);
+        commit(10);
+
+        step.setStatus(BatchStatus.COMPLETED);
+        repository.updateExecutionContext(step);
+        step.setEndTime(LocalDateTime.now());
+        repository.update(step);
+
+        verify(delegate, times(1)).updateExecutionContext(step);
+        verify(delegate, times(2)).update(step);
+    }
+
+    @Test
+    void testSavesContextAndCountsOfTheSameChunk() {
+        List<Long> savedPositions = new ArrayList<>();
+        List<Long> savedReadCounts = new ArrayList<>();
+        doAnswer(invocation -> savedPositions.add(step.getExecutionContext().getLong("position")))
+            .when(delegate).updateExecutionContext(step);
+        doAnswer(invocation -> savedReadCounts.add(step.getReadCount())).when(delegate).update(step);
+        repository.update(step);
+        savedReadCounts.clear();
+
+        for (int chunk = 0; chunk < 20; chunk++) {
+            step.setReadCount(step.getReadCount() + 10);
+            step.getExecutionContext().putLong("position", step.getReadCount());
+            repository.updateExecutionContext(step);
+            // The interval runs out between the two saves of a chunk
+            now.addAndGet(Duration.ofSeconds(2).toNanos());
+            repository.update(step);
+        }
+
+        // A crash now restarts from the last save of both
+        assertFalse(savedPositions.isEmpty());
+        assertEquals(savedPositions, savedReadCounts);
+    }
+
+    private void commit(int items) {
+        step.setReadCount(step.getReadCount() + items);
+        repository.updateExecutionContext(step);
+        repository.update(step);
+    }
+}
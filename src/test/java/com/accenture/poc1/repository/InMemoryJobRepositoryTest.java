@@ -0,0 +1,58 @@
+package com.accenture.poc1.repository;
+
+import com.accenture.poc1.config.TestBatchConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.sql.init.mode=always",
+    "spring.datasource.url=jdbc:h2:mem:inmemoryrepo;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=MySQL",
+    "client-export.output=target/in-memory-repository-test.csv",
+    "job-repository.mode=in-memory"
+})
+@ActiveProfiles("test")
+@EnableAutoConfiguration
+@Import(TestBatchConfiguration.class)
+class InMemoryJobRepositoryTest {
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    @Qualifier("clientToCsvJob")
+    private Job clientToCsvJob;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testJobMetadataStaysOutOfTheApplicationDatabase() throws Exception {
+        int clients = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM client", Integer.class);
+
+        JobExecution execution = jobLauncher.run(clientToCsvJob, new JobParametersBuilder()
+            .addLong("time", System.nanoTime())
+            .toJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+        assertEquals(clients, jobExplorer.getJobExecution(execution.getId()).getStepExecutions().iterator().next()
+            .getWriteCount());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_JOB_EXECUTION", Integer.class));
+    }
+}
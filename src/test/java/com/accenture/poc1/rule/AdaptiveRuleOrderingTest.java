@@ -0,0 +1,116 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.model.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveRuleOrderingTest {
+
+    private static final List<String> LOADED_AGE_ORDER = List.of("age-cat-young", "age-cat-adult", "age-cat-senior");
+
+    private EnhancedRuleEngine engineWith(RuleEngineProperties.AdaptiveOrdering settings) {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.setAdaptiveOrdering(settings);
+        return new EnhancedRuleEngine(properties);
+    }
+
+    private RuleEngineProperties.AdaptiveOrdering enabled(long reorderInterval) {
+        RuleEngineProperties.AdaptiveOrdering settings = new RuleEngineProperties.AdaptiveOrdering();
+        settings.setEnabled(true);
+        settings.setReorderInterval(reorderInterval);
+        return settings;
+    }
+
+    @Test
+    void testAgeCategoriesFormOneExclusiveGroup() {
+        List<Rule> ageRules = new EnhancedRuleEngine().getRulesForField("age");
+
+        assertArrayEquals(new int[]{3, 3, 3}, ExclusiveRuleGroups.groupEnds(ageRules));
+    }
+
+    @Test
+    void testOverlappingRangesAreNotGrouped() {
+        Rule young = categorize("young", "<=", 25, "Young");
+        Rule teen = categorize("teen", "<=", 19, "Teen");
+        Rule numeric = categorize("numeric", ">", 40, "50");
+
+        assertArrayEquals(new int[]{1, 2}, ExclusiveRuleGroups.groupEnds(List.of(young, teen)));
+        assertArrayEquals(new int[]{1, 2}, ExclusiveRuleGroups.groupEnds(List.of(young, numeric)));
+    }
+
+    @Test
+    void testFrequentlyMatchingRuleMovesToFront() {
+        EnhancedRuleEngine engine = engineWith(enabled(100));
+        assertEquals(LOADED_AGE_ORDER, engine.getRuleOrder().get("age"));
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals("Senior", engine.applyRules("age", 50 + i % 30));
+        }
+
+        assertEquals("age-cat-senior", engine.getRuleOrder().get("age").get(0));
+        assertTrue(engine.getRuleMetrics().get("age-cat-senior").getMatchCount() > 0);
+
+        // Re-ordering must not change any outcome
+        assertEquals("Young", engine.applyRules("age", "20"));
+        assertEquals("Adult", engine.applyRules("age", "30"));
+        assertEquals("Senior", engine.applyRules("age", "41"));
+        assertEquals("abc", engine.applyRules("age", "abc"));
+    }
+
+    @Test
+    void testFrozenOrderDoesNotChange() {
+        EnhancedRuleEngine engine = engineWith(enabled(100));
+        engine.freezeRuleOrder();
+
+        for (int i = 0; i < 1_000; i++) {
+            engine.applyRules("age", "60");
+        }
+
+        assertTrue(engine.isRuleOrderFrozen());
+        assertEquals(LOADED_AGE_ORDER, engine.getRuleOrder().get("age"));
+    }
+
+    @Test
+    void testPinnedOrderIsAppliedAtLoad() {
+        RuleEngineProperties.AdaptiveOrdering settings = enabled(100);
+        settings.setPinnedOrder(Map.of("age", List.of("age-cat-adult", "age-cat-senior", "age-cat-young")));
+        EnhancedRuleEngine engine = engineWith(settings);
+
+        for (int i = 0; i < 1_000; i++) {
+            engine.applyRules("age", "20");
+        }
+
+        assertEquals(List.of("age-cat-adult", "age-cat-senior", "age-cat-young"), engine.getRuleOrder().get("age"));
+        // Only exclusive groups move, so name rules keep their priority order
+        assertEquals(List.of("mask-chen-names", "mask-david-thomas", "uppercase-name"), engine.getRuleOrder().get("name"));
+    }
+
+    @Test
+    void testCompiledBackendFollowsPinnedOrder() {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.setBackend(RuleEngineProperties.Backend.COMPILED);
+        properties.getAdaptiveOrdering().setPinnedOrder(
+            Map.of("age", List.of("age-cat-senior", "age-cat-adult", "age-cat-young")));
+        EnhancedRuleEngine engine = new EnhancedRuleEngine(properties);
+
+        assertEquals("Young", engine.applyRules("age", "25"));
+        assertEquals("Adult", engine.applyRules("age", "26"));
+        assertEquals("Senior", engine.applyRules("age", "99"));
+    }
+
+    private Rule categorize(String id, String operator, int value, String label) {
+        return Rule.builder()
+            .id(id)
+            .fieldName("age")
+            .type("CATEGORIZE")
+            .priority(100)
+            .enabled(true)
+            .condition(Rule.RuleCondition.builder().operator(operator).value(value).build())
+            .action(label)
+            .build();
+    }
+}
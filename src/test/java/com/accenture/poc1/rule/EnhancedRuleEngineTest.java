@@ -41,8 +41,12 @@ class EnhancedRuleEngineTest {
         String validEmail = ruleEngine.applyRules("email", "test@example.com");
         assertEquals("test@example.com", validEmail, "Valid email should pass through");
         
-        String invalidEmail = ruleEngine.applyRules("email", "invalid-email");
-        assertNull(invalidEmail, "Invalid email should be rejected");
+        RecordRejectedException rejected = assertThrows(RecordRejectedException.class,
+            () -> ruleEngine.applyRules("email", "invalid-email"), "Invalid email should be rejected");
+        assertEquals("validate-email", rejected.getRuleId());
+        assertEquals("email", rejected.getFieldName());
+        assertEquals("Invalid email format", rejected.getMessage());
+        assertEquals(1, ruleEngine.getRuleMetrics().get("validate-email").getRejectionCount());
         
         // Test phone validation with default value
         String validPhone = ruleEngine.applyRules("phone", "555-123-4567");
@@ -246,6 +250,38 @@ class EnhancedRuleEngineTest {
         assertFalse(condition.evaluate("31"));
     }
 
+    @Test
+    void testConditionsWithoutCopies() {
+        Rule.RuleCondition condition = new Rule.RuleCondition();
+        condition.setCaseSensitive(false);
+        
+        condition.setOperator("STARTS_WITH");
+        condition.setValue("ab");
+        assertTrue(condition.evaluate("ABC"));
+        assertFalse(condition.evaluate("a"));
+        
+        condition.setOperator("ENDS_WITH");
+        condition.setValue("bc");
+        assertTrue(condition.evaluate("xBC"));
+        assertFalse(condition.evaluate("c"));
+        
+        // Numeric thresholds given as strings still parse
+        condition.setOperator(">=");
+        condition.setValue("18");
+        assertTrue(condition.evaluate("18"));
+        assertFalse(condition.evaluate("17"));
+    }
+
+    @Test
+    void testConstantOutputsAreShared() {
+        assertSame(ruleEngine.applyRules("name", "Lisa Chen"), ruleEngine.applyRules("name", "Tom Chen"));
+        assertSame(ruleEngine.applyRules("age", 30), ruleEngine.applyRules("age", 35));
+        assertSame(EnhancedRuleEngine.asString(42), EnhancedRuleEngine.asString(42));
+        
+        String unchanged = "JOHN DOE";
+        assertSame(unchanged, ruleEngine.applyRules("name", unchanged));
+    }
+
     @Test
     void testComplexScenarios() {
         // Test rule short-circuiting with MASK rules
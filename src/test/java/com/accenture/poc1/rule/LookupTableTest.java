@@ -0,0 +1,160 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.RuleEngineProperties.Backend;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LookupTableTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLooksUpKeysAcrossSegments() throws Exception {
+        StringBuilder csv = new StringBuilder("key,value\n");
+        for (int i = 0; i < 5_000; i++) {
+            csv.append("key-").append(i).append(",value-").append(i).append('\n');
+        }
+        Path file = directory.resolve("numbers.lkp");
+        // 64-byte segments force padding after almost every record
+        LookupTable.build(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), file, 6);
+        LookupTable table = LookupTable.open(file);
+
+        assertEquals(5_000, table.size());
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals("value-" + i, table.get("key-" + i));
+        }
+        assertNull(table.get("key-5000"));
+        assertNull(table.get("key-"));
+    }
+
+    @Test
+    void testKeepsFirstOfDuplicateKeysAndUnicode() throws Exception {
+        String csv = "key,value\nZürich,CH-1\n\"Zürich\",CH-2\nкод,\"a, b\"\n😀,emoji\n";
+        Path file = directory.resolve("unicode.lkp");
+        LookupTable.build(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), file);
+        LookupTable table = LookupTable.open(file);
+
+        assertEquals(3, table.size());
+        assertEquals("CH-1", table.get("Zürich"));
+        assertEquals("a, b", table.get("код"));
+        assertEquals("emoji", table.get("😀"));
+        assertNull(table.get("Zurich"));
+    }
+
+    @Test
+    void testRebuildsWhenCsvIsNewer() throws Exception {
+        Path csv = directory.resolve("regions.csv");
+        Path file = directory.resolve("regions.lkp");
+        Files.writeString(csv, "code,region\n1,North\n");
+        assertEquals("North", LookupTable.load(csv.toUri().toString(), file).get("1"));
+
+        Files.writeString(csv, "code,region\n1,South\n");
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1_000));
+        assertEquals("South", LookupTable.load(csv.toUri().toString(), file).get("1"));
+    }
+
+    @Test
+    void testRebuildsWhenCsvIsReplacedByAnOlderCopy() throws Exception {
+        Path csv = directory.resolve("regions.csv");
+        Path file = directory.resolve("regions.lkp");
+        Files.writeString(csv, "code,region\n1,North-East\n");
+        assertEquals("North-East", LookupTable.load(csv.toUri().toString(), file).get("1"));
+
+        // Restored from a backup: older than the hash file built from its successor
+        Files.writeString(csv, "code,region\n1,South\n");
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() - 60_000));
+        assertEquals("South", LookupTable.load(csv.toUri().toString(), file).get("1"));
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count(), "temporary build files are removed");
+        }
+    }
+
+    @Test
+    void testTableAndListOfTheSameNameKeepSeparateFiles() {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.setRulesLocation("classpath:rules/watch-list-rules.json");
+        properties.getLookup().getTables().put("privacy-names", "classpath:lookup/postal-regions.csv");
+        properties.getLookup().getLists().put("privacy-names", "classpath:lookup/watch-names.txt");
+        properties.getLookup().setDirectory(directory.toString());
+        EnhancedRuleEngine engine = new EnhancedRuleEngine(properties);
+
+        assertEquals("WATCHED", engine.applyRules("alias", "Maria Müller"));
+        assertEquals("*********", engine.applyRules("name", "maria müller"));
+        assertTrue(Files.isRegularFile(directory.resolve("tables/privacy-names.lkp")));
+        assertTrue(Files.isRegularFile(directory.resolve("lists/privacy-names.lkp")));
+        assertTrue(Files.isRegularFile(directory.resolve("lists-ci/privacy-names.lkp")));
+    }
+
+    @Test
+    void testCaseFoldedListAndBloomFilter() throws Exception {
+        StringBuilder list = new StringBuilder("# watch list\n");
+        for (int i = 0; i < 20_000; i++) {
+            list.append("Name ").append(i).append('\n');
+        }
+        list.append("ÉMILIE Zoë\n");
+        Path file = directory.resolve("names.lkp");
+        LookupTable.buildList(new ByteArrayInputStream(list.toString().getBytes(StandardCharsets.UTF_8)), file, true);
+        LookupTable table = LookupTable.open(file);
+
+        assertTrue(table.isCaseFolded());
+        assertEquals(20_001, table.size());
+        assertTrue(table.contains("name 19999"));
+        assertTrue(table.contains("NAME 7"));
+        assertTrue(table.contains("émilie zoË"));
+        assertFalse(table.contains("# watch list"));
+        assertEquals("", table.get("Name 1"));
+
+        int passedBloom = 0;
+        for (int i = 0; i < 100_000; i++) {
+            assertFalse(table.contains("Other " + i));
+            if (table.mightContain("Other " + i)) {
+                passedBloom++;
+            }
+        }
+        assertTrue(passedBloom < 2_000, passedBloom + " misses passed the Bloom filter");
+    }
+
+    @Test
+    void testInListCondition() {
+        for (Backend backend : Backend.values()) {
+            RuleEngineProperties properties = new RuleEngineProperties();
+            properties.setRulesLocation("classpath:rules/watch-list-rules.json");
+            properties.setBackend(backend);
+            properties.getLookup().getLists().put("privacy-names", "classpath:lookup/watch-names.txt");
+            properties.getLookup().setDirectory(directory.toString());
+            EnhancedRuleEngine engine = new EnhancedRuleEngine(properties);
+
+            assertEquals("*********", engine.applyRules("name", "DAVID THOMAS"), backend.name());
+            assertEquals("*********", engine.applyRules("name", "émilie zoë"), backend.name());
+            assertEquals("David Thompson", engine.applyRules("name", "David Thompson"), backend.name());
+            assertEquals("WATCHED", engine.applyRules("alias", "Maria Müller"), backend.name());
+            assertEquals("maria müller", engine.applyRules("alias", "maria müller"), backend.name());
+        }
+    }
+
+    @Test
+    void testEnrichRule() {
+        for (Backend backend : Backend.values()) {
+            RuleEngineProperties properties = new RuleEngineProperties();
+            properties.setRulesLocation("classpath:rules/enrich-rules.json");
+            properties.setBackend(backend);
+            properties.getLookup().getTables().put("postal-regions", "classpath:lookup/postal-regions.csv");
+            properties.getLookup().setDirectory(directory.toString());
+            EnhancedRuleEngine engine = new EnhancedRuleEngine(properties);
+
+            assertEquals("München", engine.applyRules("postalCode", "80331"), backend.name());
+            assertEquals("Hamburg, Altstadt", engine.applyRules("postalCode", 20095), backend.name());
+            assertEquals("Unknown", engine.applyRules("postalCode", "99999"), backend.name());
+            assertEquals("ACME", engine.applyRules("employer", "ACME"), backend.name());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.model.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordEvaluatorTest {
+
+    @Test
+    void testEveryFieldWithRulesIsItsOwnGroup() {
+        EnhancedRuleEngine engine = new EnhancedRuleEngine();
+        FieldDependencyGraph graph = FieldDependencyGraph.of(Map.of(
+            "name", engine.getRulesForField("name"),
+            "age", engine.getRulesForField("age"),
+            "ssn", engine.getRulesForField("ssn")));
+
+        assertEquals(3, graph.groupCount());
+        assertNotEquals(graph.groupOf("name"), graph.groupOf("age"));
+        assertEquals(-1, graph.groupOf("city"));
+    }
+
+    @Test
+    void testEvaluatesRecordInFieldOrder() {
+        EnhancedRuleEngine engine = new EnhancedRuleEngine();
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", 7);
+        record.put("name", "Michael Chen");
+        record.put("age", 41);
+        record.put("city", "Berlin");
+
+        Map<String, String> result = engine.evaluateRecord(record);
+
+        assertEquals(List.of("id", "name", "age", "city"), List.copyOf(result.keySet()));
+        assertEquals("7", result.get("id"));
+        assertEquals(engine.applyRules("name", "Michael Chen"), result.get("name"));
+        assertEquals("Senior", result.get("age"));
+        assertEquals("Berlin", result.get("city"));
+    }
+
+    @Test
+    void testParallelEvaluationMatchesSequential() {
+        EnhancedRuleEngine sequential = new EnhancedRuleEngine();
+        EnhancedRuleEngine parallel = new EnhancedRuleEngine(parallelProperties());
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("name", "David Thomas");
+        record.put("age", 30);
+        record.put("ssn", "123-45-6789");
+        record.put("phone", "5551234567");
+        record.put("comments", "badword1 here");
+        record.put("country", "DE");
+
+        assertEquals(sequential.evaluateRecord(record), parallel.evaluateRecord(record));
+        parallel.close();
+    }
+
+    @Test
+    void testPlansTasksOnlyAboveThreshold() {
+        RuleEngineProperties properties = parallelProperties();
+        EnhancedRuleEngine engine = new EnhancedRuleEngine(properties);
+        RecordEvaluator evaluator = new RecordEvaluator(engine, properties.getParallel());
+        evaluator.rebuild(rulesByField(engine, "name", "age", "ssn", "phone", "comments"));
+        String[] fields = {"name", "age", "ssn", "phone", "comments", "country"};
+
+        int[][] tasks = evaluator.plan(fields);
+        assertNotNull(tasks);
+        assertEquals(4, tasks.length);
+
+        properties.getParallel().setThreshold(Duration.ofSeconds(1));
+        RecordEvaluator cheap = new RecordEvaluator(engine, properties.getParallel());
+        cheap.rebuild(rulesByField(engine, "name", "age", "ssn", "phone", "comments"));
+        assertNull(cheap.plan(fields));
+        cheap.close();
+        evaluator.close();
+        engine.close();
+    }
+
+    @Test
+    void testRejectionFromAnyGroupRejectsRecord() {
+        RuleEngineProperties properties = parallelProperties();
+        properties.setRulesLocation("classpath:rules/regex-budget-rules.json");
+        properties.getRegex().setStepBudget(100_000);
+        properties.getRegex().setTimeoutPolicy(RuleEngineProperties.RegexTimeoutPolicy.REJECT_ITEM);
+        EnhancedRuleEngine engine = new EnhancedRuleEngine(properties);
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("notes", "xxxy");
+        record.put("comments", "a".repeat(40) + "!");
+
+        RecordRejectedException e = assertThrows(RecordRejectedException.class, () -> engine.evaluateRecord(record));
+        assertEquals("mask-repeated-a", e.getRuleId());
+        engine.close();
+    }
+
+    private static Map<String, List<Rule>> rulesByField(EnhancedRuleEngine engine, String... fields) {
+        Map<String, List<Rule>> rules = new LinkedHashMap<>();
+        for (String field : fields) {
+            rules.put(field, engine.getRulesForField(field));
+        }
+        return rules;
+    }
+
+    private static RuleEngineProperties parallelProperties() {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getParallel().setEnabled(true);
+        properties.getParallel().setParallelism(4);
+        properties.getParallel().setThreshold(Duration.ZERO);
+        return properties;
+    }
+}
@@ -0,0 +1,83 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.RuleEngineProperties.Backend;
+import com.accenture.poc1.rule.RuleEngineProperties.RegexTimeoutPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegexGuardTest {
+
+    private static final String NEAR_MISS = "a".repeat(40) + "!";
+
+    @Test
+    void testBudgetStopsCatastrophicBacktracking() {
+        RuleEngineProperties.Regex settings = new RuleEngineProperties.Regex();
+        settings.setStepBudget(100_000);
+        settings.setTimeBudget(Duration.ZERO);
+        RegexGuard guard = new RegexGuard(settings);
+        Pattern pattern = guard.pattern("^(a+)+\\1$", true);
+
+        // The backreference defeats the JDK's memoization of nested quantifiers
+        assertTrue(guard.find(pattern, "aaaa"));
+        assertFalse(guard.find(pattern, "aab!"));
+        assertThrows(RegexTimeoutException.class, () -> guard.find(pattern, NEAR_MISS));
+        assertSame(pattern, guard.pattern("^(a+)+\\1$", true));
+    }
+
+    @Test
+    void testTimeBudgetAloneStopsEvaluation() {
+        RuleEngineProperties.Regex settings = new RuleEngineProperties.Regex();
+        settings.setStepBudget(0);
+        settings.setTimeBudget(Duration.ofMillis(20));
+        RegexGuard guard = new RegexGuard(settings);
+
+        assertThrows(RegexTimeoutException.class, () -> guard.find(guard.pattern("^(a+)+\\1$", true), NEAR_MISS));
+    }
+
+    @Test
+    void testSkipRuleLeavesValueToLaterRules() {
+        for (Backend backend : Backend.values()) {
+            EnhancedRuleEngine engine = engine(backend, RegexTimeoutPolicy.SKIP_RULE);
+
+            assertEquals("***", engine.applyRules("comments", "aaaa"), backend.name());
+            assertEquals(NEAR_MISS.toUpperCase(), engine.applyRules("comments", NEAR_MISS), backend.name());
+            assertEquals("-", engine.applyRules("notes", "xxxy"), backend.name());
+            assertEquals("x".repeat(40), engine.applyRules("notes", "x".repeat(40)), backend.name());
+            assertEquals(1, engine.getRuleMetrics().get("mask-repeated-a").getRegexTimeoutCount(), backend.name());
+            assertEquals(1, engine.getRuleMetrics().get("replace-x-run").getRegexTimeoutCount(), backend.name());
+        }
+    }
+
+    @Test
+    void testRejectItemPolicy() {
+        for (Backend backend : Backend.values()) {
+            EnhancedRuleEngine engine = engine(backend, RegexTimeoutPolicy.REJECT_ITEM);
+
+            RecordRejectedException e = assertThrows(RecordRejectedException.class,
+                () -> engine.applyRules("comments", NEAR_MISS), backend.name());
+            assertEquals("mask-repeated-a", e.getRuleId());
+        }
+    }
+
+    @Test
+    void testFailJobPolicy() {
+        for (Backend backend : Backend.values()) {
+            EnhancedRuleEngine engine = engine(backend, RegexTimeoutPolicy.FAIL_JOB);
+
+            assertThrows(RegexTimeoutException.class, () -> engine.applyRules("notes", "x".repeat(40)), backend.name());
+        }
+    }
+
+    private EnhancedRuleEngine engine(Backend backend, RegexTimeoutPolicy policy) {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.setRulesLocation("classpath:rules/regex-budget-rules.json");
+        properties.setBackend(backend);
+        properties.getRegex().setStepBudget(100_000);
+        properties.getRegex().setTimeoutPolicy(policy);
+        return new EnhancedRuleEngine(properties);
+    }
+}
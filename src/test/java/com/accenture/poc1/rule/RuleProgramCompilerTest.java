@@ -0,0 +1,91 @@
+package com.accenture.poc1.rule;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleProgramCompilerTest {
+
+    private static final List<String> FIELDS = List.of(
+        "name", "age", "ssn", "email", "phone", "birthDate", "comments", "unknown");
+
+    private EnhancedRuleEngine interpreter;
+    private EnhancedRuleEngine compiled;
+
+    @BeforeEach
+    void setUp() {
+        interpreter = new EnhancedRuleEngine();
+
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.setBackend(RuleEngineProperties.Backend.COMPILED);
+        compiled = new EnhancedRuleEngine(properties);
+    }
+
+    @Test
+    void testCompiledMatchesInterpreterOnKnownValues() {
+        List<String> values = List.of(
+            "", " ", "John Doe", "Michael Chen", "cheng", "DAVID THOMAS", "david thomas ",
+            "123-45-6789", "123456789", "test@example.com", "invalid-email",
+            "555-123-4567", "5551234567", "invalid", "2000-01-15", "not-a-date",
+            "This contains badword1 in text", "BADWORD2 badword3", "clean text",
+            "-1", "0", "25", "26", "40", "41", "2147483647", "-2147483648", "abc");
+
+        for (String field : FIELDS) {
+            for (String value : values) {
+                assertEquals(outcome(interpreter, field, value), outcome(compiled, field, value),
+                    "Backends disagree for field " + field + " value '" + value + "'");
+            }
+        }
+    }
+
+    @Test
+    void testCompiledMatchesInterpreterOnRandomValues() {
+        Random random = new Random(42);
+        String alphabet = "abcdefghijklmnopqrstuvwxyzCHENDAVIDTHOMS0123456789-@._ ()";
+
+        for (int i = 0; i < 5_000; i++) {
+            StringBuilder value = new StringBuilder();
+            int length = random.nextInt(16);
+            for (int j = 0; j < length; j++) {
+                value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String field = FIELDS.get(random.nextInt(FIELDS.size()));
+
+            assertEquals(outcome(interpreter, field, value.toString()), outcome(compiled, field, value.toString()),
+                "Backends disagree for field " + field + " value '" + value + "'");
+        }
+    }
+
+    @Test
+    void testCompiledHandlesNonStringValues() {
+        for (int age = -5; age <= 120; age++) {
+            assertEquals(interpreter.applyRules("age", age), compiled.applyRules("age", age));
+        }
+        assertNull(compiled.applyRules("age", null));
+    }
+
+    @Test
+    void testCompiledProgramSurvivesReload() {
+        compiled.reloadRules();
+
+        List<String> results = new ArrayList<>();
+        results.add(compiled.applyRules("name", "Michael Chen"));
+        results.add(compiled.applyRules("age", "30"));
+
+        assertEquals(List.of("*********", "Adult"), results);
+    }
+
+    // The result, or the rejecting rule for a rejected value
+    private static String outcome(EnhancedRuleEngine engine, String field, String value) {
+        try {
+            return engine.applyRules(field, value);
+        } catch (RecordRejectedException e) {
+            return "rejected by " + e.getRuleId();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.accenture.poc1.rule;
+
+import com.accenture.poc1.rule.RuleAnalysisReport.Finding;
+import com.accenture.poc1.rule.RuleAnalysisReport.FindingType;
+import com.accenture.poc1.rule.model.Rule;
+import com.accenture.poc1.rule.model.Rule.RuleCondition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleSetAnalyzerTest {
+
+    private final RuleSetAnalyzer analyzer = new RuleSetAnalyzer(true);
+
+    @Test
+    void testShippedRulesHaveNoDeadRules() {
+        EnhancedRuleEngine engine = new EnhancedRuleEngine();
+        RuleAnalysisReport report = engine.getAnalysisReport();
+
+        assertEquals(12, report.getRuleCount());
+        assertEquals(12, report.getLiveRuleCount());
+        assertTrue(report.getFindings().isEmpty());
+    }
+
+    @Test
+    void testUnsatisfiableRangeIsPruned() {
+        Rule impossible = rule("impossible", "age", "CATEGORIZE", 100, between(50, 40), "Never");
+
+        RuleAnalysisReport report = analyzer.analyze(List.of(impossible));
+
+        assertPruned(report, "impossible", FindingType.UNSATISFIABLE_CONDITION);
+        assertEquals(0, report.getLiveRuleCount());
+    }
+
+    @Test
+    void testCategorizeCoveredByEarlierRangesIsShadowed() {
+        Rule young = rule("young", "age", "CATEGORIZE", 100, condition("<=", 25), "Young");
+        Rule older = rule("older", "age", "CATEGORIZE", 100, condition(">", 25), "Older");
+        Rule retired = rule("retired", "age", "CATEGORIZE", 110, condition(">=", 65), "Retired");
+
+        RuleAnalysisReport report = analyzer.analyze(List.of(young, older, retired));
+
+        assertPruned(report, "retired", FindingType.SHADOWED_RULE);
+        assertFalse(report.isPruned(young));
+        assertFalse(report.isPruned(older));
+    }
+
+    @Test
+    void testPartiallyCoveredRangeIsKept() {
+        Rule young = rule("young", "age", "CATEGORIZE", 100, condition("<=", 25), "Young");
+        Rule senior = rule("senior", "age", "CATEGORIZE", 100, condition(">", 40), "Senior");
+        Rule adult = rule("adult", "age", "CATEGORIZE", 110, between(20, 40), "Adult");
+
+        assertTrue(analyzer.analyze(List.of(young, senior, adult)).getFindings().isEmpty());
+    }
+
+    @Test
+    void testRuleAfterUnconditionalMaskIsUnreachable() {
+        Rule mask = rule("mask-all", "name", "MASK", 10, condition("NOT_NULL", null),
+            Map.of("maskType", "FULL", "maskChar", "*", "length", 5));
+        Rule vip = rule("mask-vip", "name", "MASK", 20, condition("EQUALS", "VIP"),
+            Map.of("maskType", "FULL", "maskChar", "#", "length", 3));
+        Rule stars = rule("replace-stars", "name", "REPLACE", 30, condition("CONTAINS", "*"),
+            Map.of("replaceWith", "-"));
+
+        RuleAnalysisReport report = analyzer.analyze(List.of(mask, vip, stars));
+
+        assertPruned(report, "mask-vip", FindingType.UNREACHABLE_AFTER_MASK);
+        // "*****" can still reach the REPLACE rule and matches it
+        assertFalse(report.isPruned(stars));
+    }
+
+    @Test
+    void testTransformOverwrittenByConstantRule() {
+        Rule upper = rule("upper", "status", "TRANSFORM", 100, condition("NOT_NULL", null), "UPPERCASE");
+        Rule known = rule("known", "status", "CATEGORIZE", 200, condition("NOT_NULL", null), "KNOWN");
+        Rule trim = rule("trim", "code", "TRANSFORM", 100, condition("NOT_NULL", null), "TRIM");
+        Rule present = rule("present", "code", "CATEGORIZE", 200, condition("NOT_NULL", null), "PRESENT");
+
+        RuleAnalysisReport report = analyzer.analyze(List.of(upper, known, trim, present));
+
+        assertPruned(report, "upper", FindingType.OVERWRITTEN_TRANSFORM);
+        // TRIM changes blank values, which the NOT_NULL rule lets through
+        assertFalse(report.isPruned(trim));
+    }
+
+    @Test
+    void testDuplicatesAreReported() {
+        Rule upper = rule("upper", "name", "TRANSFORM", 200, condition("NOT_NULL", null), "UPPERCASE");
+        Rule upperAgain = rule("upper-again", "name", "TRANSFORM", 200, condition("NOT_NULL", null), "UPPERCASE");
+        Rule disabled = rule("upper-old", "name", "TRANSFORM", 300, condition("NOT_NULL", null), "UPPERCASE");
+        disabled.setEnabled(false);
+        Rule sameId = rule("upper", "email", "TRANSFORM", 200, condition("NOT_NULL", null), "LOWERCASE");
+
+        RuleAnalysisReport report = analyzer.analyze(List.of(upper, upperAgain, disabled, sameId));
+
+        assertPruned(report, "upper-again", FindingType.DUPLICATE_RULE);
+        assertEquals(FindingType.DISABLED_DUPLICATE, finding(report, "upper-old").orElseThrow().getType());
+        assertFalse(report.isPruned(sameId));
+        assertTrue(report.getFindings().stream()
+            .anyMatch(f -> f.getType() == FindingType.DUPLICATE_ID && !f.isPruned()));
+    }
+
+    @Test
+    void testReportOnlyModeKeepsRules() {
+        Rule impossible = rule("impossible", "age", "CATEGORIZE", 100, between(50, 40), "Never");
+
+        RuleAnalysisReport report = new RuleSetAnalyzer(false).analyze(List.of(impossible));
+
+        assertEquals(1, report.getFindings().size());
+        assertFalse(report.isPruned(impossible));
+        assertEquals(1, report.getLiveRuleCount());
+    }
+
+    private void assertPruned(RuleAnalysisReport report, String ruleId, FindingType type) {
+        Finding finding = finding(report, ruleId).orElseThrow(() -> new AssertionError("No finding for " + ruleId));
+        assertEquals(type, finding.getType());
+        assertTrue(finding.isPruned());
+    }
+
+    private Optional<Finding> finding(RuleAnalysisReport report, String ruleId) {
+        return report.getFindings().stream().filter(f -> ruleId.equals(f.getRuleId())).findFirst();
+    }
+
+    private RuleCondition condition(String operator, Object value) {
+        return RuleCondition.builder().operator(operator).value(value).build();
+    }
+
+    private RuleCondition between(int min, int max) {
+        return RuleCondition.builder().operator("BETWEEN").min(min).max(max).build();
+    }
+
+    private Rule rule(String id, String field, String type, int priority, RuleCondition condition, Object action) {
+        return Rule.builder()
+            .id(id)
+            .fieldName(field)
+            .type(type)
+            .priority(priority)
+            .enabled(true)
+            .condition(condition)
+            .action(action)
+            .build();
+    }
+}
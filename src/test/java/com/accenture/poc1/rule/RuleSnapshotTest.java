@@ -0,0 +1,84 @@
+package com.accenture.poc1.rule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSnapshotRoundTripsRulesAndReport() throws Exception {
+        Path snapshot = tempDir.resolve("rules.snapshot");
+        EnhancedRuleEngine fromJson = engine(snapshot, true);
+        assertTrue(Files.exists(snapshot));
+
+        byte[] json = getClass().getResourceAsStream("/rules.json").readAllBytes();
+        Optional<RuleSnapshot.Contents> contents = RuleSnapshot.read(snapshot, RuleSnapshot.key(json, true));
+        assertTrue(contents.isPresent());
+        assertEquals(fromJson.getRulesForField("name"), contents.get().getRules().stream()
+            .filter(rule -> "name".equals(rule.getFieldName())).toList());
+
+        EnhancedRuleEngine fromSnapshot = engine(snapshot, true);
+        assertEquals(fromJson.getRuleOrder(), fromSnapshot.getRuleOrder());
+        assertEquals(fromJson.getAnalysisReport(), fromSnapshot.getAnalysisReport());
+        for (String value : List.of("John Doe", "Michael Chen", "123-45-6789", "5551234567", "42")) {
+            for (String field : List.of("name", "ssn", "phone", "age")) {
+                assertEquals(fromJson.applyRules(field, value), fromSnapshot.applyRules(field, value));
+            }
+        }
+    }
+
+    @Test
+    void testKeyMismatchFallsBackToJson() throws Exception {
+        Path snapshot = tempDir.resolve("rules.snapshot");
+        engine(snapshot, true);
+        byte[] json = getClass().getResourceAsStream("/rules.json").readAllBytes();
+
+        // Different analysis settings produce a different key
+        assertTrue(RuleSnapshot.read(snapshot, RuleSnapshot.key(json, false)).isEmpty());
+        EnhancedRuleEngine engine = engine(snapshot, false);
+        assertEquals("Young", engine.applyRules("age", 20));
+        assertTrue(RuleSnapshot.read(snapshot, RuleSnapshot.key(json, false)).isPresent());
+    }
+
+    @Test
+    void testEngineVersionChangeInvalidatesSnapshot() throws Exception {
+        Path snapshot = tempDir.resolve("rules.snapshot");
+        engine(snapshot, true);
+        byte[] json = getClass().getResourceAsStream("/rules.json").readAllBytes();
+
+        assertTrue(RuleSnapshot.read(snapshot, RuleSnapshot.key(json, true, RuleSnapshot.ENGINE_VERSION)).isPresent());
+        assertTrue(RuleSnapshot.read(snapshot, RuleSnapshot.key(json, true, "analyzer-" + (RuleSetAnalyzer.VERSION + 1)
+            + "/dev")).isEmpty());
+        assertTrue(RuleSnapshot.read(snapshot, RuleSnapshot.key(json, true, "analyzer-" + RuleSetAnalyzer.VERSION
+            + "/1.0.1")).isEmpty());
+    }
+
+    @Test
+    void testCorruptSnapshotIsReplaced() throws Exception {
+        Path snapshot = tempDir.resolve("rules.snapshot");
+        Files.write(snapshot, new byte[] {0x52, 0x53, 0x4E, 0x50, 0, 0, 0, 1, 7});
+
+        EnhancedRuleEngine engine = engine(snapshot, true);
+        assertEquals(12, engine.getAnalysisReport().getRuleCount());
+
+        byte[] json = getClass().getResourceAsStream("/rules.json").readAllBytes();
+        assertTrue(RuleSnapshot.read(snapshot, RuleSnapshot.key(json, true)).isPresent());
+    }
+
+    private EnhancedRuleEngine engine(Path snapshot, boolean prune) {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getSnapshot().setPath(snapshot.toString());
+        properties.getAnalysis().setPrune(prune);
+        return new EnhancedRuleEngine(properties);
+    }
+}
@@ -0,0 +1,52 @@
+package com.accenture.poc1.rule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShadowEvaluationTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReportsOnlyDivergingFieldsPerChangedRule() throws Exception {
+        Path report = directory.resolve("rule-diff.csv");
+        Path summary = directory.resolve("rule-diff-summary.json");
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.setRulesLocation("classpath:rules/reject-rules.json");
+        properties.getShadow().setCandidateLocation("classpath:rules/reject-rules-candidate.json");
+        properties.getShadow().setReportPath(report.toString());
+        properties.getShadow().setSummaryPath(summary.toString());
+        EnhancedRuleEngine engine = new EnhancedRuleEngine(properties);
+
+        assertEquals("ANN LEE", engine.applyRules("name", "Ann Lee", 1));
+        assertEquals("40", engine.applyRules("age", 40, 1));
+        assertEquals("110", engine.applyRules("age", 110, 2));
+        assertThrows(RecordRejectedException.class, () -> engine.applyRules("age", 150, 3));
+        engine.close();
+
+        List<String> lines = Files.readAllLines(report);
+        assertEquals(List.of(ShadowEvaluation.CSV_HEADER,
+            "2,age,\"110\",REJECT(validate-age-range),validate-age-range"), lines);
+        assertEquals(Map.of("validate-age-range", 1L), engine.getShadowDivergences());
+        String json = Files.readString(summary);
+        assertTrue(json.contains("\"comparisons\" : 4"));
+        assertTrue(json.contains("\"divergences\" : 1"));
+    }
+
+    @Test
+    void testShadowModeIsOffWithoutCandidate() {
+        EnhancedRuleEngine engine = new EnhancedRuleEngine();
+
+        assertEquals("JOHN DOE", engine.applyRules("name", "John Doe"));
+        assertTrue(engine.getShadowDivergences().isEmpty());
+        engine.close();
+    }
+}
@@ -0,0 +1,89 @@
+package com.accenture.poc1.runner;
+
+import com.accenture.poc1.config.TestBatchConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.sql.init.mode=always",
+    "spring.datasource.url=jdbc:h2:mem:runner;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=MySQL",
+    "job-runner.thread-budget=2"
+})
+@ActiveProfiles("test")
+@EnableAutoConfiguration
+@Import(TestBatchConfiguration.class)
+class JobRunnerTest {
+
+    @Autowired
+    private JobRunner jobRunner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testParsesJobArguments() {
+        List<JobRunner.JobRequest> requests = JobRunner.parse(
+            "--job=clientToCsv,output=a.csv", "--job=clientToCsv, output = b.csv", "--spring.profiles.active=dev");
+
+        assertEquals(2, requests.size());
+        assertEquals("clientToCsv", requests.get(0).jobName());
+        assertEquals(Map.of("output", "a.csv"), requests.get(0).parameters());
+        assertEquals(Map.of("output", "b.csv"), requests.get(1).parameters());
+        assertEquals(List.of(new JobRunner.JobRequest("clientToCsv", Map.of())), JobRunner.parse("clientToCsv"));
+        assertTrue(JobRunner.parse("--debug").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> JobRunner.parse("--job=clientToCsv,output"));
+    }
+
+    @Test
+    void testConcurrencyFollowsThreadBudget() {
+        JobRunnerProperties properties = new JobRunnerProperties();
+        properties.setThreadBudget(8);
+        properties.setThreadsPerJob(3);
+        assertEquals(2, properties.concurrency(5));
+        assertEquals(1, properties.concurrency(1));
+
+        properties.setMaxConcurrentJobs(1);
+        assertEquals(1, properties.concurrency(5));
+
+        properties.setThreadsPerJob(16);
+        properties.setMaxConcurrentJobs(0);
+        assertEquals(1, properties.concurrency(5));
+    }
+
+    @Test
+    void testRunsJobsConcurrentlyIntoSeparateFiles() throws Exception {
+        Path first = Path.of("target/job-runner-test-a.csv");
+        Path second = Path.of("target/job-runner-test-b.csv");
+        Files.deleteIfExists(first);
+        Files.deleteIfExists(second);
+        int clients = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM client", Integer.class);
+
+        List<JobRunner.Launch> launches = jobRunner.runJobs(JobRunner.parse(
+            "--job=clientToCsv,output=" + first, "--job=clientToCsvJob,output=" + second));
+
+        assertEquals(2, launches.size());
+        for (JobRunner.Launch launch : launches) {
+            assertEquals(BatchStatus.COMPLETED, launch.execution().getStatus());
+            assertEquals(1L, launch.execution().getJobParameters().getLong("threads"));
+        }
+        assertEquals(clients + 1, Files.readAllLines(first).size());
+        assertEquals(clients + 1, Files.readAllLines(second).size());
+
+        String report = JobRunner.report(launches, 1_000_000_000L);
+        assertTrue(report.contains("clientToCsv {output=" + first + "}"));
+        assertTrue(report.contains("Total (2 jobs, wall clock)"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.accenture.poc1.writer;
+
+import com.accenture.poc1.model.Client;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ArrowClientItemWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWritesDictionaryEncodedBatches() throws Exception {
+        Path output = tempDir.resolve("clients.arrows");
+        StepExecution stepExecution = stepExecution();
+        ArrowClientItemWriter writer = new ArrowClientItemWriter(output, 2, stepExecution);
+        writer.open(new ExecutionContext());
+        writer.write(Chunk.of(client(1, "Young"), client(2, "Adult"), client(3, "Young")));
+        writer.write(Chunk.of(client(4, "Senior"), client(5, null)));
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        assertNull(writer.afterStep(stepExecution));
+        writer.close();
+
+        List<String> rows = new ArrayList<>();
+        int batches = 0;
+        try (RootAllocator allocator = new RootAllocator();
+             InputStream in = Files.newInputStream(output);
+             ArrowStreamReader reader = new ArrowStreamReader(in, allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                batches++;
+                FieldVector indices = root.getVector("ageCategory");
+                Dictionary dictionary = reader.getDictionaryVectors()
+                    .get(indices.getField().getDictionary().getId());
+                try (VarCharVector categories = (VarCharVector) DictionaryEncoder.decode(indices, dictionary)) {
+                    for (int i = 0; i < root.getRowCount(); i++) {
+                        rows.add(((IntVector) root.getVector("id")).get(i) + ","
+                            + root.getVector("name").getObject(i) + ","
+                            + categories.getObject(i));
+                    }
+                }
+            }
+        }
+
+        assertEquals(3, batches);
+        assertEquals(List.of("1,Client 1,Young", "2,Client 2,Adult", "3,Client 3,Young",
+            "4,Client 4,Senior", "5,Client 5,null"), rows);
+    }
+
+    @Test
+    void testRefusesToResume() {
+        ExecutionContext context = new ExecutionContext();
+        ArrowClientItemWriter writer = new ArrowClientItemWriter(tempDir.resolve("clients.arrows"), 10, stepExecution());
+        writer.open(context);
+        writer.update(context);
+        writer.close();
+
+        assertThrows(ItemStreamException.class, () -> writer.open(context));
+    }
+
+    @Test
+    void testFailedStepKeepsPreviousOutput() throws Exception {
+        Path output = tempDir.resolve("clients.arrows");
+        Files.writeString(output, "previous run");
+        StepExecution stepExecution = stepExecution();
+        AtomicInteger reads = new AtomicInteger();
+        ItemReader<Client> reader = () -> {
+            int id = reads.incrementAndGet();
+            if (id == 6) {
+                throw new IllegalStateException("Connection lost");
+            }
+            return client(id, "Adult");
+        };
+        Step step = new StepBuilder("arrowStep", mock(JobRepository.class))
+            .<Client, Client>chunk(2, new ResourcelessTransactionManager())
+            .reader(reader)
+            .writer(new ArrowClientItemWriter(output, 3, stepExecution))
+            .build();
+
+        step.execute(stepExecution);
+
+        assertEquals(BatchStatus.FAILED, stepExecution.getStatus());
+        assertEquals(4, stepExecution.getWriteCount());
+        assertEquals("previous run", Files.readString(output));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(output), files.toList());
+        }
+    }
+
+    @Test
+    void testFailedMoveFailsTheStep() throws Exception {
+        // The output path is taken by a non-empty directory, so the final move fails
+        Path output = tempDir.resolve("clients.arrows");
+        Files.createDirectories(output);
+        Files.writeString(output.resolve("keep"), "in the way");
+        StepExecution stepExecution = stepExecution();
+        AtomicInteger reads = new AtomicInteger();
+        ItemReader<Client> reader = () -> {
+            int id = reads.incrementAndGet();
+            return id <= 5 ? client(id, "Adult") : null;
+        };
+        Step step = new StepBuilder("arrowStep", mock(JobRepository.class))
+            .<Client, Client>chunk(2, new ResourcelessTransactionManager())
+            .reader(reader)
+            .writer(new ArrowClientItemWriter(output, 3, stepExecution))
+            .build();
+
+        step.execute(stepExecution);
+
+        assertEquals(BatchStatus.FAILED, stepExecution.getStatus());
+        assertEquals(ExitStatus.FAILED.getExitCode(), stepExecution.getExitStatus().getExitCode());
+        assertEquals(5, stepExecution.getWriteCount());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(output), files.toList());
+        }
+    }
+
+    private static StepExecution stepExecution() {
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "testJob"), 1L, new JobParameters());
+        return new StepExecution("arrowStep", jobExecution, 2L);
+    }
+
+    private static Client client(int id, String category) {
+        Client client = new Client(id, "Client " + id, 30);
+        client.setAgeCategory(category);
+        return client;
+    }
+}
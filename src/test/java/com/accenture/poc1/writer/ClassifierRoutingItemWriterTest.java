@@ -0,0 +1,102 @@
+package com.accenture.poc1.writer;
+
+import com.accenture.poc1.model.Client;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassifierRoutingItemWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoutesItemsToOneFilePerKey() throws Exception {
+        ClassifierRoutingItemWriter<Client> writer = writer(4);
+        writer.open(new ExecutionContext());
+        writer.write(Chunk.of(client(1, "Young"), client(2, "Senior"), client(3, "Young")));
+        writer.close();
+
+        assertEquals(List.of("id,category", "1,Young", "3,Young"), lines("Young"));
+        assertEquals(List.of("id,category", "2,Senior"), lines("Senior"));
+    }
+
+    @Test
+    void testEvictedRoutesAreReopenedInAppendMode() throws Exception {
+        ClassifierRoutingItemWriter<Client> writer = writer(1);
+        writer.open(new ExecutionContext());
+        writer.write(Chunk.of(client(1, "A"), client(2, "B"), client(3, "C")));
+        writer.write(Chunk.of(client(4, "A"), client(5, "C")));
+        writer.close();
+
+        assertEquals(List.of("id,category", "1,A", "4,A"), lines("A"));
+        assertEquals(List.of("id,category", "2,B"), lines("B"));
+        assertEquals(List.of("id,category", "3,C", "5,C"), lines("C"));
+    }
+
+    @Test
+    void testRestartTruncatesToLastCommit() throws Exception {
+        ExecutionContext context = new ExecutionContext();
+        ClassifierRoutingItemWriter<Client> writer = writer(4);
+        writer.open(context);
+        writer.write(Chunk.of(client(1, "A")));
+        writer.update(context);
+        // Written but never committed
+        writer.write(Chunk.of(client(2, "A")));
+        writer.close();
+
+        ClassifierRoutingItemWriter<Client> restarted = writer(4);
+        restarted.open(context);
+        restarted.write(Chunk.of(client(3, "A")));
+        restarted.close();
+
+        assertEquals(List.of("id,category", "1,A", "3,A"), lines("A"));
+    }
+
+    @Test
+    void testRouteFileNamesAreSanitized() {
+        assertEquals(Path.of("out/clients-Young.csv"), ClassifierRoutingItemWriter.routeFile("out/clients.csv", "Young"));
+        assertEquals(Path.of("out/clients-a_b_c-904d1d86"), ClassifierRoutingItemWriter.routeFile("out/clients", "a/b c"));
+    }
+
+    @Test
+    void testSanitizedKeysDoNotShareAFile() throws Exception {
+        assertNotEquals(ClassifierRoutingItemWriter.routeFile("out/clients.csv", "a/b"),
+            ClassifierRoutingItemWriter.routeFile("out/clients.csv", "a b"));
+        assertNotEquals(ClassifierRoutingItemWriter.routeFile("out/clients.csv", "a_b"),
+            ClassifierRoutingItemWriter.routeFile("out/clients.csv", "a b"));
+
+        ClassifierRoutingItemWriter<Client> writer = writer(4);
+        writer.open(new ExecutionContext());
+        writer.write(Chunk.of(client(1, "a/b"), client(2, "a b"), client(3, "a_b")));
+        writer.close();
+
+        try (var files = Files.list(tempDir)) {
+            assertEquals(3, files.count());
+        }
+        assertEquals(List.of("id,category", "3,a_b"), lines("a_b"));
+    }
+
+    private ClassifierRoutingItemWriter<Client> writer(int maxOpenFiles) {
+        return new ClassifierRoutingItemWriter<>(Client::getAgeCategory,
+            client -> client.getId() + "," + client.getAgeCategory(),
+            "id,category", tempDir.resolve("clients.csv").toString(), false, maxOpenFiles, 2);
+    }
+
+    private List<String> lines(String key) throws Exception {
+        return Files.readAllLines(tempDir.resolve("clients-" + key + ".csv"));
+    }
+
+    private static Client client(int id, String category) {
+        Client client = new Client(id, "Client " + id, 30);
+        client.setAgeCategory(category);
+        return client;
+    }
+}
@@ -0,0 +1,26 @@
+package com.accenture.poc1.writer;
+
+import com.accenture.poc1.model.Client;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientFieldExtractorTest {
+
+    @Test
+    void testPassThroughColumnsWriteTheSameLine() {
+        DelimitedLineAggregator<Client> aggregator = new DelimitedLineAggregator<>();
+        aggregator.setFieldExtractor(new ClientFieldExtractor("id", "name", "age", "ageCategory"));
+        Client typed = new Client(7, "MICHAEL CHEN", 41, "Senior", null, null);
+        Client passThrough = new Client(null, "MICHAEL CHEN", null, "Senior", "7", "41");
+
+        assertEquals("7,MICHAEL CHEN,41,Senior", aggregator.aggregate(typed));
+        assertEquals(aggregator.aggregate(typed), aggregator.aggregate(passThrough));
+    }
+
+    @Test
+    void testRejectsUnknownProperty() {
+        assertThrows(IllegalArgumentException.class, () -> new ClientFieldExtractor("email"));
+    }
+}
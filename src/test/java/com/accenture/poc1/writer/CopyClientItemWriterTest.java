@@ -0,0 +1,97 @@
+package com.accenture.poc1.writer;
+
+import com.accenture.poc1.model.Client;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopyClientItemWriterTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:copy;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS client_export");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS client_export_staging");
+        jdbcTemplate.execute("CREATE TABLE client_export (id INT PRIMARY KEY, name VARCHAR(255), age INT, age_category VARCHAR(32))");
+        jdbcTemplate.execute("CREATE TABLE client_export_staging (id INT, name VARCHAR(255), age INT, age_category VARCHAR(32))");
+    }
+
+    @Test
+    void testUpsertsThroughStaging() {
+        CopyClientItemWriter writer = new CopyClientItemWriter(dataSource, new H2CopyIn(), "client_export", "client_export_staging");
+
+        write(writer, Chunk.of(client(1, "JOHN \"JD\" DOE", 30, "Adult"), client(2, "JANE, SMITH", 25, null)));
+        write(writer, Chunk.of(client(2, "JANE SMITH", 26, "Young"), client(3, "", 45, "Senior")));
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT * FROM client_export ORDER BY id");
+        assertEquals(3, rows.size());
+        assertEquals("JOHN \"JD\" DOE", rows.get(0).get("NAME"));
+        assertEquals("JANE SMITH", rows.get(1).get("NAME"));
+        assertEquals(26, rows.get(1).get("AGE"));
+        assertEquals("Young", rows.get(1).get("AGE_CATEGORY"));
+        assertEquals("", rows.get(2).get("NAME"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM client_export_staging", Integer.class));
+    }
+
+    @Test
+    void testCopiesStraightIntoTargetWithoutStaging() {
+        CopyClientItemWriter writer = new CopyClientItemWriter(dataSource, new H2CopyIn(), "client_export", null);
+
+        write(writer, Chunk.of(client(1, "JOHN DOE", 30, null)));
+
+        assertNull(jdbcTemplate.queryForObject("SELECT age_category FROM client_export WHERE id = 1", String.class));
+    }
+
+    @Test
+    void testRolledBackChunkLeavesNoRows() {
+        CopyClientItemWriter writer = new CopyClientItemWriter(dataSource, new H2CopyIn(), "client_export", "client_export_staging");
+
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            try {
+                writer.write(Chunk.of(client(1, "JOHN DOE", 30, "Adult")));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            throw new IllegalStateException("chunk failed after write");
+        }));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM client_export", Integer.class));
+    }
+
+    @Test
+    void testRejectsUnsafeTableNames() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new CopyClientItemWriter(dataSource, new H2CopyIn(), "client_export; DROP TABLE client", null));
+    }
+
+    private void write(CopyClientItemWriter writer, Chunk<Client> chunk) {
+        transaction.executeWithoutResult(status -> {
+            try {
+                writer.write(chunk);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static Client client(int id, String name, int age, String category) {
+        Client client = new Client(id, name, age);
+        client.setAgeCategory(category);
+        return client;
+    }
+}
@@ -0,0 +1,78 @@
+package com.accenture.poc1.writer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stand-in for {@link PgCopyIn} on H2: parses the COPY CSV and batch-inserts it.
+ */
+class H2CopyIn implements CopyIn {
+
+    @Override
+    public long copy(Connection connection, String table, List<String> columns, Reader csv)
+            throws SQLException, IOException {
+        String placeholders = String.join(", ", Collections.nCopies(columns.size(), "?"));
+        long rows = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" + placeholders + ")");
+             BufferedReader lines = new BufferedReader(csv)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                List<String> fields = parse(line);
+                for (int i = 0; i < fields.size(); i++) {
+                    insert.setString(i + 1, fields.get(i));
+                }
+                insert.addBatch();
+                rows++;
+            }
+            insert.executeBatch();
+        }
+        return rows;
+    }
+
+    @Override
+    public String mergeSql(String target, String staging, String key, List<String> columns) {
+        String columnList = String.join(", ", columns);
+        return "MERGE INTO " + target + " (" + columnList + ") KEY (" + key + ") SELECT " + columnList + " FROM " + staging;
+    }
+
+    // Same rules as PostgreSQL CSV: unquoted empty is NULL, "" inside quotes is a quote
+    private static List<String> parse(String line) {
+        List<String> fields = new ArrayList<>();
+        int i = 0;
+        while (i <= line.length()) {
+            if (i < line.length() && line.charAt(i) == '"') {
+                StringBuilder value = new StringBuilder();
+                i++;
+                while (true) {
+                    char c = line.charAt(i++);
+                    if (c == '"') {
+                        if (i < line.length() && line.charAt(i) == '"') {
+                            value.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        value.append(c);
+                    }
+                }
+                fields.add(value.toString());
+                i++;
+            } else {
+                int comma = line.indexOf(',', i);
+                int end = comma < 0 ? line.length() : comma;
+                fields.add(end == i ? null : line.substring(i, end));
+                i = end + 1;
+            }
+        }
+        return fields;
+    }
+}